@@ -0,0 +1,90 @@
+package com.yahtzee;
+
+import java.util.*;
+
+// Scorecards, hands and games shared by the benchmarks
+public class BenchmarkFixtures {
+
+    // How far into the game the benchmarked scorecard is
+    public enum Stage {
+        EARLY(1),
+        MID(6),
+        LATE(10);
+
+        private final int filledCategories;
+
+        Stage(int filledCategories) {
+            this.filledCategories = filledCategories;
+        }
+
+        public int getFilledCategories() {
+            return filledCategories;
+        }
+    }
+
+    // Order in which categories get claimed, with the points claimed for each
+    private static final List<Category> CLAIM_ORDER = List.of(
+            Category.SIXES,
+            Category.YAHTZEE,
+            Category.ONES,
+            Category.FULL_HOUSE,
+            Category.THREES,
+            Category.FOUR_STRAIGHT,
+            Category.FIVES,
+            Category.THREE_OF_A_KIND,
+            Category.TWOS,
+            Category.FIVE_STRAIGHT,
+            Category.FOURS,
+            Category.FOUR_OF_A_KIND);
+    private static final int[] CLAIM_POINTS = { 18, 50, 3, 25, 9, 30, 15, 22, 6, 40, 12, 24 };
+
+    // Representative final hands
+    public static final List<List<Integer>> HANDS = List.of(
+            List.of(1, 1, 1, 1, 1),
+            List.of(2, 3, 4, 5, 6),
+            List.of(1, 2, 3, 4, 6),
+            List.of(3, 3, 3, 5, 5),
+            List.of(4, 4, 4, 4, 2),
+            List.of(6, 6, 6, 1, 2),
+            List.of(1, 3, 5, 2, 2),
+            List.of(1, 2, 4, 5, 6));
+
+    // Representative (kept dice, rolled dice) decision points
+    public static final List<List<Integer>> KEPT_DICE = List.of(
+            List.of(),
+            List.of(3, 3),
+            List.of(1, 2, 3),
+            List.of(6, 6, 6, 6));
+    public static final List<List<Integer>> ROLLED_DICE = List.of(
+            List.of(2, 3, 3, 5, 6),
+            List.of(3, 1, 6),
+            List.of(4, 6),
+            List.of(2));
+
+    public static final Human HUMAN = new Human();
+    public static final Computer COMPUTER = new Computer();
+
+    public static List<Player> players() {
+        return Arrays.asList(HUMAN, COMPUTER);
+    }
+
+    // Returns a scorecard with the stage's number of claimed categories
+    public static ScoreCard scoreCard(Stage stage) {
+        ScoreCard scoreCard = new ScoreCard();
+        for (int i = 0; i < stage.getFilledCategories(); i++) {
+            Player winner = i % 2 == 0 ? HUMAN : COMPUTER;
+            scoreCard = scoreCard.addEntry(CLAIM_ORDER.get(i), CLAIM_POINTS[i], winner, i / 2 + 1);
+        }
+        return scoreCard;
+    }
+
+    // Returns a game at the stage's scorecard
+    public static Game game(Stage stage) {
+        return new Game(scoreCard(stage), stage.getFilledCategories() / 2 + 1, players());
+    }
+
+    // Returns the first category still open on the scorecard
+    public static Category openCategory(ScoreCard scoreCard) {
+        return scoreCard.getOpenCategories().get(0);
+    }
+}
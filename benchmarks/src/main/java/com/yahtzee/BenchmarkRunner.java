@@ -0,0 +1,22 @@
+package com.yahtzee;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Runs the benchmarks with the GC profiler so allocation per operation is reported.
+// Usage: java -jar benchmarks/target/benchmarks.jar [benchmark regex] [result file]
+public class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(args.length > 0 ? args[0] : "com\\.yahtzee\\..*Benchmark")
+                .addProfiler(GCProfiler.class);
+        if (args.length > 1) {
+            options.result(args[1]).resultFormat(ResultFormatType.JSON);
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,383 @@
+package com.yahtzee;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.RuntimeMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+// End-to-end benchmark of whole Computer-vs-Computer games, from Game.playRound
+// down to the Computer's decisions, with no console output.
+//
+// Every iteration plays the same fixed-seed games through BatchSimulator, so
+// runs differ only by the machine; the harness checks that each iteration
+// produced the same scores. After warmup it measures games per second on one
+// thread and on N threads, with the bytes allocated per game and GC activity,
+// then replays the games on one thread timing every stand and keep decision.
+// The results and the environment they were measured in are written as JSON.
+//
+// The Computer's decision cache is shared by every game and outlives an
+// iteration, so a second pass over the same seeds is mostly cache lookups.
+// Every measurement is therefore made twice: cold, with the cache cleared
+// before each warmup, measured and latency run, and warm, with it left full
+// from the runs before. Both are reported with the cache hit rate they saw.
+//
+// Usage: java -cp benchmarks/target/benchmarks.jar com.yahtzee.GameBenchmark
+//            [results.json] [games] [iterations] [threads] [seed] [strategy]
+public class GameBenchmark {
+    private static final int WARMUP_ITERATIONS = 3;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // Computer that records how long each stand and keep decision of another
+    // computer takes. Both come down to one keep choice, which is timed here.
+    private static final class TimedComputer extends PolicyComputer {
+        private final Computer computer;
+        private final LatencyHistogram decisions;
+
+        TimedComputer(Computer computer, DiceProvider diceProvider, LatencyHistogram decisions) {
+            super(computer.getName(), diceProvider);
+            this.computer = computer;
+            this.decisions = decisions;
+        }
+
+        @Override
+        protected List<Integer> chooseKeep(ScoreCard scoreCard, List<Integer> diceRolls, List<Integer> keptDice,
+                int rollsLeft) {
+            long start = System.nanoTime();
+            List<Integer> diceToKeep = computer.getDiceToKeep(scoreCard, diceRolls, keptDice, rollsLeft);
+            decisions.record(System.nanoTime() - start);
+            return diceToKeep;
+        }
+    }
+
+    // Measurements of one iteration
+    private static final class Iteration {
+        double gamesPerSecond;
+        long allocatedBytes;
+        long gcCount;
+        long gcMillis;
+        long cacheHits;
+        long cacheMisses;
+        BatchSimulator.Result result;
+    }
+
+    // Decision latencies of one replay and the decision cache lookups made during it
+    private static final class Decisions {
+        final LatencyHistogram latency = new LatencyHistogram();
+        long cacheHits;
+        long cacheMisses;
+    }
+
+    private final long games;
+    private final long seed;
+    private final ComputerStrategy strategy;
+
+    public GameBenchmark(long games, long seed, ComputerStrategy strategy) {
+        this.games = games;
+        this.seed = seed;
+        this.strategy = strategy;
+    }
+
+    // Plays the games once on a pool of the given size, first emptying the
+    // decision cache if cold
+    private Iteration runIteration(BatchSimulator simulator, int threads, boolean cold) {
+        DecisionCache cache = Computer.getDecisionCache();
+        if (cold) {
+            cache.clear();
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            long hitsBefore = cache.getHits();
+            long missesBefore = cache.getMisses();
+            // Workers started during the run are missing from this snapshot and count from zero
+            Map<Long, Long> allocatedBefore = allocatedBytesByThread();
+            long gcCountBefore = gcCount();
+            long gcMillisBefore = gcMillis();
+
+            Iteration iteration = new Iteration();
+            long start = System.nanoTime();
+            iteration.result = simulator.run(games, seed, pool);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            iteration.gamesPerSecond = games / seconds;
+            for (Map.Entry<Long, Long> thread : allocatedBytesByThread().entrySet()) {
+                iteration.allocatedBytes += thread.getValue() - allocatedBefore.getOrDefault(thread.getKey(), 0L);
+            }
+            iteration.gcCount = gcCount() - gcCountBefore;
+            iteration.gcMillis = gcMillis() - gcMillisBefore;
+            iteration.cacheHits = cache.getHits() - hitsBefore;
+            iteration.cacheMisses = cache.getMisses() - missesBefore;
+            return iteration;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Warms up, then runs the measured iterations, checking that every one played the same games
+    private List<Iteration> measure(BatchSimulator simulator, int threads, int iterations,
+            BatchSimulator.Result expected, boolean cold) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            checkSameGames(expected, runIteration(simulator, threads, cold).result);
+        }
+        List<Iteration> measured = new ArrayList<>();
+        for (int i = 0; i < iterations; i++) {
+            Iteration iteration = runIteration(simulator, threads, cold);
+            checkSameGames(expected, iteration.result);
+            measured.add(iteration);
+            System.out.printf("  %d threads, %s cache, iteration %d: %.1f games/s, %.1f KB/game, %.1f%% cache hits%n",
+                    threads, cacheState(cold), i + 1, iteration.gamesPerSecond,
+                    iteration.allocatedBytes / 1024.0 / games,
+                    100 * hitRate(iteration.cacheHits, iteration.cacheMisses));
+        }
+        return measured;
+    }
+
+    private static String cacheState(boolean cold) {
+        return cold ? "cold" : "warm";
+    }
+
+    private static double hitRate(long hits, long misses) {
+        return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+
+    private static double meanGamesPerSecond(List<Iteration> iterations) {
+        return iterations.stream().mapToDouble(iteration -> iteration.gamesPerSecond).average().orElse(0);
+    }
+
+    private static void checkSameGames(BatchSimulator.Result expected, BatchSimulator.Result actual) {
+        for (int seat = 0; seat < BatchSimulator.NUM_SEATS; seat++) {
+            if (expected.getMeanScore(seat) != actual.getMeanScore(seat)) {
+                throw new IllegalStateException("Games differed between iterations; results are not repeatable");
+            }
+        }
+        if (expected.getDraws() != actual.getDraws()) {
+            throw new IllegalStateException("Games differed between iterations; results are not repeatable");
+        }
+    }
+
+    private static Map<Long, Long> allocatedBytesByThread() {
+        long[] ids = THREADS.getAllThreadIds();
+        long[] bytes = THREADS.getThreadAllocatedBytes(ids);
+        Map<Long, Long> byThread = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            if (bytes[i] >= 0) {
+                byThread.put(ids[i], bytes[i]);
+            }
+        }
+        return byThread;
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        return millis;
+    }
+
+    // Replays the games on one thread, timing every decision, first
+    // emptying the decision cache before each replay if cold. The first
+    // replay warms up the timed players and is not counted.
+    private Decisions measureDecisions(boolean cold) {
+        DecisionCache cache = Computer.getDecisionCache();
+        Decisions decisions = null;
+        for (int run = 0; run < 2; run++) {
+            if (cold) {
+                cache.clear();
+            }
+            Decisions replay = new Decisions();
+            BatchSimulator.PlayerFactory timed = (name, dice) -> new TimedComputer(strategy.create(name, dice), dice,
+                    replay.latency);
+            BatchSimulator simulator = new BatchSimulator(timed, timed);
+            ForkJoinPool pool = new ForkJoinPool(1);
+            long hitsBefore = cache.getHits();
+            long missesBefore = cache.getMisses();
+            try {
+                simulator.run(games, seed, pool);
+            } finally {
+                pool.shutdown();
+            }
+            replay.cacheHits = cache.getHits() - hitsBefore;
+            replay.cacheMisses = cache.getMisses() - missesBefore;
+            decisions = replay;
+        }
+        return decisions;
+    }
+
+    private static void appendIterations(StringBuilder json, int threads, boolean cold, List<Iteration> iterations,
+            long games) {
+        double[] rates = iterations.stream().mapToDouble(iteration -> iteration.gamesPerSecond).toArray();
+        double mean = Arrays.stream(rates).average().orElse(0);
+        double variance = Arrays.stream(rates).map(rate -> (rate - mean) * (rate - mean)).sum()
+                / Math.max(1, rates.length - 1);
+        long allocated = iterations.stream().mapToLong(iteration -> iteration.allocatedBytes).sum();
+        json.append("    {\n");
+        json.append("      \"threads\": ").append(threads).append(",\n");
+        json.append("      \"decisionCache\": ").append(quote(cacheState(cold))).append(",\n");
+        json.append("      \"decisionCacheHitRate\": ")
+                .append(round4(hitRate(iterations.stream().mapToLong(iteration -> iteration.cacheHits).sum(),
+                        iterations.stream().mapToLong(iteration -> iteration.cacheMisses).sum())))
+                .append(",\n");
+        json.append("      \"gamesPerSecond\": {\"mean\": ").append(round(mean))
+                .append(", \"stddev\": ").append(round(Math.sqrt(variance)))
+                .append(", \"min\": ").append(round(Arrays.stream(rates).min().orElse(0)))
+                .append(", \"max\": ").append(round(Arrays.stream(rates).max().orElse(0)))
+                .append(", \"samples\": [");
+        for (int i = 0; i < rates.length; i++) {
+            json.append(i == 0 ? "" : ", ").append(round(rates[i]));
+        }
+        json.append("]},\n");
+        json.append("      \"allocatedBytesPerGame\": ").append(allocated / (games * iterations.size())).append(",\n");
+        json.append("      \"gcCount\": ").append(iterations.stream().mapToLong(iteration -> iteration.gcCount).sum())
+                .append(",\n");
+        json.append("      \"gcMillis\": ").append(iterations.stream().mapToLong(iteration -> iteration.gcMillis).sum())
+                .append("\n");
+        json.append("    }");
+    }
+
+    private static void appendDecisions(StringBuilder json, boolean cold, Decisions decisions) {
+        LatencyHistogram latency = decisions.latency;
+        json.append("    {\"decisionCache\": ").append(quote(cacheState(cold)))
+                .append(", \"decisionCacheHitRate\": ").append(round4(hitRate(decisions.cacheHits,
+                        decisions.cacheMisses)))
+                .append(", \"decisions\": ").append(latency.getCount())
+                .append(", \"meanMicros\": ").append(round(latency.getMeanMicros()))
+                .append(", \"p50Micros\": ").append(round(latency.getPercentileNanos(0.5) / 1000.0))
+                .append(", \"p99Micros\": ").append(round(latency.getPercentileNanos(0.99) / 1000.0))
+                .append(", \"p999Micros\": ").append(round(latency.getPercentileNanos(0.999) / 1000.0))
+                .append("}");
+    }
+
+    private static void printDecisions(boolean cold, Decisions decisions) {
+        LatencyHistogram latency = decisions.latency;
+        System.out.printf("Decisions, %s cache (%.1f%% hits): %d, mean %.2f us, p50 %.2f us, p99 %.2f us, "
+                + "p99.9 %.2f us%n", cacheState(cold), 100 * hitRate(decisions.cacheHits, decisions.cacheMisses),
+                latency.getCount(), latency.getMeanMicros(), latency.getPercentileNanos(0.5) / 1000.0,
+                latency.getPercentileNanos(0.99) / 1000.0, latency.getPercentileNanos(0.999) / 1000.0);
+    }
+
+    private static void appendEnvironment(StringBuilder json) {
+        RuntimeMXBean runtime = ManagementFactory.getRuntimeMXBean();
+        json.append("  \"environment\": {\n");
+        for (String property : new String[] { "java.version", "java.vendor", "java.vm.name", "java.vm.version",
+                "os.name", "os.arch", "os.version" }) {
+            json.append("    ").append(quote(property)).append(": ").append(quote(System.getProperty(property)))
+                    .append(",\n");
+        }
+        json.append("    \"availableProcessors\": ").append(Runtime.getRuntime().availableProcessors()).append(",\n");
+        json.append("    \"maxHeapBytes\": ").append(Runtime.getRuntime().maxMemory()).append(",\n");
+        json.append("    \"garbageCollectors\": [");
+        List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        for (int i = 0; i < collectors.size(); i++) {
+            json.append(i == 0 ? "" : ", ").append(quote(collectors.get(i).getName()));
+        }
+        json.append("],\n");
+        json.append("    \"jvmArguments\": [");
+        List<String> arguments = runtime.getInputArguments();
+        for (int i = 0; i < arguments.size(); i++) {
+            json.append(i == 0 ? "" : ", ").append(quote(arguments.get(i)));
+        }
+        json.append("],\n");
+        json.append("    \"metricsEnabled\": ").append(Metrics.ENABLED).append("\n");
+        json.append("  },\n");
+    }
+
+    private static String round(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    private static String round4(double value) {
+        return String.format(Locale.ROOT, "%.4f", value);
+    }
+
+    private static String quote(String text) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (char c : String.valueOf(text).toCharArray()) {
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < ' ') {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path output = Path.of(args.length > 0 ? args[0] : "game-benchmark.json");
+        long games = args.length > 1 ? Long.parseLong(args[1]) : 2000;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 1;
+        ComputerStrategy strategy = args.length > 5 ? ComputerStrategy.parse(args[5]) : ComputerStrategy.GREEDY;
+        if (games <= 0 || iterations <= 0 || threads <= 0) {
+            throw new IllegalArgumentException("Games, iterations and threads must be positive");
+        }
+
+        GameBenchmark benchmark = new GameBenchmark(games, seed, strategy);
+        BatchSimulator simulator = new BatchSimulator(strategy::create, strategy::create);
+        System.out.printf("%d games per iteration, %d warmup and %d measured iterations, seed %d, %s strategy%n",
+                games, WARMUP_ITERATIONS, iterations, seed, strategy.name().toLowerCase(Locale.ROOT));
+
+        BatchSimulator.Result expected = benchmark.runIteration(simulator, 1, true).result;
+        List<Iteration> singleCold = benchmark.measure(simulator, 1, iterations, expected, true);
+        List<Iteration> singleWarm = benchmark.measure(simulator, 1, iterations, expected, false);
+        List<Iteration> parallelCold = benchmark.measure(simulator, threads, iterations, expected, true);
+        List<Iteration> parallelWarm = benchmark.measure(simulator, threads, iterations, expected, false);
+        Decisions coldDecisions = benchmark.measureDecisions(true);
+        Decisions warmDecisions = benchmark.measureDecisions(false);
+
+        StringBuilder json = new StringBuilder("{\n");
+        json.append("  \"benchmark\": \"GameBenchmark\",\n");
+        json.append("  \"timestamp\": ").append(quote(Instant.now().toString())).append(",\n");
+        appendEnvironment(json);
+        json.append("  \"parameters\": {\"games\": ").append(games).append(", \"warmupIterations\": ")
+                .append(WARMUP_ITERATIONS).append(", \"iterations\": ").append(iterations).append(", \"threads\": ")
+                .append(threads).append(", \"seed\": ").append(seed).append(", \"strategy\": ")
+                .append(quote(strategy.name().toLowerCase(Locale.ROOT))).append("},\n");
+        json.append("  \"games\": {\"meanScores\": [").append(round(expected.getMeanScore(0))).append(", ")
+                .append(round(expected.getMeanScore(1))).append("], \"draws\": ").append(expected.getDraws())
+                .append("},\n");
+        json.append("  \"throughput\": [\n");
+        appendIterations(json, 1, true, singleCold, games);
+        json.append(",\n");
+        appendIterations(json, 1, false, singleWarm, games);
+        json.append(",\n");
+        appendIterations(json, threads, true, parallelCold, games);
+        json.append(",\n");
+        appendIterations(json, threads, false, parallelWarm, games);
+        json.append("\n  ],\n");
+        json.append("  \"decisionLatency\": [\n");
+        appendDecisions(json, true, coldDecisions);
+        json.append(",\n");
+        appendDecisions(json, false, warmDecisions);
+        json.append("\n  ]\n");
+        json.append("}\n");
+        Files.writeString(output, json, StandardCharsets.UTF_8);
+
+        for (boolean cold : new boolean[] { true, false }) {
+            System.out.printf("Games/s, %s cache: %.1f on 1 thread, %.1f on %d threads%n", cacheState(cold),
+                    meanGamesPerSecond(cold ? singleCold : singleWarm),
+                    meanGamesPerSecond(cold ? parallelCold : parallelWarm), threads);
+        }
+        printDecisions(true, coldDecisions);
+        printDecisions(false, warmDecisions);
+        System.out.println("Results written to " + output);
+    }
+}
@@ -0,0 +1,40 @@
+package com.yahtzee;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Claiming categories and choosing the best one for a hand
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScoreCardBenchmark {
+    @Param({ "EARLY", "MID", "LATE" })
+    public BenchmarkFixtures.Stage stage;
+
+    private ScoreCard scoreCard;
+    private Category openCategory;
+
+    @Setup
+    public void setup() {
+        scoreCard = BenchmarkFixtures.scoreCard(stage);
+        openCategory = BenchmarkFixtures.openCategory(scoreCard);
+    }
+
+    @Benchmark
+    public ScoreCard addEntry() {
+        return scoreCard.addEntry(openCategory, 10, BenchmarkFixtures.COMPUTER, 5);
+    }
+
+    @Benchmark
+    public void getMaxScoringCategory(Blackhole blackhole) {
+        for (List<Integer> hand : BenchmarkFixtures.HANDS) {
+            blackhole.consume(scoreCard.getMaxScoringCategory(hand));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.yahtzee;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Category scoring and dice enumeration, evaluated over the open categories of the stage
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScoringBenchmark {
+    @Param({ "EARLY", "MID", "LATE" })
+    public BenchmarkFixtures.Stage stage;
+
+    private List<Category> openCategories;
+
+    @Setup
+    public void setup() {
+        openCategories = BenchmarkFixtures.scoreCard(stage).getOpenCategories();
+    }
+
+    @Benchmark
+    public void getScore(Blackhole blackhole) {
+        for (List<Integer> hand : BenchmarkFixtures.HANDS) {
+            for (Category category : openCategories) {
+                blackhole.consume(Category.getScore(hand, category));
+            }
+        }
+    }
+
+    @Benchmark
+    public void isApplicableCategory(Blackhole blackhole) {
+        for (List<Integer> hand : BenchmarkFixtures.HANDS) {
+            for (Category category : openCategories) {
+                blackhole.consume(Category.isApplicableCategory(hand, category));
+            }
+        }
+    }
+
+    // Enumerates the completions for the dice left to roll at this stage's decision points
+    @Benchmark
+    public void diceCombinations(Blackhole blackhole) {
+        for (List<Integer> kept : BenchmarkFixtures.KEPT_DICE) {
+            blackhole.consume(helperFunctions.diceCombinations(5 - kept.size()));
+        }
+    }
+}
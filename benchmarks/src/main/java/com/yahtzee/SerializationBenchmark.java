@@ -0,0 +1,49 @@
+package com.yahtzee;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+// Saving and loading a game
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+    @Param({ "EARLY", "MID", "LATE" })
+    public BenchmarkFixtures.Stage stage;
+
+    private Game game;
+    private String serial;
+    private ByteBuffer binary;
+
+    @Setup
+    public void setup() {
+        game = BenchmarkFixtures.game(stage);
+        serial = game.serialize();
+        binary = game.toBinary();
+    }
+
+    @Benchmark
+    public String serialize() {
+        return game.serialize();
+    }
+
+    @Benchmark
+    public Game deserialize() {
+        return Game.deserialize(serial);
+    }
+
+    @Benchmark
+    public ByteBuffer toBinary() {
+        return game.toBinary();
+    }
+
+    @Benchmark
+    public Game fromBinary() {
+        return Game.fromBinary(binary.duplicate());
+    }
+}
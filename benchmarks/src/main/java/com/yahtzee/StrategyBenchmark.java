@@ -0,0 +1,84 @@
+package com.yahtzee;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Computer decisions at representative (kept dice, rolled dice) points.
+//
+// Computer.getDiceToKeep answers repeated decision points from the shared
+// DecisionCache, so the decision itself is measured through
+// chooseDiceToKeep and cache hits are measured separately. The cache is
+// cleared before every iteration, and before every help call, so no
+// benchmark depends on what an earlier one left in it.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StrategyBenchmark {
+    @Param({ "EARLY", "MID", "LATE" })
+    public BenchmarkFixtures.Stage stage;
+
+    private ScoreCard scoreCard;
+    private Computer computer;
+
+    // Empties the decision cache before each call of a benchmark that takes it
+    @State(Scope.Thread)
+    public static class ColdCache {
+        @Setup(Level.Invocation)
+        public void clear() {
+            Computer.getDecisionCache().clear();
+        }
+    }
+
+    @Setup
+    public void setup() {
+        scoreCard = BenchmarkFixtures.scoreCard(stage);
+        computer = BenchmarkFixtures.COMPUTER;
+    }
+
+    // Starts each iteration with only this scorecard's decision points cached
+    @Setup(Level.Iteration)
+    public void clearDecisions() {
+        Computer.getDecisionCache().clear();
+        for (int i = 0; i < BenchmarkFixtures.KEPT_DICE.size(); i++) {
+            computer.getDiceToKeep(scoreCard, BenchmarkFixtures.ROLLED_DICE.get(i),
+                    BenchmarkFixtures.KEPT_DICE.get(i));
+        }
+    }
+
+    @Benchmark
+    public void chooseDiceToKeep(Blackhole blackhole) {
+        for (int i = 0; i < BenchmarkFixtures.KEPT_DICE.size(); i++) {
+            blackhole.consume(Computer.chooseDiceToKeep(scoreCard, BenchmarkFixtures.ROLLED_DICE.get(i),
+                    BenchmarkFixtures.KEPT_DICE.get(i)));
+        }
+    }
+
+    @Benchmark
+    public void getDiceToKeepCached(Blackhole blackhole) {
+        for (int i = 0; i < BenchmarkFixtures.KEPT_DICE.size(); i++) {
+            blackhole.consume(computer.getDiceToKeep(scoreCard, BenchmarkFixtures.ROLLED_DICE.get(i),
+                    BenchmarkFixtures.KEPT_DICE.get(i)));
+        }
+    }
+
+    @Benchmark
+    public void getCategoryPursuits(Blackhole blackhole) {
+        for (List<Integer> kept : BenchmarkFixtures.KEPT_DICE) {
+            blackhole.consume(computer.getCategoryPursuits(scoreCard, kept));
+        }
+    }
+
+    @Benchmark
+    public void getHelp(ColdCache coldCache, Blackhole blackhole) {
+        for (int i = 0; i < BenchmarkFixtures.KEPT_DICE.size(); i++) {
+            blackhole.consume(computer.getHelp(scoreCard, BenchmarkFixtures.KEPT_DICE.get(i),
+                    BenchmarkFixtures.ROLLED_DICE.get(i)));
+        }
+    }
+}
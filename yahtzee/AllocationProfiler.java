@@ -0,0 +1,275 @@
+package com.yahtzee;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+// Attributes heap allocation and time to the phases of a turn, so GC
+// pressure can be traced to the step that causes it.
+//
+// A thread profiles a game between begin() and end(). While it does,
+// TurnMachine and ConsoleListener mark each phase with enter and exit, and the
+// profiler reads the thread's allocated-byte counter from the JVM and
+// System.nanoTime at both ends. On every other thread enter and exit are a thread-local
+// lookup that finds nothing. Phases do not nest; anything outside them, such
+// as formatting output and scoring claims, is counted as unattributed. Every
+// phase exits in a finally block, so a phase that throws, such as a client
+// disconnecting while a player is asked for input, does not leave the
+// profiler stuck in it.
+public final class AllocationProfiler {
+    public enum Phase {
+        ROLL("roll"),
+        CATEGORIES("categories"),
+        HELP("help"),
+        STAND("stand"),
+        KEEP("keep"),
+        PURSUIT("pursuit"),
+        TARGET("target");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static final ThreadLocal<AllocationProfiler> CURRENT = new ThreadLocal<>();
+
+    private static final int NUM_PHASES = Phase.values().length;
+
+    private final long[] calls = new long[NUM_PHASES];
+    private final long[] bytes = new long[NUM_PHASES];
+    private final long[] nanos = new long[NUM_PHASES];
+    private Phase open;
+    private long openBytes;
+    private long openNanos;
+    private long totalBytes;
+    private long totalNanos;
+
+    private AllocationProfiler() {
+    }
+
+    // Checks that the JVM can count allocated bytes per thread
+    public static boolean isSupported() {
+        return THREADS.isThreadAllocatedMemorySupported() && THREADS.isThreadAllocatedMemoryEnabled();
+    }
+
+    // Starts profiling the calling thread, dropping any profile a game that
+    // failed before end() left behind
+    public static AllocationProfiler begin() {
+        if (!isSupported()) {
+            throw new IllegalStateException("The JVM does not count allocated bytes per thread");
+        }
+        AllocationProfiler profiler = new AllocationProfiler();
+        CURRENT.set(profiler);
+        profiler.totalBytes = allocatedBytes();
+        profiler.totalNanos = System.nanoTime();
+        return profiler;
+    }
+
+    // Stops profiling the calling thread and returns its profile
+    public static AllocationProfiler end() {
+        AllocationProfiler profiler = CURRENT.get();
+        if (profiler == null) {
+            throw new IllegalStateException("Thread is not being profiled");
+        }
+        profiler.totalBytes = allocatedBytes() - profiler.totalBytes;
+        profiler.totalNanos = System.nanoTime() - profiler.totalNanos;
+        CURRENT.remove();
+        return profiler;
+    }
+
+    private static long allocatedBytes() {
+        return THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    // Marks the start of a phase on the calling thread
+    public static void enter(Phase phase) {
+        AllocationProfiler profiler = CURRENT.get();
+        if (profiler == null) {
+            return;
+        }
+        if (profiler.open != null) {
+            throw new IllegalStateException("Phase " + phase + " started inside " + profiler.open);
+        }
+        profiler.open = phase;
+        profiler.openNanos = System.nanoTime();
+        profiler.openBytes = allocatedBytes();
+    }
+
+    // Marks the end of the phase started by enter
+    public static void exit(Phase phase) {
+        AllocationProfiler profiler = CURRENT.get();
+        if (profiler == null) {
+            return;
+        }
+        long allocated = allocatedBytes();
+        long now = System.nanoTime();
+        if (profiler.open != phase) {
+            throw new IllegalStateException("Phase " + phase + " ended but " + profiler.open + " was started");
+        }
+        int index = phase.ordinal();
+        profiler.calls[index]++;
+        profiler.bytes[index] += allocated - profiler.openBytes;
+        profiler.nanos[index] += now - profiler.openNanos;
+        profiler.open = null;
+    }
+
+    public long getCalls(Phase phase) {
+        return calls[phase.ordinal()];
+    }
+
+    public long getBytes(Phase phase) {
+        return bytes[phase.ordinal()];
+    }
+
+    public long getNanos(Phase phase) {
+        return nanos[phase.ordinal()];
+    }
+
+    // Bytes allocated between begin and end, in phases or not
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    // Adds another profile into this one
+    public void add(AllocationProfiler other) {
+        for (int i = 0; i < NUM_PHASES; i++) {
+            calls[i] += other.calls[i];
+            bytes[i] += other.bytes[i];
+            nanos[i] += other.nanos[i];
+        }
+        totalBytes += other.totalBytes;
+        totalNanos += other.totalNanos;
+    }
+
+    // Table of calls, bytes and time per phase, with the share of all bytes allocated
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%-13s %9s %12s %10s %10s %7s%n", "phase", "calls", "bytes", "bytes/call", "ms",
+                "bytes%"));
+        long phaseBytes = 0;
+        long phaseNanos = 0;
+        for (Phase phase : Phase.values()) {
+            int i = phase.ordinal();
+            appendRow(out, phase.getLabel(), calls[i], bytes[i], nanos[i]);
+            phaseBytes += bytes[i];
+            phaseNanos += nanos[i];
+        }
+        appendRow(out, "unattributed", 0, totalBytes - phaseBytes, totalNanos - phaseNanos);
+        appendRow(out, "total", 0, totalBytes, totalNanos);
+        return out.toString();
+    }
+
+    private void appendRow(StringBuilder out, String label, long calls, long bytes, long nanos) {
+        out.append(String.format("%-13s %9s %12d %10s %10.1f %6.1f%%%n", label, calls == 0 ? "" : calls, bytes,
+                calls == 0 ? "" : bytes / calls, nanos / 1e6, totalBytes == 0 ? 0 : 100.0 * bytes / totalBytes));
+    }
+
+    // Writes one CSV row per phase, plus the unattributed remainder and the total
+    public void writeCsv(PrintWriter out, long game) {
+        long phaseBytes = 0;
+        long phaseNanos = 0;
+        for (Phase phase : Phase.values()) {
+            int i = phase.ordinal();
+            out.printf("%d,%s,%d,%d,%d%n", game, phase.getLabel(), calls[i], bytes[i], nanos[i]);
+            phaseBytes += bytes[i];
+            phaseNanos += nanos[i];
+        }
+        out.printf("%d,unattributed,0,%d,%d%n", game, totalBytes - phaseBytes, totalNanos - phaseNanos);
+        out.printf("%d,total,0,%d,%d%n", game, totalBytes, totalNanos);
+    }
+
+    // Plays one game on the calling thread with full console output kept in
+    // memory, so the listener computes categories, pursuits and targets as it
+    // would for a person, and returns its profile
+    public static AllocationProfiler profileGame(long seed, boolean human) {
+        ScriptedTerminal terminal = new ScriptedTerminal(List.of(), ScriptedTerminal::autoAnswer);
+        GameTerminal.setCurrent(terminal);
+        try {
+            DiceSource.seedCurrent(seed);
+            List<Player> players = human ? List.of(new Human(), new Computer())
+                    : List.of(new Computer("Computer 1", DiceProvider.RANDOM),
+                            new Computer("Computer 2", DiceProvider.RANDOM));
+            Game game = new Game(new ScoreCard(), 1, players, new ConsoleListener());
+            AllocationProfiler profile;
+            begin();
+            try {
+                game.playGame();
+            } finally {
+                profile = end();
+            }
+            return profile;
+        } finally {
+            GameTerminal.setCurrent(GameTerminal.SYSTEM);
+        }
+    }
+
+    // Usage: AllocationProfiler [games] [seed] [computer|human] [csv]
+    //
+    // Profiles games one at a time and prints each game's allocation per
+    // phase in KB, then the totals. With human, a scripted player that asks
+    // for help plays against the computer; otherwise two computers play. A
+    // CSV file, if given, gets a row per game and phase.
+    public static void main(String[] args) throws IOException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+        boolean human = args.length > 2 && args[2].equals("human");
+        PrintWriter csv = args.length > 3
+                ? new PrintWriter(Files.newBufferedWriter(Path.of(args[3]), StandardCharsets.UTF_8))
+                : null;
+        if (csv != null) {
+            csv.println("game,phase,calls,bytes,nanos");
+        }
+
+        // Warm up so class loading and compilation are not charged to the first games
+        for (int i = 0; i < 50; i++) {
+            profileGame(seed - 1 - i, human);
+        }
+
+        StringBuilder header = new StringBuilder(String.format("%6s", "game"));
+        for (Phase phase : Phase.values()) {
+            header.append(String.format(" %10s", phase.getLabel()));
+        }
+        System.out.println(header.append(String.format(" %10s %10s  (KB)", "total", "ms")));
+
+        AllocationProfiler sum = new AllocationProfiler();
+        for (int game = 0; game < games; game++) {
+            AllocationProfiler profile = profileGame(seed + game, human);
+            StringBuilder row = new StringBuilder(String.format("%6d", game + 1));
+            for (Phase phase : Phase.values()) {
+                row.append(String.format(" %10.1f", profile.getBytes(phase) / 1024.0));
+            }
+            System.out.println(row.append(String.format(" %10.1f %10.1f", profile.getTotalBytes() / 1024.0,
+                    profile.getTotalNanos() / 1e6)));
+            if (csv != null) {
+                profile.writeCsv(csv, game + 1);
+            }
+            sum.add(profile);
+        }
+        if (csv != null) {
+            csv.close();
+        }
+
+        System.out.println();
+        System.out.println("All " + games + " games:");
+        System.out.print(sum);
+        System.out.printf("%.1f KB allocated per game%n", sum.getTotalBytes() / 1024.0 / games);
+    }
+}
@@ -2,11 +2,20 @@ package com.yahtzee;
 
 import java.util.*;
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 
 public class App {
 
 
     public static void main(String[] args) {
+        Metrics.serveIfConfigured();
+        // An optional seed makes every random roll repeatable, so a game can be replayed exactly.
+        if (args.length > 0) {
+            DiceSource.seedCurrent(Long.parseLong(args[0]));
+        }
+
         // Create instances of Human and Computer objects.
         Human human = new Human();
         Computer computer = new Computer();
@@ -18,30 +27,73 @@ public class App {
 
         
 
+        // Game progress is printed to the console.
+        GameListener listener = new ConsoleListener();
+
         // Create a Game object, passing in a new ScoreCard, a starting round of 1, and the list of players.
-        Game game = new Game(new ScoreCard(), 1, players);
+        Game game = new Game(new ScoreCard(), 1, players, listener);
 
         System.out.println("Welcome to the Yahtzee Game:\n");
 
-        // Check if the user wants to load a previously saved game.
-        if (ioFunctions.userWantsToLoadGame()) {
-            // Get the serialized string game data from the user.
-            // The file contents we got from getSerial is stored in serial
-            String serial = ioFunctions.getSerial();
+        // An optional journal file records every roll, keep and claim. If it already holds a game,
+        // that game is recovered from the last round it finished.
+        GameJournal journal = null;
+        if (args.length > 1) {
+            Path journalPath = Path.of(args[1]);
+            try {
+                if (Files.size(journalPath) > 0) {
+                    game = GameJournal.recover(journalPath, players);
+                    System.out.println("Recovered the game from " + journalPath + " at round "
+                            + game.getCurrentRound() + ".\n");
+                }
+            } catch (NoSuchFileException e) {
+                // Nothing to recover, the journal is created below
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Error: Unable to read the journal. " + e.getMessage());
+                return;
+            }
+            try {
+                journal = GameJournal.open(journalPath, players);
+            } catch (IOException e) {
+                System.err.println("Error: Unable to open the journal.");
+                return;
+            }
+            listener = new CompositeListener(listener, journal);
+            game = game.withListener(listener);
+        }
 
-            // Deserialize the game data and reinitialize the game object to restore the previous state.
-            game = Game.deserialize(serial);
+        playSession(game, journal == null);
+
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                System.err.println("Error: Unable to close the journal.");
+            }
         }
+    }
+
+    // Plays an interactive game through the calling thread's GameTerminal: optionally offers to
+    // load a saved game, plays rounds with a save offer after each, and announces the result.
+    // Returns the game as it stood when it ended or was saved.
+    public static Game playSession(Game game, boolean offerLoad) {
+        GameListener listener = game.getListener();
 
-       
+        // Check if the user wants to load a previously saved game.
+        if (offerLoad && ioFunctions.userWantsToLoadGame()) {
+            // Load the saved game file named by the user, text or binary, and restore the previous state.
+            game = ioFunctions.getSavedGame().withListener(listener);
+        }
 
         // Game loop: continue playing rounds until the game is over.
         while (!game.isOver()) {
             // Play a single round and update the game object.
             game = game.playRound();
 
-            // Save the current state of the game after each round by serializing the game data.
-            ioFunctions.saveGameProcedure(game.serialize());
+            // Offer to save the current state of the game after each round; a saved game ends here.
+            if (ioFunctions.saveGameProcedure(game)) {
+                return game;
+            }
         }
 
         // Once the game is over, display the final scores.
@@ -49,11 +101,12 @@ public class App {
 
         // Check if the game is a draw (if no winner).
         if (game.isDraw()) {
-            System.out.println("It's a draw!");
+            GameTerminal.current().println("It's a draw!");
         } else {
             // If there is a winner, retrieve the winner from the scorecard.
             Optional<Player> winner = game.getScoreCard().getWinner();
-            System.out.println("The winner is " + winner.get().getName() + "!");
+            GameTerminal.current().println("The winner is " + winner.get().getName() + "!");
         }
+        return game;
     }
-}
\ No newline at end of file
+}
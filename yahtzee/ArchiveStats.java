@@ -0,0 +1,164 @@
+package com.yahtzee;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+// Aggregates over a GameArchive: score histograms, category claim rates and
+// average points by round. Each chunk is summarised from its columns alone
+// and the summaries are merged, so the archive is scanned with a parallel
+// stream and no Game is ever built.
+public class ArchiveStats {
+    private final int numSeats;
+    private long games;
+    private final long[][] scoreHistogram;
+    private final long[][] categoryClaims;
+    private final long[][] categoryPoints;
+    private long[] roundTurns = new long[0];
+    private long[] roundPoints = new long[0];
+
+    public ArchiveStats(int numSeats) {
+        this.numSeats = numSeats;
+        this.scoreHistogram = new long[numSeats][BatchSimulator.MAX_SCORE + 1];
+        this.categoryClaims = new long[numSeats][ScoreTable.NUM_CATEGORIES];
+        this.categoryPoints = new long[numSeats][ScoreTable.NUM_CATEGORIES];
+    }
+
+    // Computes the statistics of a whole archive, one chunk per task
+    public static ArchiveStats compute(GameArchive.Reader reader) {
+        return reader.chunks().parallel().map(ArchiveStats::of).reduce(ArchiveStats::merge)
+                .orElseGet(() -> new ArchiveStats(reader.getNumSeats()));
+    }
+
+    // Summarises one chunk, decoding only the columns it needs
+    public static ArchiveStats of(GameArchive.Chunk chunk) {
+        ArchiveStats stats = new ArchiveStats(chunk.getNumSeats());
+        stats.games = chunk.getGames();
+
+        int[] scores = chunk.getScores();
+        for (int i = 0; i < scores.length; i++) {
+            stats.scoreHistogram[i % stats.numSeats][scores[i]]++;
+        }
+
+        int[] rounds = chunk.getRounds();
+        int[] seats = chunk.getSeats();
+        int[] categories = chunk.getCategories();
+        int[] points = chunk.getPoints();
+        int maxRound = 0;
+        for (int round : rounds) {
+            maxRound = Math.max(maxRound, round);
+        }
+        stats.roundTurns = new long[maxRound + 1];
+        stats.roundPoints = new long[maxRound + 1];
+        for (int turn = 0; turn < rounds.length; turn++) {
+            stats.roundTurns[rounds[turn]]++;
+            stats.roundPoints[rounds[turn]] += points[turn];
+            if (categories[turn] >= 0) {
+                stats.categoryClaims[seats[turn]][categories[turn]]++;
+                stats.categoryPoints[seats[turn]][categories[turn]] += points[turn];
+            }
+        }
+        return stats;
+    }
+
+    // Adds the other statistics into these and returns them
+    public ArchiveStats merge(ArchiveStats other) {
+        games += other.games;
+        for (int seat = 0; seat < numSeats; seat++) {
+            for (int score = 0; score <= BatchSimulator.MAX_SCORE; score++) {
+                scoreHistogram[seat][score] += other.scoreHistogram[seat][score];
+            }
+            for (int ordinal = 0; ordinal < ScoreTable.NUM_CATEGORIES; ordinal++) {
+                categoryClaims[seat][ordinal] += other.categoryClaims[seat][ordinal];
+                categoryPoints[seat][ordinal] += other.categoryPoints[seat][ordinal];
+            }
+        }
+        if (other.roundTurns.length > roundTurns.length) {
+            roundTurns = Arrays.copyOf(roundTurns, other.roundTurns.length);
+            roundPoints = Arrays.copyOf(roundPoints, other.roundPoints.length);
+        }
+        for (int round = 0; round < other.roundTurns.length; round++) {
+            roundTurns[round] += other.roundTurns[round];
+            roundPoints[round] += other.roundPoints[round];
+        }
+        return this;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public long getScoreCount(int seat, int score) {
+        return scoreHistogram[seat][score];
+    }
+
+    public double getMeanScore(int seat) {
+        long total = 0;
+        for (int score = 0; score <= BatchSimulator.MAX_SCORE; score++) {
+            total += score * scoreHistogram[seat][score];
+        }
+        return games == 0 ? 0 : (double) total / games;
+    }
+
+    // Fraction of games in which the seat claimed the category
+    public double getClaimRate(int seat, Category category) {
+        return games == 0 ? 0 : (double) categoryClaims[seat][category.ordinal()] / games;
+    }
+
+    // Mean points of the seat's claims in the category
+    public double getAverageClaimPoints(int seat, Category category) {
+        long claims = categoryClaims[seat][category.ordinal()];
+        return claims == 0 ? 0 : (double) categoryPoints[seat][category.ordinal()] / claims;
+    }
+
+    // Highest round played in any game
+    public int getMaxRound() {
+        return roundTurns.length - 1;
+    }
+
+    // Mean points scored by a turn in the given round
+    public double getAveragePoints(int round) {
+        if (round >= roundTurns.length || roundTurns[round] == 0) {
+            return 0;
+        }
+        return (double) roundPoints[round] / roundTurns[round];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder summary = new StringBuilder();
+        summary.append(String.format("Games: %d%n", games));
+        for (int seat = 0; seat < numSeats; seat++) {
+            summary.append(String.format("Seat %d: mean score %.2f%n", seat + 1, getMeanScore(seat)));
+        }
+        summary.append(String.format("%-20s", "Category"));
+        for (int seat = 0; seat < numSeats; seat++) {
+            summary.append(String.format("%-24s", "Seat " + (seat + 1) + " rate / points"));
+        }
+        summary.append("\n");
+        for (Category category : Category.CATEGORIES) {
+            summary.append(String.format("%-20s", Category.CATEGORY_NAMES.get(category)));
+            for (int seat = 0; seat < numSeats; seat++) {
+                summary.append(String.format("%-24s", String.format("%.4f / %.2f", getClaimRate(seat, category),
+                        getAverageClaimPoints(seat, category))));
+            }
+            summary.append("\n");
+        }
+        summary.append("Average points per turn by round:\n");
+        for (int round = 1; round <= getMaxRound(); round++) {
+            summary.append(String.format("  %2d: %.2f%n", round, getAveragePoints(round)));
+        }
+        return summary.toString();
+    }
+
+    // Usage: ArchiveStats <archive>
+    public static void main(String[] args) throws IOException {
+        try (GameArchive.Reader reader = GameArchive.Reader.open(Path.of(args[0]))) {
+            long start = System.nanoTime();
+            ArchiveStats stats = compute(reader);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.print(stats);
+            System.out.printf("Scanned %d chunks in %.3f s%n", reader.getNumChunks(), seconds);
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.yahtzee;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Plays many automated two-player games across all cores and aggregates the results.
+//
+// Game i always gets dice from its own stream DiceSource.forStream(seed, i), so the
+// games played, and therefore the totals, do not depend on how many threads
+// run them or how the work is split. Each worker thread adds its games into a
+// thread-local Result; the results are merged once the pool is done.
+public class BatchSimulator {
+    public static final int NUM_SEATS = 2;
+
+    // Upper bound on a single player's score (every category at its maximum)
+    public static final int MAX_SCORE = 310;
+
+    private static final int SPLIT_THRESHOLD = 64;
+
+    // Creates a player for a seat given its name and dice
+    @FunctionalInterface
+    public interface PlayerFactory {
+        Player create(String name, DiceProvider diceProvider);
+    }
+
+    private final PlayerFactory[] seats;
+
+    // Constructor: The factories create the players for the first and second seat
+    public BatchSimulator(PlayerFactory first, PlayerFactory second) {
+        this.seats = new PlayerFactory[] { first, second };
+    }
+
+    // Aggregated statistics of a batch, indexed by seat and category ordinal
+    public static class Result {
+        private long games;
+        private long draws;
+        private final long[] wins = new long[NUM_SEATS];
+        private final long[] totalScores = new long[NUM_SEATS];
+        private final long[][] categoryClaims = new long[NUM_SEATS][ScoreTable.NUM_CATEGORIES];
+        private final long[][] categoryPoints = new long[NUM_SEATS][ScoreTable.NUM_CATEGORIES];
+        private final long[][] scoreHistogram = new long[NUM_SEATS][MAX_SCORE + 1];
+
+        // Adds a finished game, reading the claims from its scorecard
+        void add(Game game) {
+            games++;
+            List<Player> players = game.getPlayers();
+            ScoreCard scoreCard = game.getScoreCard();
+            for (Category category : Category.CATEGORIES) {
+                Optional<Player> owner = scoreCard.getOwner(category);
+                if (owner.isPresent()) {
+                    int seat = players.indexOf(owner.get());
+                    categoryClaims[seat][category.ordinal()]++;
+                    categoryPoints[seat][category.ordinal()] += scoreCard.getPoints(category);
+                }
+            }
+
+            int[] scores = new int[NUM_SEATS];
+            for (int seat = 0; seat < NUM_SEATS; seat++) {
+                scores[seat] = scoreCard.getPlayerScore(players.get(seat));
+                totalScores[seat] += scores[seat];
+                scoreHistogram[seat][Math.min(scores[seat], MAX_SCORE)]++;
+            }
+
+            if (scores[0] == scores[1]) {
+                draws++;
+            } else {
+                wins[scores[0] > scores[1] ? 0 : 1]++;
+            }
+        }
+
+        // Adds the totals of another result into this one
+        void merge(Result other) {
+            games += other.games;
+            draws += other.draws;
+            for (int seat = 0; seat < NUM_SEATS; seat++) {
+                wins[seat] += other.wins[seat];
+                totalScores[seat] += other.totalScores[seat];
+                for (int c = 0; c < ScoreTable.NUM_CATEGORIES; c++) {
+                    categoryClaims[seat][c] += other.categoryClaims[seat][c];
+                    categoryPoints[seat][c] += other.categoryPoints[seat][c];
+                }
+                for (int score = 0; score <= MAX_SCORE; score++) {
+                    scoreHistogram[seat][score] += other.scoreHistogram[seat][score];
+                }
+            }
+        }
+
+        public long getGames() {
+            return games;
+        }
+
+        public long getDraws() {
+            return draws;
+        }
+
+        public long getWins(int seat) {
+            return wins[seat];
+        }
+
+        public double getWinRate(int seat) {
+            return games == 0 ? 0 : (double) wins[seat] / games;
+        }
+
+        public double getDrawRate() {
+            return games == 0 ? 0 : (double) draws / games;
+        }
+
+        public double getMeanScore(int seat) {
+            return games == 0 ? 0 : (double) totalScores[seat] / games;
+        }
+
+        // Fraction of games in which the seat claimed the category
+        public double getClaimRate(int seat, Category category) {
+            return games == 0 ? 0 : (double) categoryClaims[seat][category.ordinal()] / games;
+        }
+
+        public long getCategoryPoints(int seat, Category category) {
+            return categoryPoints[seat][category.ordinal()];
+        }
+
+        // Number of games in which the seat finished with the given score
+        public long getScoreCount(int seat, int score) {
+            return scoreHistogram[seat][score];
+        }
+
+        // Smallest score such that at least the given fraction of games scored no more
+        public int getScorePercentile(int seat, double fraction) {
+            long target = (long) Math.ceil(fraction * games);
+            long seen = 0;
+            for (int score = 0; score <= MAX_SCORE; score++) {
+                seen += scoreHistogram[seat][score];
+                if (seen >= Math.max(1, target)) {
+                    return score;
+                }
+            }
+            return MAX_SCORE;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder summary = new StringBuilder();
+            summary.append(String.format("Games: %d, draws: %.4f%n", games, getDrawRate()));
+            for (int seat = 0; seat < NUM_SEATS; seat++) {
+                summary.append(String.format("Seat %d: win rate %.4f, mean score %.2f, p10/p50/p90 %d/%d/%d%n",
+                        seat + 1, getWinRate(seat), getMeanScore(seat), getScorePercentile(seat, 0.1),
+                        getScorePercentile(seat, 0.5), getScorePercentile(seat, 0.9)));
+            }
+            summary.append(String.format("%-20s%-12s%-12s%n", "Category", "Seat 1", "Seat 2"));
+            for (Category category : Category.CATEGORIES) {
+                summary.append(String.format("%-20s%-12.4f%-12.4f%n", Category.CATEGORY_NAMES.get(category),
+                        getClaimRate(0, category), getClaimRate(1, category)));
+            }
+            return summary.toString();
+        }
+    }
+
+    // Creates the players of game 'index' of a batch, sharing the game's own dice
+    List<Player> createPlayers(long seed, long index) {
+        DiceSource dice = DiceSource.forStream(seed, index);
+        List<Player> players = new ArrayList<>(NUM_SEATS);
+        for (int seat = 0; seat < NUM_SEATS; seat++) {
+            players.add(seats[seat].create("Computer " + (seat + 1), dice));
+        }
+        return players;
+    }
+
+    // Plays game 'index' of a batch with its own dice
+    Game playGame(long seed, long index) {
+        return new Game(new ScoreCard(), 1, createPlayers(seed, index)).playGame();
+    }
+
+    // Plays the games on the common pool
+    public Result run(long games, long seed) {
+        return run(games, seed, ForkJoinPool.commonPool());
+    }
+
+    // Plays the games on the given pool and merges the per-thread results
+    public Result run(long games, long seed, ForkJoinPool pool) {
+        try {
+            return run(games, seed, pool, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Same as above, also recording every game into the archive when one is given.
+    // Each thread fills its own chunk and writes it once it is full.
+    public Result run(long games, long seed, ForkJoinPool pool, GameArchive.Writer archive) throws IOException {
+        Queue<Result> threadResults = new ConcurrentLinkedQueue<>();
+        ThreadLocal<Result> results = ThreadLocal.withInitial(() -> {
+            Result result = new Result();
+            threadResults.add(result);
+            return result;
+        });
+        Queue<GameArchive.ChunkBuilder> threadChunks = new ConcurrentLinkedQueue<>();
+        ThreadLocal<GameArchive.ChunkBuilder> chunks = ThreadLocal.withInitial(() -> {
+            GameArchive.ChunkBuilder chunk = new GameArchive.ChunkBuilder(NUM_SEATS);
+            threadChunks.add(chunk);
+            return chunk;
+        });
+
+        try {
+            pool.invoke(new GamesTask(seed, 0, games, results, archive, chunks));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (archive != null) {
+            for (GameArchive.ChunkBuilder chunk : threadChunks) {
+                archive.write(chunk);
+            }
+        }
+
+        Result total = new Result();
+        for (Result result : threadResults) {
+            total.merge(result);
+        }
+        return total;
+    }
+
+    private class GamesTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long seed;
+        private final long from;
+        private final long to;
+        private final ThreadLocal<Result> results;
+        private final GameArchive.Writer archive;
+        private final ThreadLocal<GameArchive.ChunkBuilder> chunks;
+
+        GamesTask(long seed, long from, long to, ThreadLocal<Result> results, GameArchive.Writer archive,
+                ThreadLocal<GameArchive.ChunkBuilder> chunks) {
+            this.seed = seed;
+            this.from = from;
+            this.to = to;
+            this.results = results;
+            this.archive = archive;
+            this.chunks = chunks;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                Result result = results.get();
+                for (long index = from; index < to; index++) {
+                    result.add(archive == null ? playGame(seed, index) : playArchivedGame(index));
+                }
+                return;
+            }
+            long mid = (from + to) >>> 1;
+            invokeAll(new GamesTask(seed, from, mid, results, archive, chunks),
+                    new GamesTask(seed, mid, to, results, archive, chunks));
+        }
+
+        private Game playArchivedGame(long index) {
+            GameArchive.ChunkBuilder chunk = chunks.get();
+            List<Player> players = createPlayers(seed, index);
+            chunk.startGame(index, players);
+            Game game = new Game(new ScoreCard(), 1, players, chunk).playGame();
+            chunk.finishGame(game);
+            if (chunk.isFull()) {
+                try {
+                    archive.write(chunk);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return game;
+        }
+    }
+
+    // Usage: BatchSimulator [games] [seed] [threads] [archive|-] [strategy] [strategy]
+    //
+    // The strategies of the two seats are names from ComputerStrategy and
+    // default to greedy; the second seat defaults to the first seat's.
+    public static void main(String[] args) throws IOException {
+        Metrics.serveIfConfigured();
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 10000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        GameArchive.Writer archive = args.length > 3 && !args[3].equals("-")
+                ? GameArchive.Writer.create(Path.of(args[3]), NUM_SEATS)
+                : null;
+        ComputerStrategy first = args.length > 4 ? ComputerStrategy.parse(args[4]) : ComputerStrategy.GREEDY;
+        ComputerStrategy second = args.length > 5 ? ComputerStrategy.parse(args[5]) : first;
+
+        BatchSimulator simulator = new BatchSimulator(first::create, second::create);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        Result result = simulator.run(games, seed, pool, archive);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+        if (archive != null) {
+            archive.close();
+        }
+
+        System.out.print(result);
+        System.out.printf("%.1f games/s on %d threads%n", games / seconds, threads);
+        System.out.println("Decision cache: " + Computer.getDecisionCache());
+        if (Metrics.ENABLED) {
+            System.out.println("Decision time: " + Metrics.DECISION.getHistogram());
+            System.out.println("Turn time: " + Metrics.TURN.getHistogram());
+        }
+    }
+}
@@ -64,42 +64,51 @@ public enum Category {
 
     // Function to get applicable categories based on the dice rolled
     public static List<Category> getApplicableCategories(List<Integer> dice) {
+        return getApplicableCategories(DiceHand.of(dice));
+    }
+
+    public static List<Category> getApplicableCategories(DiceHand hand) {
         return CATEGORIES.stream()
-                .filter(category -> isApplicableCategory(dice, category))
+                .filter(category -> isApplicableCategory(hand, category))
                 .collect(Collectors.toList());
     }
 
     // Function to calculate the score based on the rolled dice and category
     public static int getScore(List<Integer> dice, Category category) {
-        if (!isApplicableCategory(dice, category)) {
-            return 0;
+        return getScore(DiceHand.of(dice), category);
+    }
+
+    // Full hands are looked up in the precomputed ScoreTable
+    public static int getScore(DiceHand hand, Category category) {
+        if (hand.size() == DiceHand.MAX_DICE) {
+            return ScoreTable.getScore(hand, category);
         }
+        return computeScore(hand, category);
+    }
 
+    // Scoring rules for each category, used to build the ScoreTable
+    static int computeScore(DiceHand hand, Category category) {
         switch (category) {
             case ONES:
-                return helperFunctions.countN(dice, 1);
             case TWOS:
-                return helperFunctions.countN(dice, 2) * 2;
             case THREES:
-                return helperFunctions.countN(dice, 3) * 3;
             case FOURS:
-                return helperFunctions.countN(dice, 4) * 4;
             case FIVES:
-                return helperFunctions.countN(dice, 5) * 5;
             case SIXES:
-                return helperFunctions.countN(dice, 6) * 6;
+                int face = category.ordinal() + 1;
+                return hand.count(face) * face;
             case THREE_OF_A_KIND:
-                return isApplicableCategory(dice, Category.THREE_OF_A_KIND) ? helperFunctions.sum(dice) : 0;
+                return hand.atleastNSame(3) ? hand.sum() : 0;
             case FOUR_OF_A_KIND:
-                return isApplicableCategory(dice, Category.FOUR_OF_A_KIND) ? helperFunctions.sum(dice) : 0;
+                return hand.atleastNSame(4) ? hand.sum() : 0;
             case FULL_HOUSE:
-                return isApplicableCategory(dice, Category.FULL_HOUSE) ? 25 : 0;
+                return hand.fullHouse() ? 25 : 0;
             case FOUR_STRAIGHT:
-                return isApplicableCategory(dice, Category.FOUR_STRAIGHT) ? 30 : 0;
+                return hand.containsSequence(4) ? 30 : 0;
             case FIVE_STRAIGHT:
-                return isApplicableCategory(dice, Category.FIVE_STRAIGHT) ? 40 : 0;
+                return hand.containsSequence(5) ? 40 : 0;
             case YAHTZEE:
-                return isApplicableCategory(dice, Category.YAHTZEE) ? 50 : 0;
+                return hand.atleastNSame(5) ? 50 : 0;
             default:
                 return 0;
         }
@@ -107,31 +116,43 @@ public enum Category {
 
     // Function to check if a given category is applicable based on the rolled dice
     public static boolean isApplicableCategory(List<Integer> dice, Category category) {
+        return isApplicableCategory(DiceHand.of(dice), category);
+    }
+
+    public static boolean isApplicableCategory(DiceHand hand, Category category) {
+        if (hand.size() == DiceHand.MAX_DICE) {
+            return ScoreTable.isApplicable(ScoreTable.indexOf(hand), category);
+        }
+        return computeApplicable(hand, category);
+    }
+
+    // Applicability rules for each category, used to build the ScoreTable
+    static boolean computeApplicable(DiceHand hand, Category category) {
         switch (category) {
             case YAHTZEE:
-                return helperFunctions.atleastNSame(dice, 5);
+                return hand.atleastNSame(5);
             case FIVE_STRAIGHT:
-                return helperFunctions.fiveSequence(dice);
+                return hand.containsSequence(5);
             case FOUR_STRAIGHT:
-                return helperFunctions.fourSequence(dice);
+                return hand.containsSequence(4);
             case FULL_HOUSE:
-                return helperFunctions.fullHouse(dice);
+                return hand.fullHouse();
             case FOUR_OF_A_KIND:
-                return helperFunctions.atleastFourSame(dice);
+                return hand.atleastNSame(4);
             case THREE_OF_A_KIND:
-                return helperFunctions.atleastThreeSame(dice);
+                return hand.atleastNSame(3);
             case SIXES:
-                return helperFunctions.containsN(dice, 6);
+                return hand.contains(6);
             case FIVES:
-                return helperFunctions.containsN(dice, 5);
+                return hand.contains(5);
             case FOURS:
-                return helperFunctions.containsN(dice, 4);
+                return hand.contains(4);
             case THREES:
-                return helperFunctions.containsN(dice, 3);
+                return hand.contains(3);
             case TWOS:
-                return helperFunctions.containsN(dice, 2);
+                return hand.contains(2);
             case ONES:
-                return helperFunctions.containsN(dice, 1);
+                return hand.contains(1);
             default:
                 return false;
         }
@@ -139,35 +160,38 @@ public enum Category {
 
     // Function to determine if a category is possible based on the rolled dice
     public static boolean isPossibleCategory(List<Integer> dice, Category category) {
-        if (dice.isEmpty())
+        return isPossibleCategory(DiceHand.of(dice), category);
+    }
+
+    public static boolean isPossibleCategory(DiceHand hand, Category category) {
+        if (hand.isEmpty())
             return true;
-        int slotsLeft = 5 - dice.size();
+        int slotsLeft = DiceHand.MAX_DICE - hand.size();
         switch (category) {
             case YAHTZEE:
-                return helperFunctions.allSame(dice);
+                return hand.allSame();
             case FIVE_STRAIGHT:
-                return helperFunctions.numRepeats(dice) < 1 &&
-                        !(helperFunctions.containsN(dice, 1) && helperFunctions.containsN(dice, 6));
+                return hand.numRepeats() < 1 && !(hand.contains(1) && hand.contains(6));
             case FOUR_STRAIGHT:
-                return helperFunctions.numRepeats(dice) < 2;
+                return hand.numRepeats() < 2;
             case FULL_HOUSE:
-                return helperFunctions.countUnique(dice) <= 2 && helperFunctions.maxCount(dice) <= 3;
+                return hand.countUnique() <= 2 && hand.maxCount() <= 3;
             case FOUR_OF_A_KIND:
-                return slotsLeft + helperFunctions.maxCount(dice) >= 4;
+                return slotsLeft + hand.maxCount() >= 4;
             case THREE_OF_A_KIND:
-                return slotsLeft + helperFunctions.maxCount(dice) >= 3;
+                return slotsLeft + hand.maxCount() >= 3;
             case SIXES:
-                return helperFunctions.containsN(dice, 6) || dice.size() < 5;
+                return hand.contains(6) || slotsLeft > 0;
             case FIVES:
-                return helperFunctions.containsN(dice, 5) || dice.size() < 5;
+                return hand.contains(5) || slotsLeft > 0;
             case FOURS:
-                return helperFunctions.containsN(dice, 4) || dice.size() < 5;
+                return hand.contains(4) || slotsLeft > 0;
             case THREES:
-                return helperFunctions.containsN(dice, 3) || dice.size() < 5;
+                return hand.contains(3) || slotsLeft > 0;
             case TWOS:
-                return helperFunctions.containsN(dice, 2) || dice.size() < 5;
+                return hand.contains(2) || slotsLeft > 0;
             case ONES:
-                return helperFunctions.containsN(dice, 1) || dice.size() < 5;
+                return hand.contains(1) || slotsLeft > 0;
             default:
                 return true;
         }
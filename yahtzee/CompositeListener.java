@@ -0,0 +1,146 @@
+package com.yahtzee;
+
+import java.util.*;
+
+// Forwards every event to each of its listeners in order, for example to
+// print a game with ConsoleListener while a GameJournal records it
+public class CompositeListener implements GameListener {
+    private final GameListener[] listeners;
+
+    public CompositeListener(GameListener... listeners) {
+        this.listeners = listeners.clone();
+    }
+
+    @Override
+    public void gameOver() {
+        for (GameListener listener : listeners) {
+            listener.gameOver();
+        }
+    }
+
+    @Override
+    public void roundStarted(int round, Map<Player, Integer> scores) {
+        for (GameListener listener : listeners) {
+            listener.roundStarted(round, scores);
+        }
+    }
+
+    @Override
+    public void roundEnded(int round, ScoreCard scoreCard, Map<Player, Integer> scores) {
+        for (GameListener listener : listeners) {
+            listener.roundEnded(round, scoreCard, scores);
+        }
+    }
+
+    @Override
+    public void scoresShown(Map<Player, Integer> scores) {
+        for (GameListener listener : listeners) {
+            listener.scoresShown(scores);
+        }
+    }
+
+    @Override
+    public void playerOrderDecided(Queue<Player> playerQueue) {
+        for (GameListener listener : listeners) {
+            listener.playerOrderDecided(playerQueue);
+        }
+    }
+
+    @Override
+    public void tieBreakerStarted(int score) {
+        for (GameListener listener : listeners) {
+            listener.tieBreakerStarted(score);
+        }
+    }
+
+    @Override
+    public void tieBreakerRolled(Player player1, int roll1, Player player2, int roll2) {
+        for (GameListener listener : listeners) {
+            listener.tieBreakerRolled(player1, roll1, player2, roll2);
+        }
+    }
+
+    @Override
+    public void turnStarted(Player player, ScoreCard scoreCard) {
+        for (GameListener listener : listeners) {
+            listener.turnStarted(player, scoreCard);
+        }
+    }
+
+    @Override
+    public void categoryScored(Player player, Category category, int points) {
+        for (GameListener listener : listeners) {
+            listener.categoryScored(player, category, points);
+        }
+    }
+
+    @Override
+    public void roundFinished(int round) {
+        for (GameListener listener : listeners) {
+            listener.roundFinished(round);
+        }
+    }
+
+    @Override
+    public void rollStarted(Player player, int rollNumber, ScoreCard scoreCard, List<Integer> keptDice) {
+        for (GameListener listener : listeners) {
+            listener.rollStarted(player, rollNumber, scoreCard, keptDice);
+        }
+    }
+
+    @Override
+    public void diceRolled(Player player, ScoreCard scoreCard, List<Integer> keptDice, List<Integer> diceRolls) {
+        for (GameListener listener : listeners) {
+            listener.diceRolled(player, scoreCard, keptDice, diceRolls);
+        }
+    }
+
+    @Override
+    public void lastRollTaken(Player player) {
+        for (GameListener listener : listeners) {
+            listener.lastRollTaken(player);
+        }
+    }
+
+    @Override
+    public void helpGiven(Player player, String help) {
+        for (GameListener listener : listeners) {
+            listener.helpGiven(player, help);
+        }
+    }
+
+    @Override
+    public void stood(Player player) {
+        for (GameListener listener : listeners) {
+            listener.stood(player);
+        }
+    }
+
+    @Override
+    public void diceKept(Player player, List<Integer> diceToKeep) {
+        for (GameListener listener : listeners) {
+            listener.diceKept(player, diceToKeep);
+        }
+    }
+
+    @Override
+    public void allDiceKept(Player player) {
+        for (GameListener listener : listeners) {
+            listener.allDiceKept(player);
+        }
+    }
+
+    @Override
+    public void keepFinished(Player player, ScoreCard scoreCard, List<Integer> keptDice, int rollsLeft) {
+        for (GameListener listener : listeners) {
+            listener.keepFinished(player, scoreCard, keptDice, rollsLeft);
+        }
+    }
+
+    @Override
+    public void turnEnded(Player player, List<Integer> finalDice) {
+        for (GameListener listener : listeners) {
+            listener.turnEnded(player, finalDice);
+        }
+    }
+}
@@ -4,33 +4,28 @@ import java.util.*;
 
 class Computer extends Player {
 
-    // Constructor: Initialize the player with the name "Computer"
+    // Keep decisions shared by every Computer; they depend only on the open
+    // categories and the kept and rolled dice
+    private static final DecisionCache DECISIONS = new DecisionCache(1 << 16);
+
+    // Rolls left after the first roll of a turn, assumed when a caller does not say
+    private static final int DEFAULT_ROLLS_LEFT = 2;
+
+    // Constructor: Initialize the player with the name "Computer", asking the
+    // human whether they want to roll for it
     public Computer() {
-        super("Computer");
+        super("Computer", DiceProvider.PROMPT_FOR_COMPUTER);
     }
 
-    // Override: Handles the dice roll for the computer's turn
-    @Override
-    public List<Integer> getDiceRoll(int numDice) {
-        boolean humanWantsToRoll = ioFunctions.humanWantsToRollForComputer();
-        if (humanWantsToRoll) {
-            return super.getDiceRoll(numDice);
-        }
-        return Dice.rollDice(numDice);
+    // Constructor for automated games, where dice come from the given provider
+    public Computer(String name, DiceProvider diceProvider) {
+        super(name, diceProvider);
     }
 
-    // Generates all possible final rolls based on the kept dice
+    // Returns all possible final rolls based on the kept dice, as a shared
+    // unmodifiable list precomputed by RerollTable
     public static List<List<Integer>> generatePossibleFinalRolls(List<Integer> keptDice) {
-        List<List<Integer>> possibleRolls = helperFunctions.diceCombinations(5 - keptDice.size());
-        List<List<Integer>> possibleFinalRolls = new ArrayList<>();
-
-        for (List<Integer> roll : possibleRolls) {
-            List<Integer> finalRoll = helperFunctions.concatenate(keptDice, roll);
-            Collections.sort(finalRoll);
-            possibleFinalRolls.add(finalRoll);
-        }
-
-        return possibleFinalRolls;
+        return RerollTable.getFinalRolls(DiceHand.of(keptDice));
     }
 
     // Calculates scores for all possible final rolls based on open categories in
@@ -41,8 +36,9 @@ class Computer extends Player {
         List<Category> openCategories = scoreCard.getOpenCategories();
 
         for (List<Integer> finalRoll : finalRolls) {
+            int handIndex = ScoreTable.indexOf(DiceHand.of(finalRoll));
             for (Category category : openCategories) {
-                int score = ScoreCard.getScore(finalRoll, category);
+                int score = ScoreTable.getScore(handIndex, category);
                 scores.add(new AbstractMap.SimpleEntry<>(finalRoll, score));
             }
         }
@@ -87,13 +83,86 @@ class Computer extends Player {
         return findBestRoll(scores, keptDice);
     }
 
-    // Determines which dice to keep for the next roll
+    public static DecisionCache getDecisionCache() {
+        return DECISIONS;
+    }
+
+    // Keeps dice for the next roll as chooseKeep decides, timing the decision
+    // and recording it as a flight event. Decisions are shared through the
+    // decision cache when cachesDecisions() allows.
+    @Override
+    public final List<Integer> getDiceToKeep(ScoreCard scoreCard, List<Integer> diceRolls, List<Integer> keptDice,
+            int rollsLeft) {
+        long start = Metrics.DECISION.start();
+        FlightEvents.Decision event = new FlightEvents.Decision();
+        event.begin();
+        if (!cachesDecisions()) {
+            List<Integer> diceToKeep = chooseKeep(scoreCard, diceRolls, keptDice, rollsLeft);
+            Metrics.DECISION.stop(start);
+            commitDecision(event, scoreCard, keptDice, diceRolls, diceToKeep, false);
+            return diceToKeep;
+        }
+
+        long key = DecisionCache.key(scoreCard.getOpenCategoryMask(), DiceHand.of(keptDice), DiceHand.of(diceRolls));
+        int cached = DECISIONS.get(key);
+        if (cached != DecisionCache.MISS) {
+            Metrics.DECISION_CACHE_HITS.increment();
+            List<Integer> diceToKeep = DiceHand.fromPacked(cached).toList();
+            Metrics.DECISION.stop(start);
+            commitDecision(event, scoreCard, keptDice, diceRolls, diceToKeep, true);
+            return diceToKeep;
+        }
+
+        // Returned in the sorted order a cache hit has, so the answer does not depend on the cache
+        DiceHand chosen = DiceHand.of(chooseKeep(scoreCard, diceRolls, keptDice, rollsLeft));
+        DECISIONS.put(key, chosen.getPacked());
+        List<Integer> diceToKeep = chosen.toList();
+        Metrics.DECISION.stop(start);
+        commitDecision(event, scoreCard, keptDice, diceRolls, diceToKeep, false);
+        return diceToKeep;
+    }
+
+    // Same as above, assuming the rolls left after the first roll
     @Override
-    public List<Integer> getDiceToKeep(ScoreCard scoreCard, List<Integer> diceRolls, List<Integer> keptDice) {
+    public final List<Integer> getDiceToKeep(ScoreCard scoreCard, List<Integer> diceRolls, List<Integer> keptDice) {
+        return getDiceToKeep(scoreCard, diceRolls, keptDice, DEFAULT_ROLLS_LEFT);
+    }
+
+    // The keep policy: which of the rolled dice to keep with rollsLeft rolls
+    // left. This one aims for the best-scoring final roll and does not look at
+    // rollsLeft.
+    protected List<Integer> chooseKeep(ScoreCard scoreCard, List<Integer> diceRolls, List<Integer> keptDice,
+            int rollsLeft) {
+        return chooseDiceToKeep(scoreCard, diceRolls, keptDice);
+    }
+
+    // Whether chooseKeep depends only on what the decision cache is keyed by:
+    // the open categories and the kept and rolled dice
+    protected boolean cachesDecisions() {
+        return true;
+    }
+
+    private static void commitDecision(FlightEvents.Decision event, ScoreCard scoreCard, List<Integer> keptDice,
+            List<Integer> diceRolls, List<Integer> diceToKeep, boolean cacheHit) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.openCategories = Integer.bitCount(scoreCard.getOpenCategoryMask());
+            event.kept = keptDice.toString();
+            event.rolled = diceRolls.toString();
+            event.keep = diceToKeep.toString();
+            event.cacheHit = cacheHit;
+            event.commit();
+        }
+    }
+
+    // Chooses the dice to keep without consulting the decision cache
+    public static List<Integer> chooseDiceToKeep(ScoreCard scoreCard, List<Integer> diceRolls,
+            List<Integer> keptDice) {
         List<Integer> finalRoll = helperFunctions.concatenate(keptDice, diceRolls);
         List<Category> openCategories = scoreCard.getOpenCategories();
 
-        if (openCategories.contains(Category.YAHTZEE) && Category.isApplicableCategory(finalRoll, Category.YAHTZEE)) {
+        if (openCategories.contains(Category.YAHTZEE)
+                && Category.isApplicableCategory(DiceHand.of(finalRoll), Category.YAHTZEE)) {
             return diceRolls;
         }
         if (openCategories.contains(Category.FIVE_STRAIGHT)) {
@@ -118,51 +187,19 @@ class Computer extends Player {
     }
 
     // Returns potential categories that the computer could pursue based on the
-    // current dice and scorecard
+    // current dice and scorecard, assuming one roll is left
     @Override
     public Optional<Map<Category, Reason>> getCategoryPursuits(ScoreCard scoreCard, List<Integer> keptDice) {
-        List<List<Integer>> possibleFinalRolls = generatePossibleFinalRolls(keptDice);
-        List<Category> possibleCategories = scoreCard.getPossibleCategories(keptDice);
-        //write code to print possible categories and possible final rolls
-       
-
-        Map<Category, Reason> categoryPursuits = new HashMap<>();
-
-        for (Category category : possibleCategories) {
-            
-            int minScore = Integer.MAX_VALUE;
-            int maxScore = Integer.MIN_VALUE;
-            int minDiceDiff = Integer.MAX_VALUE;
-            int maxDiceDiff = Integer.MAX_VALUE;
-            List<Integer> rollToGetMax = new ArrayList<>();
-            List<Integer> rollToGetMin = new ArrayList<>();
-
-
-            for (List<Integer> roll : possibleFinalRolls) {
-                
-                int diceDiff = helperFunctions.difference(roll, keptDice).size();
-                int score = Category.getScore(roll, category);
-                
-                
-                if (score >= maxScore && diceDiff <= maxDiceDiff) {
-                    maxScore = score;
-                    rollToGetMax = helperFunctions.difference(roll, keptDice);
-                    maxDiceDiff = diceDiff;
-                }
-
-                if (score< minScore && diceDiff <= minDiceDiff) {
-                    if (minScore == 0)
-                        continue;
-                    minScore = score;
-                    rollToGetMin = helperFunctions.difference(roll, keptDice);
-                    minDiceDiff = diceDiff;
-                }
-            }
+        return getCategoryPursuits(scoreCard, keptDice, 1);
+    }
 
-            categoryPursuits.put(category,
-                    new Reason(keptDice, category, maxScore, rollToGetMax, minScore, rollToGetMin));
-        }
-        return Optional.of(categoryPursuits);
+    // Same as above, with the chances and expected scores worked out over the
+    // given number of remaining rolls
+    @Override
+    public Optional<Map<Category, Reason>> getCategoryPursuits(ScoreCard scoreCard, List<Integer> keptDice,
+            int rollsLeft) {
+        List<Category> possibleCategories = scoreCard.getPossibleCategories(keptDice);
+        return Optional.of(PursuitAnalysis.analyze(possibleCategories, keptDice, rollsLeft));
     }
 
     // Identifies the best category and strategy based on current kept dice and
@@ -178,11 +215,31 @@ class Computer extends Player {
                 .of(new AbstractMap.SimpleEntry<>(category.get(), helperFunctions.difference(bestRoll, keptDice)));
     }
 
-    // Decides if the computer should stop rolling
+    // Decides if the computer should stop rolling: it stands when it would
+    // keep every rolled die
     @Override
-    public boolean wantsToStand(ScoreCard scoreCard, List<Integer> keptDice, List<Integer> diceRolls) {
-        List<Integer> diceToKeep = getDiceToKeep(scoreCard, diceRolls, keptDice);
-        return helperFunctions.unorderedEqual(diceToKeep, diceRolls);
+    public final boolean wantsToStand(ScoreCard scoreCard, List<Integer> keptDice, List<Integer> diceRolls,
+            int rollsLeft) {
+        FlightEvents.Stand event = new FlightEvents.Stand();
+        event.begin();
+        List<Integer> diceToKeep = getDiceToKeep(scoreCard, diceRolls, keptDice, rollsLeft);
+        boolean stands = helperFunctions.unorderedEqual(diceToKeep, diceRolls);
+        event.end();
+        if (event.shouldCommit()) {
+            event.player = getName();
+            event.openCategories = Integer.bitCount(scoreCard.getOpenCategoryMask());
+            event.kept = keptDice.toString();
+            event.rolled = diceRolls.toString();
+            event.stands = stands;
+            event.commit();
+        }
+        return stands;
+    }
+
+    // Same as above, assuming the rolls left after the first roll
+    @Override
+    public final boolean wantsToStand(ScoreCard scoreCard, List<Integer> keptDice, List<Integer> diceRolls) {
+        return wantsToStand(scoreCard, keptDice, diceRolls, DEFAULT_ROLLS_LEFT);
     }
 
     // Determines if the computer wants assistance (returns false because the
@@ -252,9 +309,15 @@ class Computer extends Player {
     // }
 
     public String getHelp(ScoreCard scoreCard, List<Integer> keptDice, List<Integer> diceRolls) {
+        return getHelp(scoreCard, keptDice, diceRolls, 1);
+    }
+
+    // Generates advice for a human player, with rollsLeft rolls left after this keep
+    public String getHelp(ScoreCard scoreCard, List<Integer> keptDice, List<Integer> diceRolls, int rollsLeft) {
+        long start = Metrics.HELP.start();
         List<Integer> diceToKeep = getDiceToKeep(scoreCard, diceRolls, keptDice);
         List<Integer> helpDice = helperFunctions.concatenate(keptDice, diceToKeep);
-        Optional<Map<Category, Reason>> categoryPursuits = getCategoryPursuits(scoreCard, helpDice);
+        Optional<Map<Category, Reason>> categoryPursuits = getCategoryPursuits(scoreCard, helpDice, rollsLeft);
         Optional<Map.Entry<Category, List<Integer>>> target = getTarget(scoreCard, helpDice);
 
         StringBuilder helpMessage = new StringBuilder(
@@ -266,14 +329,16 @@ class Computer extends Player {
             if (reason.getMinScore() == 0) {
                 helpMessage.append(" - You can get ").append(Category.CATEGORY_NAMES.get(reason.getPursuedCategory()))
                         .append(" with a score of ").append(reason.getMaxScore()).append(". For example, by rolling ")
-                        .append(ioFunctions.toStringVector(reason.getRollToGetMax())).append("\n");
+                        .append(ioFunctions.toStringVector(reason.getRollToGetMax()))
+                        .append(ioFunctions.toStringOdds(reason)).append("\n");
                 continue;
             }
             helpMessage.append(" - You can get ").append(Category.CATEGORY_NAMES.get(reason.getPursuedCategory()))
                     .append(" with a minimum score of ").append(reason.getMinScore()).append(" by getting ")
                     .append(ioFunctions.toStringVector(reason.getRollToGetMin())).append(" and a maximum score of ")
                     .append(reason.getMaxScore()).append(" by rolling ")
-                    .append(ioFunctions.toStringVector(reason.getRollToGetMax())).append("\n");
+                    .append(ioFunctions.toStringVector(reason.getRollToGetMax()))
+                    .append(ioFunctions.toStringOdds(reason)).append("\n");
         }
 
         helpMessage.append("\nConsidering this, your target should be to get ");
@@ -298,6 +363,7 @@ class Computer extends Player {
                     .append(ioFunctions.toStringVector(diceToKeep));
         }
 
+        Metrics.HELP.stop(start);
         return helpMessage.toString();
     }
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.yahtzee;
+
+import java.util.*;
+
+// The ways a Computer can choose its dice, selectable by name
+public enum ComputerStrategy {
+    // Computer: keeps toward the single best-scoring final roll, with shortcuts for Yahtzee and straights
+    GREEDY,
+    // ExpectimaxComputer: maximizes the expected points of the turn
+    EXPECTIMAX,
+    // OptimalComputer: plays the expected-score-optimal solo policy from
+    // StrategySolver, solved on first use. It saves categories for later
+    // turns, so it does poorly when an opponent claims them first.
+    OPTIMAL;
+
+    // Turn optimizers are stateless apart from per-thread memos, so players share one
+    private static final TurnOptimizer TURN_OPTIMIZER = new TurnOptimizer();
+
+    // Creates a computer player for automated games
+    public Computer create(String name, DiceProvider diceProvider) {
+        switch (this) {
+            case EXPECTIMAX:
+                return new ExpectimaxComputer(name, diceProvider, TURN_OPTIMIZER);
+            case OPTIMAL:
+                return new OptimalComputer(name, diceProvider, StrategySolver.getDefault());
+            default:
+                return new Computer(name, diceProvider);
+        }
+    }
+
+    // The strategy a player was created with, if it is a computer of exactly
+    // the class one of these strategies creates
+    public static Optional<ComputerStrategy> of(Player player) {
+        if (player.getClass() == Computer.class) {
+            return Optional.of(GREEDY);
+        }
+        if (player.getClass() == ExpectimaxComputer.class) {
+            return Optional.of(EXPECTIMAX);
+        }
+        if (player.getClass() == OptimalComputer.class) {
+            return Optional.of(OPTIMAL);
+        }
+        return Optional.empty();
+    }
+
+    // Looks up a strategy by its name in any case. Throws IllegalArgumentException for an unknown name.
+    public static ComputerStrategy parse(String name) {
+        for (ComputerStrategy strategy : values()) {
+            if (strategy.name().equalsIgnoreCase(name)) {
+                return strategy;
+            }
+        }
+        throw new IllegalArgumentException("Unknown computer strategy: " + name + ", expected one of "
+                + Arrays.toString(values()).toLowerCase(Locale.ROOT));
+    }
+}
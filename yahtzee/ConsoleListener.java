@@ -0,0 +1,198 @@
+package com.yahtzee;
+
+import java.util.*;
+
+// Prints game progress to the console for interactive play. Each event is
+// formatted through a Renderer and flushed once at its end.
+public class ConsoleListener implements GameListener {
+    private final Renderer renderer;
+
+    public ConsoleListener() {
+        this(new ConsoleRenderer());
+    }
+
+    public ConsoleListener(Renderer renderer) {
+        this.renderer = renderer;
+    }
+
+    @Override
+    public void gameOver() {
+        renderer.println("The game is over!");
+        renderer.flush();
+    }
+
+    @Override
+    public void roundStarted(int round, Map<Player, Integer> scores) {
+        renderer.println("Round " + round);
+        scoresShown(scores);
+    }
+
+    @Override
+    public void roundEnded(int round, ScoreCard scoreCard, Map<Player, Integer> scores) {
+        renderer.printScoreCard(scoreCard);
+        scoresShown(scores);
+    }
+
+    @Override
+    public void scoresShown(Map<Player, Integer> scores) {
+        renderer.println("Scores:");
+        for (Map.Entry<Player, Integer> playerScore : scores.entrySet()) {
+            renderer.println(playerScore.getKey().getName() + ": " + playerScore.getValue());
+        }
+        renderer.println("");
+        renderer.flush();
+    }
+
+    @Override
+    public void playerOrderDecided(Queue<Player> playerQueue) {
+        renderer.println("Player Queue: " + playerQueue);
+        renderer.flush();
+    }
+
+    @Override
+    public void tieBreakerStarted(int score) {
+        if (score == 0) {
+            renderer.println("Determining who goes first by rolling a die.");
+        } else {
+            renderer.println("Both players have a score of " + score + ". Conducting a tie breaker.");
+        }
+        renderer.flush();
+    }
+
+    @Override
+    public void tieBreakerRolled(Player player1, int roll1, Player player2, int roll2) {
+        renderer.println(player1.getName() + " rolled a " + roll1);
+        renderer.println(player2.getName() + " rolled a " + roll2);
+        renderer.flush();
+    }
+
+    @Override
+    public void turnStarted(Player player, ScoreCard scoreCard) {
+        renderer.printScoreCard(scoreCard);
+        renderer.println("It's " + player.getName() + "'s turn.");
+        renderer.flush();
+    }
+
+    @Override
+    public void categoryScored(Player player, Category category, int points) {
+        renderer.println(player.getName() + " scored " + points +
+                " points in the " + Category.CATEGORY_NAMES.get(category) + " category.\n\n");
+        renderer.flush();
+    }
+
+    @Override
+    public void roundFinished(int round) {
+        renderer.println("Round ends");
+        renderer.flush();
+    }
+
+    @Override
+    public void rollStarted(Player player, int rollNumber, ScoreCard scoreCard, List<Integer> keptDice) {
+        if (renderer.isQuiet()) {
+            return;
+        }
+        renderer.println("\nRoll " + rollNumber + " of 3\n");
+        renderer.println("\nAvailable Categories:");
+        renderer.printCategories(possibleCategories(scoreCard, keptDice));
+        renderer.print(player.getName() + "'s current dice: ");
+        renderer.printDice(keptDice);
+        renderer.println("\n");
+        renderer.flush();
+    }
+
+    @Override
+    public void diceRolled(Player player, ScoreCard scoreCard, List<Integer> keptDice, List<Integer> diceRolls) {
+        if (renderer.isQuiet()) {
+            return;
+        }
+        renderer.print(player.getName() + " rolled: ");
+        renderer.printDice(diceRolls);
+        renderer.println("\n");
+        renderer.println("Potential categories:");
+        renderer.printCategories(possibleCategories(scoreCard, keptDice));
+        renderer.flush();
+    }
+
+    private static List<Category> possibleCategories(ScoreCard scoreCard, List<Integer> keptDice) {
+        AllocationProfiler.enter(AllocationProfiler.Phase.CATEGORIES);
+        try {
+            return scoreCard.getPossibleCategories(keptDice);
+        } finally {
+            AllocationProfiler.exit(AllocationProfiler.Phase.CATEGORIES);
+        }
+    }
+
+    @Override
+    public void lastRollTaken(Player player) {
+        renderer.println("\nEnd of turn.");
+        renderer.flush();
+    }
+
+    @Override
+    public void helpGiven(Player player, String help) {
+        renderer.println("Help: \n" + help + '\n');
+        renderer.flush();
+    }
+
+    @Override
+    public void stood(Player player) {
+        renderer.println(player.getName() + " chose to stand.");
+        renderer.flush();
+    }
+
+    @Override
+    public void diceKept(Player player, List<Integer> diceToKeep) {
+        renderer.print(player.getName() + " kept: ");
+        renderer.printDice(diceToKeep);
+        renderer.println("\n");
+        renderer.flush();
+    }
+
+    @Override
+    public void allDiceKept(Player player) {
+        renderer.println("All dice kept. End of turn.\n");
+        renderer.flush();
+    }
+
+    // Shows the category the player is pursuing and the dice they are aiming to roll
+    @Override
+    public void keepFinished(Player player, ScoreCard scoreCard, List<Integer> keptDice, int rollsLeft) {
+        if (renderer.isQuiet()) {
+            return;
+        }
+        Optional<Map<Category, Reason>> userPursuit;
+        AllocationProfiler.enter(AllocationProfiler.Phase.PURSUIT);
+        try {
+            userPursuit = player.getCategoryPursuits(scoreCard, keptDice, rollsLeft);
+        } finally {
+            AllocationProfiler.exit(AllocationProfiler.Phase.PURSUIT);
+        }
+        if (userPursuit.isPresent()) {
+            renderer.println(player.getName() + "'s pursuit:");
+            renderer.printCategoryPursuits(userPursuit.get());
+        }
+
+        Optional<Map.Entry<Category, List<Integer>>> userTarget;
+        AllocationProfiler.enter(AllocationProfiler.Phase.TARGET);
+        try {
+            userTarget = player.getTarget(scoreCard, keptDice);
+        } finally {
+            AllocationProfiler.exit(AllocationProfiler.Phase.TARGET);
+        }
+        if (userTarget.isPresent()) {
+            renderer.print(player.getName() + "'s target: " + Category.CATEGORY_NAMES.get(userTarget.get().getKey()) +
+                    " by rolling ");
+            renderer.printDice(userTarget.get().getValue());
+            renderer.println("\n");
+        }
+        renderer.flush();
+    }
+
+    @Override
+    public void turnEnded(Player player, List<Integer> finalDice) {
+        renderer.print(player.getName() + "'s final dice for round " + player.getName() + ": ");
+        renderer.printDice(finalDice);
+        renderer.println("\n");
+        renderer.flush();
+    }
+}
@@ -0,0 +1,78 @@
+package com.yahtzee;
+
+import java.util.*;
+
+// Renderer for a GameTerminal. Output is formatted into one reusable buffer
+// and written with a single print per flush. The scorecard is shown before
+// every turn and after every round, but only a claimed category's row
+// changes between showings, so rows are kept from the last scorecard shown
+// and only rows that differ are formatted again.
+public class ConsoleRenderer implements Renderer {
+    private final GameTerminal terminal;
+    private final StringBuilder buffer = new StringBuilder(4096);
+
+    // The scorecard the cached rows were formatted from, and the rows by category ordinal
+    private ScoreCard shownScoreCard;
+    private final String[] rows = new String[ScoreTable.NUM_CATEGORIES];
+    private final StringBuilder row = new StringBuilder(64);
+
+    // Writes to the terminal of whichever thread flushes
+    public ConsoleRenderer() {
+        this(null);
+    }
+
+    // Writes to the given terminal
+    public ConsoleRenderer(GameTerminal terminal) {
+        this.terminal = terminal;
+    }
+
+    @Override
+    public void print(String text) {
+        buffer.append(text);
+    }
+
+    @Override
+    public void println(String text) {
+        buffer.append(text).append('\n');
+    }
+
+    @Override
+    public void printScoreCard(ScoreCard scoreCard) {
+        buffer.append(ScoreCard.HEADER);
+        for (Category category : Category.CATEGORIES) {
+            int ordinal = category.ordinal();
+            if (shownScoreCard == null || !scoreCard.hasSameRow(shownScoreCard, category)) {
+                row.setLength(0);
+                scoreCard.appendRow(row, category);
+                rows[ordinal] = row.toString();
+            }
+            buffer.append(rows[ordinal]);
+        }
+        buffer.append('\n');
+        shownScoreCard = scoreCard;
+    }
+
+    @Override
+    public void printCategories(List<Category> categories) {
+        ioFunctions.appendCategories(buffer, categories);
+    }
+
+    @Override
+    public void printCategoryPursuits(Map<Category, Reason> categoryPursuits) {
+        ioFunctions.appendCategoryPursuits(buffer, categoryPursuits);
+    }
+
+    @Override
+    public void printDice(List<Integer> dice) {
+        ioFunctions.appendVector(buffer, dice);
+    }
+
+    @Override
+    public void flush() {
+        if (buffer.length() == 0) {
+            return;
+        }
+        (terminal != null ? terminal : GameTerminal.current()).print(buffer.toString());
+        buffer.setLength(0);
+    }
+}
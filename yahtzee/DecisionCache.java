@@ -0,0 +1,105 @@
+package com.yahtzee;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bounded, thread-safe memo of dice-keeping decisions.
+//
+// A decision is keyed on the open categories and the kept and rolled dice as
+// multisets, packed into one long, and its value is a packed DiceHand. The
+// cache is a direct-mapped table of immutable entries: a lookup is one array
+// read with no locking, and a new entry replaces (evicts) whatever entry
+// occupied its slot, so memory stays fixed at the capacity.
+public class DecisionCache {
+    // Returned by get when the key is not cached
+    public static final int MISS = -1;
+
+    private static final int HAND_BITS = 18;
+
+    private static final class Entry {
+        final long key;
+        final int value;
+
+        Entry(long key, int value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private final AtomicReferenceArray<Entry> slots;
+    private final int slotMask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // Constructor: capacity is rounded up to a power of two
+    public DecisionCache(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.slotMask = size - 1;
+    }
+
+    // Packs a decision point into a cache key
+    public static long key(int openMask, DiceHand keptDice, DiceHand diceRolls) {
+        return ((long) openMask << (2 * HAND_BITS)) | ((long) keptDice.getPacked() << HAND_BITS)
+                | diceRolls.getPacked();
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 40) & slotMask;
+    }
+
+    // Returns the cached value for the key, or MISS
+    public int get(long key) {
+        Entry entry = slots.get(slot(key));
+        if (entry != null && entry.key == key) {
+            hits.increment();
+            return entry.value;
+        }
+        misses.increment();
+        return MISS;
+    }
+
+    // Stores a value, evicting any other key that shares its slot
+    public void put(long key, int value) {
+        Entry previous = slots.getAndSet(slot(key), new Entry(key, value));
+        if (previous != null && previous.key != key) {
+            evictions.increment();
+        }
+    }
+
+    // Removes every entry; the counters are kept
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, null);
+        }
+    }
+
+    public int getCapacity() {
+        return slots.length();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public double getHitRate() {
+        long total = getHits() + getMisses();
+        return total == 0 ? 0 : (double) getHits() / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("capacity %d, hits %d, misses %d, evictions %d, hit rate %.4f",
+                getCapacity(), getHits(), getMisses(), getEvictions(), getHitRate());
+    }
+}
@@ -0,0 +1,218 @@
+package com.yahtzee;
+
+import java.util.*;
+
+// Immutable hand of up to five dice stored as a packed face-count histogram.
+// Each face 1-6 owns a 3-bit count, so every predicate below runs on a single
+// int with no boxing, sorting or maps.
+public final class DiceHand {
+    public static final int MAX_DICE = 5;
+    public static final int NUM_FACES = 6;
+
+    private static final int BITS_PER_FACE = 3;
+    private static final int COUNT_MASK = (1 << BITS_PER_FACE) - 1;
+
+    // The hand with no dice in it
+    public static final DiceHand EMPTY = new DiceHand(0, 0);
+
+    private final int packed;
+    private final int size;
+
+    private DiceHand(int packed, int size) {
+        this.packed = packed;
+        this.size = size;
+    }
+
+    // Builds a hand from a list of dice values
+    public static DiceHand of(List<Integer> dice) {
+        int packed = 0;
+        for (int die : dice) {
+            packed += unit(die);
+        }
+        return checked(packed, dice.size());
+    }
+
+    // Builds a hand from the given dice values
+    public static DiceHand of(int... dice) {
+        int packed = 0;
+        for (int die : dice) {
+            packed += unit(die);
+        }
+        return checked(packed, dice.length);
+    }
+
+    // Rebuilds a hand from the value returned by getPacked()
+    public static DiceHand fromPacked(int packed) {
+        int size = 0;
+        for (int face = 1; face <= NUM_FACES; face++) {
+            size += (packed >>> shift(face)) & COUNT_MASK;
+        }
+        if ((packed >>> (NUM_FACES * BITS_PER_FACE)) != 0) {
+            throw new IllegalArgumentException("Invalid packed dice hand: " + packed);
+        }
+        return checked(packed, size);
+    }
+
+    private static DiceHand checked(int packed, int size) {
+        if (size > MAX_DICE) {
+            throw new IllegalArgumentException("A hand cannot hold more than " + MAX_DICE + " dice");
+        }
+        return new DiceHand(packed, size);
+    }
+
+    private static int shift(int face) {
+        return (face - 1) * BITS_PER_FACE;
+    }
+
+    private static int unit(int face) {
+        if (face < 1 || face > NUM_FACES) {
+            throw new IllegalArgumentException("Invalid die value: " + face);
+        }
+        return 1 << shift(face);
+    }
+
+    // Returns the packed histogram, usable as a compact key
+    public int getPacked() {
+        return packed;
+    }
+
+    // Returns the number of dice in the hand
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Returns how many dice show the given face
+    public int count(int face) {
+        return (packed >>> shift(face)) & COUNT_MASK;
+    }
+
+    // Checks if at least one die shows the given face
+    public boolean contains(int face) {
+        return count(face) > 0;
+    }
+
+    // Returns the sum of all dice in the hand
+    public int sum() {
+        int total = 0;
+        for (int face = 1; face <= NUM_FACES; face++) {
+            total += count(face) * face;
+        }
+        return total;
+    }
+
+    // Returns a bitmask with bit (face - 1) set for every face present
+    public int faceMask() {
+        int mask = 0;
+        for (int face = 1; face <= NUM_FACES; face++) {
+            if (count(face) > 0) {
+                mask |= 1 << (face - 1);
+            }
+        }
+        return mask;
+    }
+
+    // Returns the number of distinct faces in the hand
+    public int countUnique() {
+        return Integer.bitCount(faceMask());
+    }
+
+    // Returns the highest count of any face
+    public int maxCount() {
+        int max = 0;
+        for (int face = 1; face <= NUM_FACES; face++) {
+            max = Math.max(max, count(face));
+        }
+        return max;
+    }
+
+    // Returns the total number of repeated dice (dice beyond the first of each face)
+    public int numRepeats() {
+        return size - countUnique();
+    }
+
+    // Checks if all dice show the same face
+    public boolean allSame() {
+        return countUnique() <= 1;
+    }
+
+    // Checks if at least 'n' dice show the same face
+    public boolean atleastNSame(int n) {
+        return maxCount() >= n;
+    }
+
+    // Checks for three of one face and two of another
+    public boolean fullHouse() {
+        boolean hasTwo = false;
+        boolean hasThree = false;
+        for (int face = 1; face <= NUM_FACES; face++) {
+            int count = count(face);
+            if (count == 2) {
+                hasTwo = true;
+            } else if (count == 3) {
+                hasThree = true;
+            }
+        }
+        return hasTwo && hasThree;
+    }
+
+    // Returns the length of the longest run of consecutive faces. Each pass of
+    // mask &= mask >>> 1 shortens every run in the face mask by one.
+    public int longestSequenceLength() {
+        int mask = faceMask();
+        int length = 0;
+        while (mask != 0) {
+            mask &= mask >>> 1;
+            length++;
+        }
+        return length;
+    }
+
+    // Checks if the hand contains a run of consecutive faces of the given length
+    public boolean containsSequence(int sequenceLength) {
+        return longestSequenceLength() >= sequenceLength;
+    }
+
+    // Returns a new hand with the given die added
+    public DiceHand add(int face) {
+        return checked(packed + unit(face), size + 1);
+    }
+
+    // Returns a new hand holding the dice of both hands
+    public DiceHand add(DiceHand other) {
+        return checked(packed + other.packed, size + other.size);
+    }
+
+    // Returns the dice in ascending order
+    public List<Integer> toList() {
+        List<Integer> dice = new ArrayList<>(size);
+        for (int face = 1; face <= NUM_FACES; face++) {
+            for (int i = 0; i < count(face); i++) {
+                dice.add(face);
+            }
+        }
+        return dice;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null || getClass() != obj.getClass())
+            return false;
+        return packed == ((DiceHand) obj).packed;
+    }
+
+    @Override
+    public int hashCode() {
+        return packed;
+    }
+
+    @Override
+    public String toString() {
+        return ioFunctions.toStringVector(toList());
+    }
+}
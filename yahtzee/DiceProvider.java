@@ -0,0 +1,20 @@
+package com.yahtzee;
+
+import java.util.*;
+
+// Supplies the values of a roll of dice for a player
+@FunctionalInterface
+public interface DiceProvider {
+    // Rolls random dice without asking anyone
+    DiceProvider RANDOM = Dice::rollDice;
+
+    // Asks the user whether to enter the dice manually or roll them randomly
+    DiceProvider PROMPT = ioFunctions::getDiceRoll;
+
+    // Asks the user whether they want to roll for the computer
+    DiceProvider PROMPT_FOR_COMPUTER = numDice -> ioFunctions.humanWantsToRollForComputer()
+            ? ioFunctions.getDiceRoll(numDice)
+            : Dice.rollDice(numDice);
+
+    List<Integer> roll(int numDice);
+}
@@ -0,0 +1,123 @@
+package com.yahtzee;
+
+import java.util.*;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+// Seedable source of die rolls backed by a splittable L64X128MixRandom generator.
+//
+// A DiceSource is not thread safe; give each thread or game its own, either by
+// split() or by forStream(seed, index). Dice.rollDie and Dice.rollDice use a
+// per-thread source, which can be reseeded to replay a game exactly.
+public final class DiceSource implements DiceProvider {
+    public static final String ALGORITHM = "L64X128MixRandom";
+
+    private static final RandomGeneratorFactory<RandomGenerator.SplittableGenerator> FACTORY =
+            RandomGeneratorFactory.of(ALGORITHM);
+
+    // 2^32 mod 6: low products below this are rejected to keep rolls unbiased
+    private static final long REJECT_BELOW = (1L << 32) % 6;
+
+    private static final ThreadLocal<DiceSource> CURRENT = ThreadLocal.withInitial(DiceSource::new);
+
+    private final RandomGenerator.SplittableGenerator generator;
+
+    // Constructor: Seeds the generator randomly
+    public DiceSource() {
+        this(FACTORY.create());
+    }
+
+    // Constructor: Every source with the same seed rolls the same dice
+    public DiceSource(long seed) {
+        this(FACTORY.create(seed));
+    }
+
+    private DiceSource(RandomGenerator.SplittableGenerator generator) {
+        this.generator = generator;
+    }
+
+    // Returns the source of stream 'index' for a seed. Streams of nearby
+    // indices are independent, so work can be split by index across threads.
+    public static DiceSource forStream(long seed, long index) {
+        long z = seed + (index + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return new DiceSource(z ^ (z >>> 31));
+    }
+
+    // Returns the calling thread's source
+    public static DiceSource current() {
+        return CURRENT.get();
+    }
+
+    // Replaces the calling thread's source with one seeded from the given seed
+    public static void seedCurrent(long seed) {
+        CURRENT.set(new DiceSource(seed));
+    }
+
+    // Returns a new, statistically independent source split off this one
+    public DiceSource split() {
+        return new DiceSource(generator.split());
+    }
+
+    public RandomGenerator getGenerator() {
+        return generator;
+    }
+
+    // Rolls a single die
+    public int rollDie() {
+        return generator.nextInt(6) + 1;
+    }
+
+    public boolean nextBoolean() {
+        return generator.nextBoolean();
+    }
+
+    // Fills buffer[offset .. offset + count) with die rolls. Each 64-bit draw is
+    // split into two 32-bit halves and each half is mapped to a die by
+    // multiply-shift with rejection, so most draws give two dice.
+    public void fill(int[] buffer, int offset, int count) {
+        int i = offset;
+        int end = offset + count;
+        while (i < end) {
+            long bits = generator.nextLong();
+            i = put(buffer, i, end, bits & 0xFFFFFFFFL);
+            i = put(buffer, i, end, bits >>> 32);
+        }
+    }
+
+    private static int put(int[] buffer, int i, int end, long half) {
+        if (i >= end) {
+            return i;
+        }
+        long product = half * 6;
+        if ((product & 0xFFFFFFFFL) < REJECT_BELOW) {
+            return i;
+        }
+        buffer[i] = (int) (product >>> 32) + 1;
+        return i + 1;
+    }
+
+    // Rolls a specified number of dice and returns their values in a list
+    public List<Integer> rollDice(int numDice) {
+        int[] buffer = new int[numDice];
+        fill(buffer, 0, numDice);
+        List<Integer> diceRolls = new ArrayList<>(numDice);
+        for (int die : buffer) {
+            diceRolls.add(die);
+        }
+        FlightEvents.Roll event = new FlightEvents.Roll();
+        if (event.shouldCommit()) {
+            event.dice = numDice;
+            event.values = diceRolls.toString();
+            event.commit();
+        }
+        return diceRolls;
+    }
+
+    // DiceProvider: rolls the dice from this source
+    @Override
+    public List<Integer> roll(int numDice) {
+        return rollDice(numDice);
+    }
+}
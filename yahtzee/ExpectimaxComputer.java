@@ -0,0 +1,31 @@
+package com.yahtzee;
+
+import java.util.*;
+
+// Computer player that keeps dice by turn-level expectimax with TurnOptimizer.
+// Standing and the default roll count come from Computer.
+class ExpectimaxComputer extends PolicyComputer {
+    private final TurnOptimizer optimizer;
+
+    // Constructor: Maximizes the expected points of each turn
+    public ExpectimaxComputer() {
+        this(new TurnOptimizer());
+    }
+
+    public ExpectimaxComputer(TurnOptimizer optimizer) {
+        super();
+        this.optimizer = optimizer;
+    }
+
+    // Constructor for automated games, where dice come from the given provider
+    public ExpectimaxComputer(String name, DiceProvider diceProvider, TurnOptimizer optimizer) {
+        super(name, diceProvider);
+        this.optimizer = optimizer;
+    }
+
+    @Override
+    protected List<Integer> chooseKeep(ScoreCard scoreCard, List<Integer> diceRolls, List<Integer> keptDice,
+            int rollsLeft) {
+        return optimizer.getBestKeep(scoreCard, keptDice, diceRolls, rollsLeft);
+    }
+}
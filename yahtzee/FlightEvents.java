@@ -0,0 +1,153 @@
+package com.yahtzee;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+// JDK Flight Recorder events for the game, shown under "Yahtzee" in JMC next
+// to the JVM's own GC, allocation and thread events.
+//
+// Call sites follow the usual JFR pattern:
+//     FlightEvents.Decision event = new FlightEvents.Decision();
+//     event.begin();
+//     ...
+//     if (event.shouldCommit()) {
+//         event.keep = ...;
+//         event.commit();
+//     }
+// When no recording has the event enabled, shouldCommit() is false and the
+// JIT removes the allocation, so the fields are only filled in when they are
+// recorded. Decisions carry a 1 ms threshold so a computer-only batch does
+// not flood a recording; yahtzee.jfc enables every event with settings suited
+// to recording continuously.
+public final class FlightEvents {
+    private FlightEvents() {
+    }
+
+    @Name("com.yahtzee.Roll")
+    @Label("Dice Roll")
+    @Category("Yahtzee")
+    @Description("Dice rolled from a DiceSource")
+    @StackTrace(false)
+    public static final class Roll extends Event {
+        @Label("Dice")
+        public int dice;
+
+        @Label("Values")
+        public String values;
+    }
+
+    @Name("com.yahtzee.Decision")
+    @Label("Keep Decision")
+    @Category("Yahtzee")
+    @Description("Computer choosing which dice to keep")
+    @StackTrace(false)
+    @Threshold("1 ms")
+    public static final class Decision extends Event {
+        @Label("Open Categories")
+        public int openCategories;
+
+        @Label("Kept Dice")
+        public String kept;
+
+        @Label("Rolled Dice")
+        public String rolled;
+
+        @Label("Dice To Keep")
+        public String keep;
+
+        @Label("Cache Hit")
+        public boolean cacheHit;
+    }
+
+    @Name("com.yahtzee.Stand")
+    @Label("Stand Decision")
+    @Category("Yahtzee")
+    @Description("Computer deciding whether to stop rolling")
+    @StackTrace(false)
+    @Threshold("1 ms")
+    public static final class Stand extends Event {
+        @Label("Player")
+        public String player;
+
+        @Label("Open Categories")
+        public int openCategories;
+
+        @Label("Kept Dice")
+        public String kept;
+
+        @Label("Rolled Dice")
+        public String rolled;
+
+        @Label("Stands")
+        public boolean stands;
+    }
+
+    @Name("com.yahtzee.Claim")
+    @Label("Category Claim")
+    @Category("Yahtzee")
+    @Description("Category scored at the end of a turn")
+    @StackTrace(false)
+    public static final class Claim extends Event {
+        @Label("Player")
+        public String player;
+
+        @Label("Round")
+        public int round;
+
+        @Label("Category")
+        public String category;
+
+        @Label("Points")
+        public int points;
+
+        @Label("Dice")
+        public String dice;
+
+        @Label("Open Categories")
+        @Description("Open categories left after the claim")
+        public int openCategories;
+    }
+
+    @Name("com.yahtzee.Round")
+    @Label("Round")
+    @Category("Yahtzee")
+    @Description("A round of Game.playRound, including waiting for humans")
+    @StackTrace(false)
+    public static final class Round extends Event {
+        @Label("Round")
+        public int round;
+
+        @Label("Players")
+        public int players;
+
+        @Label("Open Categories")
+        @Description("Open categories when the round started")
+        public int openCategories;
+
+        @Label("Claims")
+        public int claims;
+    }
+
+    @Name("com.yahtzee.Save")
+    @Label("Save")
+    @Category("Yahtzee")
+    @Description("Save file written")
+    public static final class Save extends Event {
+        @Label("Path")
+        public String path;
+
+        @Label("Binary")
+        public boolean binary;
+
+        @Label("Bytes")
+        public int bytes;
+
+        @Label("Succeeded")
+        public boolean succeeded;
+    }
+}
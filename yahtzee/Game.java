@@ -1,18 +1,30 @@
 package com.yahtzee;
 
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.zip.CRC32;
 import java.util.stream.Collectors;
 
 class Game {
     private final ScoreCard scoreCard;
     private final int currentRound;
     private final List<Player> players;
+    private final GameListener listener;
 
-    // Constructor: Initializes a Game object with a scorecard, round number, and list of players
+    // Constructor: Initializes a Game object with a scorecard, round number, and list of players.
+    // Progress is not reported anywhere.
     public Game(ScoreCard scoreCard, int currentRound, List<Player> players) {
+        this(scoreCard, currentRound, players, GameListener.NONE);
+    }
+
+    // Constructor: Same as above, reporting progress to the given listener
+    public Game(ScoreCard scoreCard, int currentRound, List<Player> players, GameListener listener) {
         this.scoreCard = scoreCard;
         this.currentRound = currentRound;
         this.players = players;
+        this.listener = listener;
     }
 
     // Copy constructor: Creates a copy of another Game object
@@ -20,26 +32,41 @@ class Game {
         this.scoreCard = other.scoreCard;
         this.currentRound = other.currentRound;
         this.players = other.players;
+        this.listener = other.listener;
+    }
+
+    // Returns a copy of this game that reports progress to the given listener
+    public Game withListener(GameListener listener) {
+        return new Game(scoreCard, currentRound, players, listener);
     }
 
     public ScoreCard getScoreCard() {
         return scoreCard;
     }
+
+    public int getCurrentRound() {
+        return currentRound;
+    }
+
+    public GameListener getListener() {
+        return listener;
+    }
+
+    public List<Player> getPlayers() {
+        return players;
+    }
     
     public static Game deserialize(String serial) {
-        System.out.println("Inside the Game deserialize \n");
         Human human = new Human();
         Computer computer = new Computer();
         List<Player> players = Arrays.asList(human, computer);
     
         List<String> lines = Arrays.asList(serial.split("\n"));
-        System.out.println("Inside the Game deserialize now here \n");
     
         int roundNumber = 1;
         for (String line : lines) {
             if (line.startsWith("Round: ")) {
                 roundNumber = Integer.parseInt(line.substring(7).trim());
-                System.out.println("Round number: " + roundNumber);
                 break;
             }
         }
@@ -54,7 +81,6 @@ class Game {
     
         List<String> scorecardLines = lines.subList(scorecardStart, lines.size());
         String scorecardSerial = String.join("\n", scorecardLines);
-        System.out.println("Scorecard serial: " + scorecardSerial);
         ScoreCard scoreCard = ScoreCard.deserialize(scorecardSerial, human, computer);
     
         return new Game(scoreCard, roundNumber, players);
@@ -73,6 +99,124 @@ class Game {
         return serial.toString();
     }
 
+    // Binary form written by toBinary: magic, format version, round, the
+    // seats, the scorecard block and a CRC32 of everything before it. Each
+    // seat is a kind byte, then the player's name as a length byte and UTF-8.
+    public static final int BINARY_MAGIC = 0x59545A42;
+    public static final short BINARY_VERSION = 2;
+    // Size of a save with no seats, the smallest there can be
+    public static final int MIN_BINARY_SIZE = Integer.BYTES + 2 * Short.BYTES + 1 + ScoreCard.BINARY_SIZE
+            + Integer.BYTES;
+
+    // Seat kinds: a plain player, a human, then a computer per ComputerStrategy
+    private static final int PLAYER_SEAT = 0;
+    private static final int HUMAN_SEAT = 1;
+    private static final int FIRST_COMPUTER_SEAT = 2;
+
+    // Converts the current game state into its compact binary save form.
+    // Throws IllegalArgumentException if a player is not a plain Player, a
+    // Human or a computer of a ComputerStrategy, since only those can be
+    // rebuilt from the save.
+    public ByteBuffer toBinary() {
+        if (players.size() > 0xFF) {
+            throw new IllegalArgumentException("Too many players for a binary save: " + players.size());
+        }
+        byte[][] names = new byte[players.size()][];
+        int size = MIN_BINARY_SIZE;
+        for (int seat = 0; seat < players.size(); seat++) {
+            names[seat] = players.get(seat).getName().getBytes(StandardCharsets.UTF_8);
+            if (names[seat].length > 0xFF) {
+                throw new IllegalArgumentException("Player name is too long for a binary save: "
+                        + players.get(seat).getName());
+            }
+            size += 2 + names[seat].length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(BINARY_MAGIC).putShort(BINARY_VERSION).putShort((short) currentRound);
+        buffer.put((byte) players.size());
+        for (int seat = 0; seat < players.size(); seat++) {
+            buffer.put((byte) seatKind(players.get(seat))).put((byte) names[seat].length).put(names[seat]);
+        }
+        scoreCard.writeBinary(buffer, players);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        return buffer.flip();
+    }
+
+    private static int seatKind(Player player) {
+        if (player.getClass() == Player.class) {
+            return PLAYER_SEAT;
+        }
+        if (player.getClass() == Human.class) {
+            return HUMAN_SEAT;
+        }
+        return FIRST_COMPUTER_SEAT + ComputerStrategy.of(player)
+                .orElseThrow(() -> new IllegalArgumentException("Player " + player.getName() + " is a "
+                        + player.getClass().getSimpleName() + ", which a binary save cannot rebuild"))
+                .ordinal();
+    }
+
+    // Rebuilds a game from toBinary's output with a new player in every seat,
+    // of the saved kind and name. Dice are not saved: the new players prompt
+    // for them as the no-argument Human and Computer constructors do.
+    public static Game fromBinary(ByteBuffer buffer) {
+        if (buffer.remaining() < MIN_BINARY_SIZE) {
+            throw new IllegalArgumentException("Binary save must be at least " + MIN_BINARY_SIZE + " bytes");
+        }
+        int start = buffer.position();
+        int end = buffer.limit();
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().limit(end - Integer.BYTES));
+        if (buffer.getInt(end - Integer.BYTES) != (int) crc.getValue()) {
+            throw new IllegalArgumentException("Binary save checksum does not match");
+        }
+        if (buffer.getInt() != BINARY_MAGIC) {
+            throw new IllegalArgumentException("Not a binary save");
+        }
+        short version = buffer.getShort();
+        if (version != BINARY_VERSION) {
+            throw new IllegalArgumentException("Unsupported binary save version: " + version);
+        }
+        int roundNumber = buffer.getShort();
+
+        try {
+            int numSeats = Byte.toUnsignedInt(buffer.get());
+            List<Player> players = new ArrayList<>(numSeats);
+            for (int seat = 0; seat < numSeats; seat++) {
+                int kind = Byte.toUnsignedInt(buffer.get());
+                byte[] name = new byte[Byte.toUnsignedInt(buffer.get())];
+                buffer.get(name);
+                players.add(newSeat(kind, new String(name, StandardCharsets.UTF_8)));
+            }
+            if (buffer.remaining() != ScoreCard.BINARY_SIZE + Integer.BYTES) {
+                throw new IllegalArgumentException("Binary save with " + numSeats + " seats must be "
+                        + (buffer.position() - start + ScoreCard.BINARY_SIZE + Integer.BYTES) + " bytes");
+            }
+            ScoreCard scoreCard = ScoreCard.readBinary(buffer, players);
+            buffer.getInt();
+            return new Game(scoreCard, roundNumber, players);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Binary save seats run past its end", e);
+        }
+    }
+
+    private static Player newSeat(int kind, String name) {
+        switch (kind) {
+            case PLAYER_SEAT:
+                return new Player(name);
+            case HUMAN_SEAT:
+                return new Human();
+            default:
+                ComputerStrategy[] strategies = ComputerStrategy.values();
+                if (kind - FIRST_COMPUTER_SEAT >= strategies.length) {
+                    throw new IllegalArgumentException("Binary save has an unknown seat kind: " + kind);
+                }
+                return strategies[kind - FIRST_COMPUTER_SEAT].create(name, DiceProvider.PROMPT_FOR_COMPUTER);
+        }
+    }
+
     // Check if the game is over by checking if the scorecard is full
     public boolean isOver() {
         return scoreCard.isFull();
@@ -86,26 +230,44 @@ class Game {
     // Play a round of the game and return the updated Game object
     public Game playRound() {
         if (isOver()) {
-            System.out.println("The game is over!");
+            listener.gameOver();
             return this;
         }
 
-        System.out.println("Round " + currentRound);
-        showScores();
+        FlightEvents.Round event = new FlightEvents.Round();
+        event.begin();
+        listener.roundStarted(currentRound, getPlayerScores());
 
-        ScoreCard newScoreCard = Round.playRound(currentRound, scoreCard, players);
-        
-
-        System.out.println(newScoreCard.getString());
+        ScoreCard newScoreCard = Round.playRound(currentRound, scoreCard, players, listener);
+        event.end();
+        if (event.shouldCommit()) {
+            event.round = currentRound;
+            event.players = players.size();
+            event.openCategories = Integer.bitCount(scoreCard.getOpenCategoryMask());
+            event.claims = Integer.bitCount(scoreCard.getOpenCategoryMask() & ~newScoreCard.getOpenCategoryMask());
+            event.commit();
+        }
 
-       
-        Game result = new Game(newScoreCard, currentRound + 1, players);
+        Game result = new Game(newScoreCard, currentRound + 1, players, listener);
+        Metrics.ROUNDS_FINISHED.increment();
+        if (result.isOver()) {
+            Metrics.GAMES_FINISHED.increment();
+        }
 
-        result.showScores();
+        listener.roundEnded(currentRound, newScoreCard, result.getPlayerScores());
 
         return result;
     }
 
+    // Play rounds until the scorecard is full and return the finished game
+    public Game playGame() {
+        Game game = this;
+        while (!game.isOver()) {
+            game = game.playRound();
+        }
+        return game;
+    }
+
     // Get the scores of all players from the scorecard
     public Map<Player, Integer> getPlayerScores() {
         return scoreCard.getPlayerScores(players);
@@ -113,13 +275,6 @@ class Game {
 
     // Show the scores of all players
     public void showScores() {
-        System.out.println("Scores:");
-
-        Map<Player, Integer> playerScores = getPlayerScores();
-
-        for (Map.Entry<Player, Integer> playerScore : playerScores.entrySet()) {
-            System.out.println(playerScore.getKey().getName() + ": " + playerScore.getValue());
-        }
-        System.out.println();
+        listener.scoresShown(getPlayerScores());
     }
 }
\ No newline at end of file
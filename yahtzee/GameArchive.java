@@ -0,0 +1,666 @@
+package com.yahtzee;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.Stream;
+
+// Columnar archive of simulated games.
+//
+// Games are stored in chunks of up to a few thousand games. Each chunk holds
+// three tables whose columns are stored one after the other:
+//  - games:  game id, final score of every seat, number of turns
+//  - turns:  round, seat, claimed category, points, number of rolls, final hand
+//  - rolls:  dice rolled, dice kept from that roll
+// Rows of the turn table follow the games in order and rows of the roll table
+// follow the turns, so no row stores a reference to its parent.
+//
+// Every column uses the cheapest encoding for its data. Game ids are delta
+// varints, rounds are run-length encoded, categories are dictionary encoded
+// and all other small integers are bit-packed at the width of the largest
+// value in the chunk. Hands are stored by their ScoreTable or RerollTable
+// index rather than as dice.
+//
+// A Reader maps chunks lazily and only decodes the columns that are asked
+// for, so an analysis such as ArchiveStats can stream chunks in parallel
+// without building a Game.
+public final class GameArchive {
+    public static final int MAGIC = 0x59545A41;
+    public static final short VERSION = 1;
+    public static final int DEFAULT_CHUNK_GAMES = 4096;
+
+    private static final int FILE_HEADER_SIZE = 8;
+    private static final int NO_CATEGORY = -1;
+
+    // Column order within a chunk
+    private static final int GAME_IDS = 0;
+    private static final int SCORES = 1;
+    private static final int TURN_COUNTS = 2;
+    private static final int ROUNDS = 3;
+    private static final int SEATS = 4;
+    private static final int CATEGORIES = 5;
+    private static final int POINTS = 6;
+    private static final int ROLL_COUNTS = 7;
+    private static final int FINAL_HANDS = 8;
+    private static final int ROLLED = 9;
+    private static final int KEPT = 10;
+    private static final int NUM_COLUMNS = 11;
+
+    private static final int CHUNK_HEADER_SIZE = (4 + NUM_COLUMNS) * Integer.BYTES;
+
+    private GameArchive() {
+    }
+
+    // Growable int column used while a chunk is being built
+    private static class IntColumn {
+        private int[] values = new int[256];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void set(int index, int value) {
+            values[index] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] values() {
+            return values;
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+
+    // Records games played with it as their listener into the columns of one
+    // chunk. Call startGame before each game and finishGame after it. Not
+    // thread safe; use one builder per thread.
+    public static class ChunkBuilder implements GameListener {
+        private final int numSeats;
+        private final int capacity;
+
+        private long[] gameIds = new long[64];
+        private final IntColumn scores = new IntColumn();
+        private final IntColumn turnCounts = new IntColumn();
+        private final IntColumn rounds = new IntColumn();
+        private final IntColumn seats = new IntColumn();
+        private final IntColumn categories = new IntColumn();
+        private final IntColumn points = new IntColumn();
+        private final IntColumn rollCounts = new IntColumn();
+        private final IntColumn finalHands = new IntColumn();
+        private final IntColumn rolled = new IntColumn();
+        private final IntColumn kept = new IntColumn();
+
+        private int games;
+        private List<Player> players;
+        private int firstTurn;
+        private int round;
+        private int seat;
+        private int turnRolls;
+        private int lastRolled;
+
+        public ChunkBuilder(int numSeats) {
+            this(numSeats, DEFAULT_CHUNK_GAMES);
+        }
+
+        public ChunkBuilder(int numSeats, int capacity) {
+            this.numSeats = numSeats;
+            this.capacity = capacity;
+        }
+
+        // Starts recording a game between the given players, in seat order
+        public void startGame(long gameId, List<Player> players) {
+            if (players.size() != numSeats) {
+                throw new IllegalArgumentException("Archive games have " + numSeats + " players");
+            }
+            if (games == gameIds.length) {
+                gameIds = Arrays.copyOf(gameIds, games * 2);
+            }
+            gameIds[games] = gameId;
+            this.players = players;
+            firstTurn = rounds.size();
+        }
+
+        // Finishes the game started last, taking the final scores from its scorecard
+        public void finishGame(Game game) {
+            ScoreCard scoreCard = game.getScoreCard();
+            for (Player player : players) {
+                scores.add(scoreCard.getPlayerScore(player));
+            }
+            turnCounts.add(rounds.size() - firstTurn);
+            games++;
+            players = null;
+        }
+
+        public int getGames() {
+            return games;
+        }
+
+        public boolean isEmpty() {
+            return games == 0;
+        }
+
+        public boolean isFull() {
+            return games >= capacity;
+        }
+
+        // Drops every recorded game
+        public void clear() {
+            games = 0;
+            for (IntColumn column : List.of(scores, turnCounts, rounds, seats, categories, points, rollCounts,
+                    finalHands, rolled, kept)) {
+                column.clear();
+            }
+        }
+
+        @Override
+        public void roundStarted(int round, Map<Player, Integer> scores) {
+            this.round = round;
+        }
+
+        @Override
+        public void turnStarted(Player player, ScoreCard scoreCard) {
+            seat = players.indexOf(player);
+            turnRolls = 0;
+        }
+
+        @Override
+        public void diceRolled(Player player, ScoreCard scoreCard, List<Integer> keptDice, List<Integer> diceRolls) {
+            lastRolled = RerollTable.keptIndex(DiceHand.of(diceRolls));
+            turnRolls++;
+        }
+
+        @Override
+        public void lastRollTaken(Player player) {
+            rolled.add(lastRolled);
+            kept.add(lastRolled);
+        }
+
+        @Override
+        public void stood(Player player) {
+            rolled.add(lastRolled);
+            kept.add(lastRolled);
+        }
+
+        @Override
+        public void diceKept(Player player, List<Integer> diceToKeep) {
+            rolled.add(lastRolled);
+            kept.add(RerollTable.keptIndex(DiceHand.of(diceToKeep)));
+        }
+
+        @Override
+        public void turnEnded(Player player, List<Integer> finalDice) {
+            rounds.add(round);
+            seats.add(seat);
+            categories.add(NO_CATEGORY);
+            points.add(0);
+            rollCounts.add(turnRolls);
+            finalHands.add(ScoreTable.indexOf(DiceHand.of(finalDice)));
+        }
+
+        // The claim is reported after the turn has ended, so it fills in the last turn
+        @Override
+        public void categoryScored(Player player, Category category, int points) {
+            categories.set(categories.size() - 1, category.ordinal());
+            this.points.set(this.points.size() - 1, points);
+        }
+
+        // Encodes the recorded games as one chunk, including its length prefix
+        public ByteBuffer encode() {
+            ByteBuffer[] columns = new ByteBuffer[NUM_COLUMNS];
+            columns[GAME_IDS] = encodeDeltas(gameIds, games);
+            columns[SCORES] = encodeBits(scores.values(), scores.size());
+            columns[TURN_COUNTS] = encodeBits(turnCounts.values(), turnCounts.size());
+            columns[ROUNDS] = encodeRuns(rounds.values(), rounds.size());
+            columns[SEATS] = encodeBits(seats.values(), seats.size());
+            columns[CATEGORIES] = encodeDictionary(categories.values(), categories.size());
+            columns[POINTS] = encodeBits(points.values(), points.size());
+            columns[ROLL_COUNTS] = encodeBits(rollCounts.values(), rollCounts.size());
+            columns[FINAL_HANDS] = encodeBits(finalHands.values(), finalHands.size());
+            columns[ROLLED] = encodeBits(rolled.values(), rolled.size());
+            columns[KEPT] = encodeBits(kept.values(), kept.size());
+
+            int size = CHUNK_HEADER_SIZE;
+            for (ByteBuffer column : columns) {
+                size += column.remaining();
+            }
+            ByteBuffer chunk = ByteBuffer.allocate(Integer.BYTES + size).order(ByteOrder.LITTLE_ENDIAN);
+            chunk.putInt(size).putInt(games).putInt(rounds.size()).putInt(rolled.size()).putInt(numSeats);
+            for (ByteBuffer column : columns) {
+                chunk.putInt(column.remaining());
+            }
+            for (ByteBuffer column : columns) {
+                chunk.put(column);
+            }
+            return chunk.flip();
+        }
+    }
+
+    // Appends chunks to an archive file. Chunks may be written from any thread.
+    public static class Writer implements AutoCloseable {
+        private final FileChannel channel;
+        private final int numSeats;
+        private long games;
+
+        private Writer(FileChannel channel, int numSeats) {
+            this.channel = channel;
+            this.numSeats = numSeats;
+        }
+
+        // Creates an archive, replacing any existing file
+        public static Writer create(Path path, int numSeats) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putShort(VERSION).putShort((short) numSeats).flip();
+            writeFully(channel, header);
+            return new Writer(channel, numSeats);
+        }
+
+        // Encodes and appends the builder's games, then clears it
+        public void write(ChunkBuilder builder) throws IOException {
+            if (builder.numSeats != numSeats) {
+                throw new IllegalArgumentException("Archive games have " + numSeats + " players");
+            }
+            if (builder.isEmpty()) {
+                return;
+            }
+            ByteBuffer chunk = builder.encode();
+            int chunkGames = builder.getGames();
+            builder.clear();
+            synchronized (this) {
+                writeFully(channel, chunk);
+                games += chunkGames;
+            }
+        }
+
+        public synchronized long getGames() {
+            return games;
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            channel.close();
+        }
+
+        private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    // Reads an archive chunk by chunk
+    public static class Reader implements AutoCloseable {
+        private final FileChannel channel;
+        private final int numSeats;
+        private final List<long[]> chunks;
+        private final long games;
+
+        private Reader(FileChannel channel, int numSeats, List<long[]> chunks, long games) {
+            this.channel = channel;
+            this.numSeats = numSeats;
+            this.chunks = chunks;
+            this.games = games;
+        }
+
+        // Opens an archive, reading only the chunk length prefixes up front
+        public static Reader open(Path path) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                readFully(channel, header, 0);
+                if (header.getInt(0) != MAGIC) {
+                    throw new IllegalArgumentException("Not a game archive");
+                }
+                if (header.getShort(4) != VERSION) {
+                    throw new IllegalArgumentException("Unsupported archive version: " + header.getShort(4));
+                }
+                int numSeats = header.getShort(6);
+
+                List<long[]> chunks = new ArrayList<>();
+                long games = 0;
+                ByteBuffer prefix = ByteBuffer.allocate(2 * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                long position = FILE_HEADER_SIZE;
+                while (position + prefix.capacity() <= channel.size()) {
+                    prefix.clear();
+                    readFully(channel, prefix, position);
+                    int size = prefix.getInt(0);
+                    if (size < CHUNK_HEADER_SIZE || position + Integer.BYTES + size > channel.size()) {
+                        break;
+                    }
+                    chunks.add(new long[] { position + Integer.BYTES, size });
+                    games += prefix.getInt(Integer.BYTES);
+                    position += Integer.BYTES + size;
+                }
+                return new Reader(channel, numSeats, chunks, games);
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of archive");
+                }
+            }
+        }
+
+        public int getNumSeats() {
+            return numSeats;
+        }
+
+        public int getNumChunks() {
+            return chunks.size();
+        }
+
+        public long getGames() {
+            return games;
+        }
+
+        // Streams the chunks in file order; call parallel() to decode them on several threads
+        public Stream<Chunk> chunks() {
+            return chunks.stream().map(this::load);
+        }
+
+        private Chunk load(long[] chunk) {
+            try {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunk[0], chunk[1]);
+                return new Chunk(buffer.order(ByteOrder.LITTLE_ENDIAN));
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to read archive chunk", e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    // One chunk of an archive. Columns are decoded when first asked for.
+    public static class Chunk {
+        private final ByteBuffer buffer;
+        private final int games;
+        private final int turns;
+        private final int rolls;
+        private final int numSeats;
+        private final int[] columnStarts = new int[NUM_COLUMNS + 1];
+
+        Chunk(ByteBuffer buffer) {
+            this.buffer = buffer;
+            games = buffer.getInt(0);
+            turns = buffer.getInt(4);
+            rolls = buffer.getInt(8);
+            numSeats = buffer.getInt(12);
+            columnStarts[0] = CHUNK_HEADER_SIZE;
+            for (int column = 0; column < NUM_COLUMNS; column++) {
+                columnStarts[column + 1] = columnStarts[column] + buffer.getInt(16 + column * Integer.BYTES);
+            }
+            if (columnStarts[NUM_COLUMNS] != buffer.limit()) {
+                throw new IllegalArgumentException("Archive chunk is corrupt");
+            }
+        }
+
+        private ByteBuffer column(int column) {
+            return buffer.slice(columnStarts[column], columnStarts[column + 1] - columnStarts[column])
+                    .order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        public int getGames() {
+            return games;
+        }
+
+        public int getTurns() {
+            return turns;
+        }
+
+        public int getRolls() {
+            return rolls;
+        }
+
+        public int getNumSeats() {
+            return numSeats;
+        }
+
+        public long[] getGameIds() {
+            return decodeDeltas(column(GAME_IDS));
+        }
+
+        // Final score of each game and seat, at [game * numSeats + seat]
+        public int[] getScores() {
+            return decodeBits(column(SCORES));
+        }
+
+        // Number of turns in each game
+        public int[] getTurnCounts() {
+            return decodeBits(column(TURN_COUNTS));
+        }
+
+        // Round of each turn
+        public int[] getRounds() {
+            return decodeRuns(column(ROUNDS));
+        }
+
+        // Seat of the player of each turn
+        public int[] getSeats() {
+            return decodeBits(column(SEATS));
+        }
+
+        // Ordinal of the category claimed in each turn, -1 if the turn scored nothing
+        public int[] getCategories() {
+            return decodeDictionary(column(CATEGORIES));
+        }
+
+        // Points claimed in each turn
+        public int[] getPoints() {
+            return decodeBits(column(POINTS));
+        }
+
+        // Number of rolls in each turn
+        public int[] getRollCounts() {
+            return decodeBits(column(ROLL_COUNTS));
+        }
+
+        // ScoreTable index of the final hand of each turn
+        public int[] getFinalHands() {
+            return decodeBits(column(FINAL_HANDS));
+        }
+
+        // RerollTable kept index of the dice rolled in each roll
+        public int[] getRolled() {
+            return decodeBits(column(ROLLED));
+        }
+
+        // RerollTable kept index of the dice kept from each roll
+        public int[] getKept() {
+            return decodeBits(column(KEPT));
+        }
+    }
+
+    // Column encodings
+
+    private static void putVarint(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static long getVarint(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    // Count, then each value as the zigzag varint of its difference from the previous one
+    private static ByteBuffer encodeDeltas(long[] values, int count) {
+        ByteBuffer buffer = ByteBuffer.allocate(5 + count * 10);
+        putVarint(buffer, count);
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            putVarint(buffer, zigzag(values[i] - previous));
+            previous = values[i];
+        }
+        return buffer.flip();
+    }
+
+    private static long[] decodeDeltas(ByteBuffer buffer) {
+        long[] values = new long[(int) getVarint(buffer)];
+        long previous = 0;
+        for (int i = 0; i < values.length; i++) {
+            previous += unzigzag(getVarint(buffer));
+            values[i] = previous;
+        }
+        return values;
+    }
+
+    // Count, bit width, then the values packed at that width, lowest bits first.
+    // Values must not be negative.
+    private static ByteBuffer encodeBits(int[] values, int count) {
+        int max = 0;
+        for (int i = 0; i < count; i++) {
+            max |= values[i];
+        }
+        int width = 32 - Integer.numberOfLeadingZeros(max);
+        int bytes = (int) (((long) count * width + 7) / 8);
+        ByteBuffer buffer = ByteBuffer.allocate(6 + bytes);
+        putVarint(buffer, count);
+        buffer.put((byte) width);
+
+        long bits = 0;
+        int filled = 0;
+        for (int i = 0; i < count; i++) {
+            bits |= (long) values[i] << filled;
+            filled += width;
+            while (filled >= 8) {
+                buffer.put((byte) bits);
+                bits >>>= 8;
+                filled -= 8;
+            }
+        }
+        if (filled > 0) {
+            buffer.put((byte) bits);
+        }
+        return buffer.flip();
+    }
+
+    private static int[] decodeBits(ByteBuffer buffer) {
+        int[] values = new int[(int) getVarint(buffer)];
+        int width = buffer.get();
+        if (width == 0) {
+            return values;
+        }
+        long mask = (1L << width) - 1;
+        long bits = 0;
+        int filled = 0;
+        for (int i = 0; i < values.length; i++) {
+            while (filled < width) {
+                bits |= (long) (buffer.get() & 0xFF) << filled;
+                filled += 8;
+            }
+            values[i] = (int) (bits & mask);
+            bits >>>= width;
+            filled -= width;
+        }
+        return values;
+    }
+
+    // Number of runs, then each run as its zigzag value and length
+    private static ByteBuffer encodeRuns(int[] values, int count) {
+        ByteBuffer buffer = ByteBuffer.allocate(5 + count * 10);
+        int runs = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0 || values[i] != values[i - 1]) {
+                runs++;
+            }
+        }
+        putVarint(buffer, runs);
+        for (int i = 0; i < count; ) {
+            int end = i + 1;
+            while (end < count && values[end] == values[i]) {
+                end++;
+            }
+            putVarint(buffer, zigzag(values[i]));
+            putVarint(buffer, end - i);
+            i = end;
+        }
+        return buffer.flip();
+    }
+
+    private static int[] decodeRuns(ByteBuffer buffer) {
+        int runs = (int) getVarint(buffer);
+        int[] runValues = new int[runs];
+        int[] runLengths = new int[runs];
+        int count = 0;
+        for (int run = 0; run < runs; run++) {
+            runValues[run] = (int) unzigzag(getVarint(buffer));
+            runLengths[run] = (int) getVarint(buffer);
+            count += runLengths[run];
+        }
+        int[] values = new int[count];
+        int position = 0;
+        for (int run = 0; run < runs; run++) {
+            Arrays.fill(values, position, position + runLengths[run], runValues[run]);
+            position += runLengths[run];
+        }
+        return values;
+    }
+
+    // The distinct values as zigzag varints, then each value's position in
+    // that dictionary, bit-packed
+    private static ByteBuffer encodeDictionary(int[] values, int count) {
+        int[] dictionary = Arrays.stream(values, 0, count).distinct().sorted().toArray();
+        int[] codes = new int[count];
+        for (int i = 0; i < count; i++) {
+            codes[i] = Arrays.binarySearch(dictionary, values[i]);
+        }
+        ByteBuffer packed = encodeBits(codes, count);
+        ByteBuffer buffer = ByteBuffer.allocate(5 + dictionary.length * 5 + packed.remaining());
+        putVarint(buffer, dictionary.length);
+        for (int value : dictionary) {
+            putVarint(buffer, zigzag(value));
+        }
+        return buffer.put(packed).flip();
+    }
+
+    private static int[] decodeDictionary(ByteBuffer buffer) {
+        int[] dictionary = new int[(int) getVarint(buffer)];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = (int) unzigzag(getVarint(buffer));
+        }
+        int[] values = decodeBits(buffer);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = dictionary[values[i]];
+        }
+        return values;
+    }
+}
@@ -0,0 +1,160 @@
+package com.yahtzee;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+// Advances many GameMachines on a small fixed set of event-loop threads.
+//
+// Every game belongs to one loop, picked from its id, and is only ever
+// touched by that loop's thread, so machines need no locking. Each input is
+// a task on the loop; its future completes with the state the game is left
+// in, which says what input it needs next. A game waiting for a player costs
+// its GameMachine and nothing else.
+public class GameEventLoop implements AutoCloseable {
+    private final ExecutorService[] loops;
+    private final List<Map<Long, GameMachine>> games;
+    private final AtomicInteger openGames = new AtomicInteger();
+
+    public GameEventLoop(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one event loop thread is needed");
+        }
+        loops = new ExecutorService[threads];
+        games = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            String name = "yahtzee-loop-" + i;
+            loops[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+            games.add(new HashMap<>());
+        }
+    }
+
+    private int loopOf(long id) {
+        return Math.floorMod(Long.hashCode(id) * 0x9E3779B9, loops.length);
+    }
+
+    // Runs a step on the game's loop. Fails with IllegalArgumentException if there is no such game.
+    private <T> CompletableFuture<T> onGame(long id, Function<GameMachine, T> step) {
+        int loop = loopOf(id);
+        return CompletableFuture.supplyAsync(() -> {
+            GameMachine machine = games.get(loop).get(id);
+            if (machine == null) {
+                throw new IllegalArgumentException("No game " + id);
+            }
+            return step.apply(machine);
+        }, loops[loop]);
+    }
+
+    // Adds a game under the given id and plays it up to its first input
+    public CompletableFuture<GameMachine.State> open(long id, Game game, DiceProvider dice) {
+        int loop = loopOf(id);
+        return CompletableFuture.supplyAsync(() -> {
+            GameMachine machine = new GameMachine(game, dice);
+            if (games.get(loop).putIfAbsent(id, machine) != null) {
+                throw new IllegalArgumentException("Game " + id + " is already open");
+            }
+            openGames.incrementAndGet();
+            return machine.start();
+        }, loops[loop]);
+    }
+
+    public CompletableFuture<GameMachine.State> stand(long id, boolean stand) {
+        return onGame(id, machine -> machine.stand(stand));
+    }
+
+    public CompletableFuture<GameMachine.State> keep(long id, List<Integer> diceToKeep) {
+        return onGame(id, machine -> machine.keep(diceToKeep));
+    }
+
+    public CompletableFuture<String> getHelp(long id) {
+        return onGame(id, GameMachine::getHelp);
+    }
+
+    // The game as of its last claim
+    public CompletableFuture<Game> snapshot(long id) {
+        return onGame(id, GameMachine::getGame);
+    }
+
+    // Removes a game, finished or not, and returns it as of its last claim
+    public CompletableFuture<Game> remove(long id) {
+        int loop = loopOf(id);
+        return onGame(id, machine -> {
+            games.get(loop).remove(id);
+            openGames.decrementAndGet();
+            return machine.getGame();
+        });
+    }
+
+    public int getOpenGames() {
+        return openGames.get();
+    }
+
+    public int getThreads() {
+        return loops.length;
+    }
+
+    // Stops the loops; games still open are dropped
+    @Override
+    public void close() {
+        for (ExecutorService loop : loops) {
+            loop.shutdown();
+        }
+    }
+
+    // Answers like a player who never stands and keeps no dice, until the game is over
+    private static CompletableFuture<Game> playScripted(GameEventLoop eventLoop, long id,
+            CompletableFuture<GameMachine.State> step) {
+        return step.thenCompose(state -> {
+            switch (state) {
+                case AWAITING_STAND:
+                    return playScripted(eventLoop, id, eventLoop.stand(id, false));
+                case AWAITING_KEEP:
+                    return playScripted(eventLoop, id, eventLoop.keep(id, List.of()));
+                default:
+                    return eventLoop.remove(id);
+            }
+        });
+    }
+
+    // Usage: GameEventLoop [games] [threads] [seed]
+    //
+    // Opens human-vs-computer games that all wait for their first input, to
+    // measure memory per waiting game, then plays them all with a scripted human.
+    public static void main(String[] args) throws Exception {
+        int numGames = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+
+        try (GameEventLoop eventLoop = new GameEventLoop(threads)) {
+            long heapBefore = Heap.usedAfterGc();
+            List<CompletableFuture<GameMachine.State>> opened = new ArrayList<>(numGames);
+            for (int id = 0; id < numGames; id++) {
+                Game game = new Game(new ScoreCard(), 1, List.of(new Human(), new Computer()));
+                opened.add(eventLoop.open(id, game, DiceSource.forStream(seed, id)));
+            }
+            CompletableFuture.allOf(opened.toArray(new CompletableFuture<?>[0])).join();
+            long heapAfter = Heap.usedAfterGc();
+            System.out.printf("%d games waiting for input on %d threads: %.1f KB heap per game%n",
+                    eventLoop.getOpenGames(), threads, (heapAfter - heapBefore) / 1024.0 / numGames);
+
+            long start = System.nanoTime();
+            List<CompletableFuture<Game>> finished = new ArrayList<>(numGames);
+            for (int id = 0; id < numGames; id++) {
+                finished.add(playScripted(eventLoop, id, opened.get(id)));
+            }
+            CompletableFuture.allOf(finished.toArray(new CompletableFuture<?>[0])).join();
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            long humanWins = finished.stream().map(CompletableFuture::join)
+                    .filter(game -> game.getScoreCard().getWinner().map(Player::getName).orElse("").equals("Human"))
+                    .count();
+            System.out.printf("%d games played in %.2f s (%.0f games/s), human won %d%n", numGames, seconds,
+                    numGames / seconds, humanWins);
+        }
+    }
+}
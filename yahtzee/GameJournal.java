@@ -0,0 +1,422 @@
+package com.yahtzee;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+// Append-only, memory-mapped record of every roll, keep, stand and category
+// claim of one game. Attach it as a GameListener and the file can rebuild the
+// game after a crash, or replay any round on its own.
+//
+// The file starts with a HEADER_SIZE header: a magic number, the format
+// version, the number of seats and an index holding the file offset of the
+// start of each of the first INDEXED_ROUNDS rounds. Small fixed-size records
+// follow, each a type byte, the player's seat and the payload for that type.
+// The type byte is written after the payload, so a record only counts once it
+// is complete, and the first zero type byte marks the end of the journal.
+//
+// Records go straight into a mapped region of the file, so an append is a few
+// buffer writes and survives a crash of the process; force() also makes it
+// survive a crash of the machine. A journal records a single game from a
+// single thread.
+public class GameJournal implements GameListener, AutoCloseable {
+    public static final int MAGIC = 0x59544A4C;
+    public static final short VERSION = 1;
+    public static final int HEADER_SIZE = 256;
+    public static final int INDEXED_ROUNDS = (HEADER_SIZE - 8) / Integer.BYTES;
+
+    private static final int INDEX_START = 8;
+    private static final int REGION_SIZE = 1 << 20;
+    private static final int MAX_RECORD_SIZE = 6;
+    private static final int NO_SEAT = -1;
+
+    // Kinds of journal record and their sizes in bytes, including the type and seat
+    public enum EntryType {
+        ROUND_STARTED(1, 4), ROLLED(2, 6), KEPT(3, 6), STOOD(4, 2), CLAIMED(5, 6), ROUND_ENDED(6, 4);
+
+        private final int code;
+        private final int size;
+
+        EntryType(int code, int size) {
+            this.code = code;
+            this.size = size;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        static EntryType fromCode(int code) {
+            for (EntryType type : values()) {
+                if (type.code == code) {
+                    return type;
+                }
+            }
+            return null;
+        }
+    }
+
+    // One journal record. Fields that do not apply to the type are 0, null or -1.
+    public static class Entry {
+        private final EntryType type;
+        private final int seat;
+        private final int round;
+        private final DiceHand dice;
+        private final Category category;
+        private final int points;
+
+        public Entry(EntryType type, int seat, int round, DiceHand dice, Category category, int points) {
+            this.type = type;
+            this.seat = seat;
+            this.round = round;
+            this.dice = dice;
+            this.category = category;
+            this.points = points;
+        }
+
+        public EntryType getType() {
+            return type;
+        }
+
+        public int getSeat() {
+            return seat;
+        }
+
+        public int getRound() {
+            return round;
+        }
+
+        public DiceHand getDice() {
+            return dice;
+        }
+
+        public Category getCategory() {
+            return category;
+        }
+
+        public int getPoints() {
+            return points;
+        }
+
+        @Override
+        public String toString() {
+            switch (type) {
+                case ROUND_STARTED:
+                case ROUND_ENDED:
+                    return type + " " + round;
+                case ROLLED:
+                case KEPT:
+                    return type + " seat " + seat + " " + dice;
+                case CLAIMED:
+                    return type + " seat " + seat + " " + Category.CATEGORY_NAMES.get(category) + " " + points
+                            + " round " + round;
+                default:
+                    return type + " seat " + seat;
+            }
+        }
+    }
+
+    private final FileChannel channel;
+    private final List<Player> seats;
+    private final MappedByteBuffer header;
+    private MappedByteBuffer region;
+    private long regionStart;
+    private long position;
+    private int currentRound;
+
+    private GameJournal(FileChannel channel, List<Player> seats, long position) throws IOException {
+        this.channel = channel;
+        this.seats = seats;
+        this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        this.position = position;
+        mapRegion();
+    }
+
+    // Opens a journal for appending, creating it if needed. Records of a round
+    // that never ended are discarded, so the next round played continues the
+    // game that recover() rebuilds.
+    public static GameJournal open(Path path, List<Player> seats) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            long end;
+            if (channel.size() == 0) {
+                ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+                buffer.putInt(MAGIC).putShort(VERSION).put((byte) seats.size()).put((byte) 0);
+                buffer.rewind();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer, buffer.position());
+                }
+                end = HEADER_SIZE;
+            } else {
+                Scan scan = scan(channel, seats.size());
+                end = scan.lastRoundEnd;
+                // Clear the index of the discarded round and zero everything after the kept records
+                channel.truncate(end);
+                ByteBuffer empty = ByteBuffer.allocate(Integer.BYTES);
+                for (int round = scan.completedRounds + 1; round <= INDEXED_ROUNDS; round++) {
+                    empty.rewind();
+                    channel.write(empty, INDEX_START + (long) (round - 1) * Integer.BYTES);
+                }
+            }
+            return new GameJournal(channel, seats, end);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Rebuilds the game as it stood at the end of the last round the journal
+    // finished, with the given players in their seats
+    public static Game recover(Path path, List<Player> seats) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Scan scan = scan(channel, seats.size());
+            ScoreCard scoreCard = new ScoreCard();
+            for (Entry entry : scan.entries) {
+                if (entry.getRound() > scan.completedRounds) {
+                    break;
+                }
+                if (entry.getType() == EntryType.CLAIMED) {
+                    scoreCard = scoreCard.addEntry(entry.getCategory(), entry.getPoints(),
+                            seats.get(entry.getSeat()), entry.getRound());
+                }
+            }
+            return new Game(scoreCard, scan.completedRounds + 1, seats);
+        }
+    }
+
+    // Returns the records of one round, seeking straight to it through the
+    // round index when it is indexed
+    public static List<Entry> readRound(Path path, int round) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            checkHeader(buffer, -1);
+            long start = HEADER_SIZE;
+            if (round >= 1 && round <= INDEXED_ROUNDS) {
+                int offset = buffer.getInt(INDEX_START + (round - 1) * Integer.BYTES);
+                if (offset == 0) {
+                    return List.of();
+                }
+                start = offset;
+            }
+
+            List<Entry> result = new ArrayList<>();
+            int entryRound = 0;
+            for (int pos = (int) start; ; ) {
+                Entry entry = readEntry(buffer, pos, entryRound);
+                if (entry == null) {
+                    break;
+                }
+                pos += entry.getType().getSize();
+                entryRound = entry.getRound();
+                if (entryRound == round) {
+                    result.add(entry);
+                } else if (entryRound > round) {
+                    break;
+                }
+            }
+            return result;
+        }
+    }
+
+    // Returns every complete record in the journal
+    public static List<Entry> readAll(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return scan(channel, -1).entries;
+        }
+    }
+
+    // Result of reading a journal from the start
+    private static class Scan {
+        final List<Entry> entries = new ArrayList<>();
+        int completedRounds;
+        long lastRoundEnd = HEADER_SIZE;
+    }
+
+    private static Scan scan(FileChannel channel, int numSeats) throws IOException {
+        ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        checkHeader(buffer, numSeats);
+        Scan scan = new Scan();
+        int round = 0;
+        for (int pos = HEADER_SIZE; ; ) {
+            Entry entry = readEntry(buffer, pos, round);
+            if (entry == null) {
+                break;
+            }
+            scan.entries.add(entry);
+            pos += entry.getType().getSize();
+            round = entry.getRound();
+            if (entry.getType() == EntryType.ROUND_ENDED) {
+                scan.completedRounds = round;
+                scan.lastRoundEnd = pos;
+            }
+        }
+        return scan;
+    }
+
+    private static void checkHeader(ByteBuffer buffer, int numSeats) {
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a game journal");
+        }
+        if (buffer.getShort(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported journal version: " + buffer.getShort(4));
+        }
+        if (numSeats >= 0 && buffer.get(6) != numSeats) {
+            throw new IllegalArgumentException("Journal was written for " + buffer.get(6) + " players");
+        }
+    }
+
+    // Decodes the record at pos, or returns null at the end of the journal or
+    // at a record that is torn or unreadable
+    private static Entry readEntry(ByteBuffer buffer, int pos, int round) {
+        if (pos + 2 > buffer.limit()) {
+            return null;
+        }
+        EntryType type = EntryType.fromCode(buffer.get(pos));
+        if (type == null || pos + type.getSize() > buffer.limit()) {
+            return null;
+        }
+        int seat = buffer.get(pos + 1);
+        switch (type) {
+            case ROUND_STARTED:
+            case ROUND_ENDED:
+                return new Entry(type, NO_SEAT, buffer.getShort(pos + 2), null, null, 0);
+            case ROLLED:
+            case KEPT:
+                return new Entry(type, seat, round, DiceHand.fromPacked(buffer.getInt(pos + 2)), null, 0);
+            case CLAIMED:
+                int ordinal = buffer.get(pos + 2);
+                if (ordinal < 0 || ordinal >= ScoreTable.NUM_CATEGORIES) {
+                    return null;
+                }
+                return new Entry(type, seat, buffer.getShort(pos + 4),
+                        null, Category.CATEGORIES.get(ordinal), buffer.get(pos + 3) & 0xFF);
+            default:
+                return new Entry(type, seat, round, null, null, 0);
+        }
+    }
+
+    // Maps the next region at the current position. The previous region is
+    // flushed first, since force() only reaches the current one.
+    private void mapRegion() throws IOException {
+        if (region != null) {
+            region.force();
+        }
+        regionStart = position;
+        region = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, REGION_SIZE);
+    }
+
+    // Returns the offset in the mapped region for a record at the current position
+    private int reserve() {
+        if (position + MAX_RECORD_SIZE > regionStart + REGION_SIZE) {
+            try {
+                mapRegion();
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to extend the game journal", e);
+            }
+        }
+        return (int) (position - regionStart);
+    }
+
+    private int seatOf(Player player) {
+        int seat = seats.indexOf(player);
+        if (seat < 0) {
+            throw new IllegalArgumentException("Player " + player.getName() + " has no seat in the journal");
+        }
+        return seat;
+    }
+
+    // Writes the record's type byte last, which commits it
+    private void commit(int offset, EntryType type, int seat) {
+        region.put(offset + 1, (byte) seat);
+        region.put(offset, (byte) type.code);
+        position += type.getSize();
+    }
+
+    private void appendRound(EntryType type, int round) {
+        int offset = reserve();
+        region.putShort(offset + 2, (short) round);
+        commit(offset, type, NO_SEAT);
+    }
+
+    private void appendDice(EntryType type, Player player, List<Integer> dice) {
+        int offset = reserve();
+        region.putInt(offset + 2, DiceHand.of(dice).getPacked());
+        commit(offset, type, seatOf(player));
+    }
+
+    @Override
+    public void roundStarted(int round, Map<Player, Integer> scores) {
+        currentRound = round;
+        if (round >= 1 && round <= INDEXED_ROUNDS) {
+            header.putInt(INDEX_START + (round - 1) * Integer.BYTES, (int) position);
+        }
+        appendRound(EntryType.ROUND_STARTED, round);
+    }
+
+    @Override
+    public void diceRolled(Player player, ScoreCard scoreCard, List<Integer> keptDice, List<Integer> diceRolls) {
+        appendDice(EntryType.ROLLED, player, diceRolls);
+    }
+
+    @Override
+    public void diceKept(Player player, List<Integer> diceToKeep) {
+        appendDice(EntryType.KEPT, player, diceToKeep);
+    }
+
+    @Override
+    public void stood(Player player) {
+        commit(reserve(), EntryType.STOOD, seatOf(player));
+    }
+
+    @Override
+    public void categoryScored(Player player, Category category, int points) {
+        int offset = reserve();
+        region.put(offset + 2, (byte) category.ordinal());
+        region.put(offset + 3, (byte) points);
+        region.putShort(offset + 4, (short) currentRound);
+        commit(offset, EntryType.CLAIMED, seatOf(player));
+    }
+
+    @Override
+    public void roundEnded(int round, ScoreCard scoreCard, Map<Player, Integer> scores) {
+        appendRound(EntryType.ROUND_ENDED, round);
+    }
+
+    // Number of bytes written to the journal, header included
+    public long size() {
+        return position;
+    }
+
+    // Flushes written records to the storage device
+    public void force() {
+        header.force();
+        region.force();
+    }
+
+    // Flushes the journal and trims the file to the written records
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.truncate(position);
+        channel.close();
+    }
+
+    // Prints every record of a journal, or of one round when a round number is given
+    public static void main(String[] args) throws IOException {
+        Path path = Path.of(args[0]);
+        if (!Files.isRegularFile(path)) {
+            System.err.println("Error: File does not exist or cannot be opened.");
+            return;
+        }
+        List<Entry> entries = args.length > 1 ? readRound(path, Integer.parseInt(args[1])) : readAll(path);
+        for (Entry entry : entries) {
+            System.out.println(entry);
+        }
+    }
+}
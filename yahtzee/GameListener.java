@@ -0,0 +1,88 @@
+package com.yahtzee;
+
+import java.util.*;
+
+// Receives progress events from the game, round and turn loops.
+// Every method does nothing by default, so automated games run without any
+// formatting or console output; see ConsoleListener for the interactive view.
+public interface GameListener {
+    // Listener that ignores every event
+    GameListener NONE = new GameListener() {
+    };
+
+    // Called when a round is requested after the scorecard is full
+    default void gameOver() {
+    }
+
+    // Called before a round starts with the current player scores
+    default void roundStarted(int round, Map<Player, Integer> scores) {
+    }
+
+    // Called after a round with the updated scorecard and scores
+    default void roundEnded(int round, ScoreCard scoreCard, Map<Player, Integer> scores) {
+    }
+
+    // Called when the scores are requested for display
+    default void scoresShown(Map<Player, Integer> scores) {
+    }
+
+    // Called once the order of play for a round is known
+    default void playerOrderDecided(Queue<Player> playerQueue) {
+    }
+
+    // Called when both players have the same score and a die toss decides the order
+    default void tieBreakerStarted(int score) {
+    }
+
+    // Called with the dice tossed by each player during an automated tie breaker
+    default void tieBreakerRolled(Player player1, int roll1, Player player2, int roll2) {
+    }
+
+    // Called before a player's turn
+    default void turnStarted(Player player, ScoreCard scoreCard) {
+    }
+
+    // Called when a player's dice are entered on the scorecard
+    default void categoryScored(Player player, Category category, int points) {
+    }
+
+    // Called after every player has had a turn in the round
+    default void roundFinished(int round) {
+    }
+
+    // Called before each roll of a turn
+    default void rollStarted(Player player, int rollNumber, ScoreCard scoreCard, List<Integer> keptDice) {
+    }
+
+    // Called after each roll of a turn
+    default void diceRolled(Player player, ScoreCard scoreCard, List<Integer> keptDice, List<Integer> diceRolls) {
+    }
+
+    // Called when the third roll ends the turn
+    default void lastRollTaken(Player player) {
+    }
+
+    // Called with the advice given to a player who asked for help
+    default void helpGiven(Player player, String help) {
+    }
+
+    // Called when a player stands
+    default void stood(Player player) {
+    }
+
+    // Called with the dice a player set aside after a roll
+    default void diceKept(Player player, List<Integer> diceToKeep) {
+    }
+
+    // Called when a player has kept all five dice
+    default void allDiceKept(Player player) {
+    }
+
+    // Called after dice were kept and rollsLeft more rolls follow
+    default void keepFinished(Player player, ScoreCard scoreCard, List<Integer> keptDice, int rollsLeft) {
+    }
+
+    // Called at the end of a turn with the player's final dice
+    default void turnEnded(Player player, List<Integer> finalDice) {
+    }
+}
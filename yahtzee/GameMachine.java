@@ -0,0 +1,147 @@
+package com.yahtzee;
+
+import java.util.*;
+
+// The flow of Game.playGame and Round.playRound as a state machine that never
+// blocks, built on TurnMachine.
+//
+// Each call runs the game forward until a player who is not a Computer has
+// to answer, and returns what is needed next: AWAITING_STAND or
+// AWAITING_KEEP, or GAME_OVER. Between calls the game is just this object, so
+// no thread waits on a player. Dice, including the die toss that breaks a tie
+// for the first turn of a round, come from the given provider, and the
+// listener sees the same events as for a blocking game.
+public class GameMachine {
+    public enum State {
+        AWAITING_STAND, AWAITING_KEEP, GAME_OVER
+    }
+
+    private final List<Player> players;
+    private final DiceProvider dice;
+    private final GameListener listener;
+
+    private ScoreCard scoreCard;
+    private int round;
+    private Queue<Player> playerQueue;
+    private TurnMachine turn;
+    private State state;
+
+    // Continues the given game, reporting to its listener
+    public GameMachine(Game game, DiceProvider dice) {
+        this.players = game.getPlayers();
+        this.dice = dice;
+        this.listener = game.getListener();
+        this.scoreCard = game.getScoreCard();
+        this.round = game.getCurrentRound();
+    }
+
+    // Plays until the first input is needed
+    public State start() {
+        if (state != null) {
+            throw new IllegalStateException("Game already started");
+        }
+        if (scoreCard.isFull()) {
+            state = State.GAME_OVER;
+            return state;
+        }
+        startRound();
+        return advance();
+    }
+
+    // Answers AWAITING_STAND for the player whose turn it is
+    public State stand(boolean stand) {
+        expectTurn();
+        turn.stand(stand);
+        return advance();
+    }
+
+    // Answers AWAITING_KEEP for the player whose turn it is. Throws
+    // IllegalArgumentException if the dice were not all rolled.
+    public State keep(List<Integer> diceToKeep) {
+        expectTurn();
+        turn.keep(diceToKeep);
+        return advance();
+    }
+
+    private void expectTurn() {
+        if (state == null || state == State.GAME_OVER) {
+            throw new IllegalStateException("Game is " + (state == null ? "not started" : "over"));
+        }
+    }
+
+    private void startRound() {
+        Game game = getGame();
+        listener.roundStarted(round, game.getPlayerScores());
+        playerQueue = Round.getPlayerQueue(game.getPlayerScores(), dice, listener);
+        listener.playerOrderDecided(playerQueue);
+        turn = null;
+    }
+
+    // Runs turns, rounds and claims until a player has to answer or the game ends
+    private State advance() {
+        while (true) {
+            if (turn != null && turn.getState() != TurnMachine.State.SCORED) {
+                state = turn.getState() == TurnMachine.State.AWAITING_STAND ? State.AWAITING_STAND
+                        : State.AWAITING_KEEP;
+                return state;
+            }
+            if (turn != null) {
+                claim(turn.getPlayer(), DiceHand.of(turn.getFinalDice()));
+                turn = null;
+            }
+            if (playerQueue.isEmpty() || scoreCard.isFull()) {
+                listener.roundFinished(round);
+                round++;
+                listener.roundEnded(round - 1, scoreCard, scoreCard.getPlayerScores(players));
+                Metrics.ROUNDS_FINISHED.increment();
+                if (scoreCard.isFull()) {
+                    Metrics.GAMES_FINISHED.increment();
+                    state = State.GAME_OVER;
+                    return state;
+                }
+                startRound();
+                continue;
+            }
+            Player player = playerQueue.poll();
+            listener.turnStarted(player, scoreCard);
+            turn = new TurnMachine(player, scoreCard, dice, listener);
+            turn.start();
+        }
+    }
+
+    private void claim(Player player, DiceHand hand) {
+        Optional<Category> scoredCategory = scoreCard.getMaxScoringCategory(hand);
+        if (scoredCategory.isPresent()) {
+            listener.categoryScored(player, scoredCategory.get(), ScoreCard.getScore(hand, scoredCategory.get()));
+        }
+        scoreCard = scoreCard.addEntry(round, player, hand);
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    // The turn being played, or null once the game is over
+    public TurnMachine getTurn() {
+        return turn;
+    }
+
+    // Advice for the player whose turn it is
+    public String getHelp() {
+        expectTurn();
+        return turn.getHelp();
+    }
+
+    // The game as of the last claim, which can be saved or played on with Game.playGame
+    public Game getGame() {
+        return new Game(scoreCard, round, players, listener);
+    }
+
+    public ScoreCard getScoreCard() {
+        return scoreCard;
+    }
+
+    public int getRound() {
+        return round;
+    }
+}
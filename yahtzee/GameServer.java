@@ -0,0 +1,350 @@
+package com.yahtzee;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Hosts human-vs-computer games for clients connecting over TCP on localhost.
+//
+// Every connection gets its own session thread, which plays one Game with its
+// GameTerminal bound to the socket, so every prompt from ioFunctions and all
+// ConsoleListener output go to that client. Session threads are virtual
+// threads on runtimes that have them and small-stack daemon threads
+// otherwise. An idle session is a thread blocked reading its socket, so its
+// cost is one thread, two small buffers and its Game.
+//
+// The game of every session is published after each round as one immutable
+// snapshot, so getSessions() can be read from any thread. If the server
+// has a SessionLog, every claim and round end of every session goes into it.
+//
+// If the server has a SessionStore, a client that disconnects mid-game leaves
+// its game parked there as of its last finished round, and can carry it on by
+// entering the session id when it next connects. Sessions the log recovers at
+// startup are parked the same way. Without a store, a session whose client
+// goes away is closed in the log, since nothing can resume it.
+//
+// The store only holds the games of clients that went away. A connected
+// client who stops answering keeps its session thread and Game in memory for
+// as long as it stays connected, since the thread is blocked reading the
+// socket; moving those games to the store as well would take a server that
+// does not block on its clients, as GameEventLoop does not.
+public class GameServer implements AutoCloseable {
+    public static final int DEFAULT_PORT = 7070;
+
+    // Stack size requested for platform session threads
+    private static final long SESSION_STACK_SIZE = 256 * 1024;
+
+    // Parked games main keeps in memory before moving them to disk
+    private static final int MAX_PARKED_IN_MEMORY = 1024;
+
+    // A hosted game, as seen from outside its session thread
+    public static class Session {
+        private final long id;
+        // Scorecard and round of the last finished round, replaced together
+        private volatile Game game;
+
+        Session(long id) {
+            this(id, new Game(new ScoreCard(), 1, List.of(new Human(), new Computer())));
+        }
+
+        // A session carrying on from a game between rounds
+        Session(long id, Game game) {
+            this.id = id;
+            this.game = game.withListener(GameListener.NONE);
+        }
+
+        // Called by the session thread when a round ends
+        void publish(ScoreCard scoreCard, int round) {
+            game = new Game(scoreCard, round, game.getPlayers());
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public List<Player> getPlayers() {
+            return game.getPlayers();
+        }
+
+        // The scorecard as of the last finished round
+        public ScoreCard getScoreCard() {
+            return game.getScoreCard();
+        }
+
+        // The round being played
+        public int getRound() {
+            return game.getCurrentRound();
+        }
+
+        // The game as of the last finished round, without a listener. Its
+        // scorecard and round always belong together, which is not true of
+        // separate calls to getScoreCard() and getRound().
+        public Game getGame() {
+            return game;
+        }
+    }
+
+    // Session terminal on a client socket. Output is buffered until the
+    // session waits for input.
+    private class SocketTerminal implements GameTerminal {
+        private final BufferedReader in;
+        private final Writer out;
+        private long inputNanos;
+
+        SocketTerminal(Socket socket) throws IOException {
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8), 256);
+            out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), 1024);
+        }
+
+        @Override
+        public String readLine() {
+            try {
+                out.flush();
+                if (inputNanos != 0) {
+                    responseTimes.record(System.nanoTime() - inputNanos);
+                }
+                String line = in.readLine();
+                if (line == null) {
+                    throw new NoSuchElementException("Client disconnected");
+                }
+                inputNanos = System.nanoTime();
+                return line;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void print(String text) {
+            try {
+                out.write(text);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void flush() throws IOException {
+            out.flush();
+        }
+    }
+
+    private final ServerSocket serverSocket;
+    private final SessionLog log;
+    private final SessionStore parked;
+    private final ThreadFactory sessionThreads = sessionThreadFactory();
+    private final Map<Long, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextSessionId;
+    private final AtomicLong sessionsFinished = new AtomicLong();
+    // Time the server takes to answer an input: from reading a line to flushing the next prompt
+    private final LatencyHistogram responseTimes = new LatencyHistogram();
+
+    private GameServer(ServerSocket serverSocket, SessionLog log, SessionStore parked) {
+        this.serverSocket = serverSocket;
+        this.log = log;
+        this.parked = parked;
+        this.nextSessionId = new AtomicLong(log == null ? 1 : Math.max(1, log.getMaxSessionId() + 1));
+    }
+
+    // Starts accepting connections on the loopback interface. Port 0 picks a free port.
+    public static GameServer start(int port) throws IOException {
+        return start(port, null);
+    }
+
+    // Same as above, logging every session to the given log unless it is null.
+    // Session ids carry on from the highest one in the log.
+    public static GameServer start(int port, SessionLog log) throws IOException {
+        return start(port, log, null);
+    }
+
+    // Same as above, parking the games of clients that disconnect mid-game in
+    // the given store unless it is null
+    public static GameServer start(int port, SessionLog log, SessionStore parked) throws IOException {
+        ServerSocket serverSocket = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress());
+        GameServer server = new GameServer(serverSocket, log, parked);
+        Thread acceptor = new Thread(server::acceptLoop, "yahtzee-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return server;
+    }
+
+    // Virtual threads where the runtime has them (Java 21+), small-stack
+    // daemon platform threads otherwise
+    static ThreadFactory sessionThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return runnable -> {
+                Thread thread = new Thread(null, runnable, "yahtzee-session", SESSION_STACK_SIZE);
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                sessionThreads.newThread(() -> runSession(socket)).start();
+            } catch (SocketException e) {
+                // The server socket was closed
+            } catch (IOException e) {
+                System.err.println("Error: Unable to accept a connection. " + e.getMessage());
+            }
+        }
+    }
+
+    // Plays one game with the client, then closes the connection
+    private void runSession(Socket socket) {
+        Session session = null;
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            SocketTerminal terminal = new SocketTerminal(socket);
+            GameTerminal.setCurrent(terminal);
+
+            terminal.println("Welcome to the Yahtzee Game:\n");
+            Session resumed = parked == null ? null : takeParked(terminal);
+            session = resumed == null ? new Session(nextSessionId.getAndIncrement()) : resumed;
+            sessions.put(session.getId(), session);
+            if (parked != null) {
+                terminal.println("Session " + session.getId() + ". Enter it when you reconnect to carry on.\n");
+            }
+
+            Session published = session;
+            GameListener publisher = new GameListener() {
+                @Override
+                public void roundEnded(int round, ScoreCard scoreCard, Map<Player, Integer> scores) {
+                    published.publish(scoreCard, round + 1);
+                }
+            };
+            List<Player> players = session.getPlayers();
+            GameListener listener = log == null ? new CompositeListener(new ConsoleListener(), publisher)
+                    : new CompositeListener(new ConsoleListener(), publisher, resumed == null
+                            ? log.listener(session.getId(), players) : log.resumedListener(session.getId(), players));
+            Game game = session.getGame().withListener(listener);
+
+            game = game.playGame();
+            if (log != null) {
+                log.closeSession(session.getId());
+            }
+            game.showScores();
+            if (game.isDraw()) {
+                terminal.println("It's a draw!");
+            } else {
+                terminal.println("The winner is " + game.getScoreCard().getWinner().get().getName() + "!");
+            }
+            terminal.flush();
+        } catch (NoSuchElementException | IOException | UncheckedIOException e) {
+            // The client went away; its game waits in the store if there is one
+            if (session != null && !session.getScoreCard().isFull() && !park(session) && log != null) {
+                log.closeSession(session.getId());
+            }
+        } finally {
+            GameTerminal.setCurrent(GameTerminal.SYSTEM);
+            if (session != null) {
+                sessions.remove(session.getId());
+            }
+            sessionsFinished.incrementAndGet();
+        }
+    }
+
+    // Asks the client for a parked session to carry on and takes it out of the
+    // store, or returns null if the client wants a new game
+    private Session takeParked(SocketTerminal terminal) throws IOException {
+        while (true) {
+            terminal.print("Enter a session to carry on, or press enter for a new game: ");
+            String answer = terminal.readLine().trim();
+            if (answer.isEmpty()) {
+                return null;
+            }
+            try {
+                long id = Long.parseLong(answer);
+                return new Session(id, parked.take(id));
+            } catch (IllegalArgumentException e) {
+                terminal.println("There is no parked session " + answer + ".");
+            }
+        }
+    }
+
+    // Keeps the game of a client that went away, as of its last finished
+    // round. Returns false if there is no store or the game could not be kept.
+    private boolean park(Session session) {
+        if (parked == null) {
+            return false;
+        }
+        try {
+            parked.put(session.getId(), session.getGame());
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error: Unable to park session " + session.getId() + ". " + e.getMessage());
+            return false;
+        }
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    // Sessions currently connected
+    public Collection<Session> getSessions() {
+        return Collections.unmodifiableCollection(sessions.values());
+    }
+
+    public int getActiveSessions() {
+        return sessions.size();
+    }
+
+    public long getSessionsFinished() {
+        return sessionsFinished.get();
+    }
+
+    public LatencyHistogram getResponseTimes() {
+        return responseTimes;
+    }
+
+    // Stops accepting connections. Running sessions end when their client disconnects.
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    // Usage: GameServer [port] [log]
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Metrics.serveIfConfigured();
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        // Parked games are only kept for this run; the log is what outlives it
+        SessionStore parked = new SessionStore(Files.createTempDirectory("yahtzee-parked"), MAX_PARKED_IN_MEMORY,
+                id -> GameListener.NONE);
+        parked.evictIdleEvery(Duration.ofMinutes(1), Duration.ofMinutes(5));
+        SessionLog log = null;
+        if (args.length > 1) {
+            Path path = Path.of(args[1]);
+            if (Files.exists(path)) {
+                Map<Long, Game> unfinished = SessionLog.recover(path, () -> List.of(new Human(), new Computer()));
+                for (Map.Entry<Long, Game> session : unfinished.entrySet()) {
+                    parked.put(session.getKey(), session.getValue());
+                }
+                System.out.println(unfinished.size() + " unfinished sessions in " + path + " parked to carry on");
+            }
+            log = SessionLog.open(path, SessionLog.FsyncPolicy.EVERY_BATCH);
+        }
+        GameServer server = start(port, log, parked);
+        System.out.println("Serving Yahtzee on localhost:" + server.getPort());
+        while (true) {
+            Thread.sleep(60_000);
+            System.out.println(server.getActiveSessions() + " sessions, " + parked.getResidentSessions() + " + "
+                    + parked.getEvictedSessions() + " parked, " + server.getResponseTimes());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.yahtzee;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.util.*;
+
+// Where the prompts in ioFunctions and the console output of a game are read
+// and written. Each thread has its own terminal, so a server can run many
+// sessions side by side, each talking to its own client; by default a thread
+// uses standard input and output.
+public interface GameTerminal {
+    // Reads the next line of input. Throws NoSuchElementException once the
+    // input is closed, like Scanner.nextLine.
+    String readLine();
+
+    // Writes text without a line break
+    void print(String text);
+
+    default void println(String text) {
+        print(text + "\n");
+    }
+
+    default void println() {
+        print("\n");
+    }
+
+    // Standard input and output. Input is read through one shared buffered
+    // reader, so lines piped in ahead of a prompt are kept for the next one.
+    GameTerminal SYSTEM = new GameTerminal() {
+        @Override
+        public String readLine() {
+            try {
+                String line = Terminals.systemIn().readLine();
+                if (line == null) {
+                    throw new NoSuchElementException("No line found");
+                }
+                return line;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void print(String text) {
+            System.out.print(text);
+        }
+    };
+
+    // Returns the terminal of the calling thread
+    static GameTerminal current() {
+        return Terminals.CURRENT.get();
+    }
+
+    // Makes the calling thread read and write through the given terminal
+    static void setCurrent(GameTerminal terminal) {
+        Terminals.CURRENT.set(terminal);
+    }
+}
+
+// Holder for the per-thread terminal and the shared standard input reader,
+// which an interface cannot keep privately
+final class Terminals {
+    static final ThreadLocal<GameTerminal> CURRENT = ThreadLocal.withInitial(() -> GameTerminal.SYSTEM);
+
+    private static BufferedReader systemIn;
+
+    // Created on first use, so programs that never read standard input leave it alone
+    static synchronized BufferedReader systemIn() {
+        if (systemIn == null) {
+            systemIn = new BufferedReader(new InputStreamReader(System.in));
+        }
+        return systemIn;
+    }
+
+    private Terminals() {
+    }
+}
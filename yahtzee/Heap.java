@@ -0,0 +1,17 @@
+package com.yahtzee;
+
+// Heap measurements for the memory reports of the load drivers
+final class Heap {
+    private Heap() {
+    }
+
+    // Bytes of heap in use after a few collections, so that mostly live objects are counted
+    static long usedAfterGc() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
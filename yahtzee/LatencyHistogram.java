@@ -0,0 +1,77 @@
+package com.yahtzee;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Lock-free, log-bucketed histogram of durations. Samples are counted in
+// buckets of nanoseconds, four per power of two, so a percentile is exact to
+// within a quarter of its power of two. Recording is two adds and one atomic
+// increment, with no allocation, and any thread can record or read at once.
+public class LatencyHistogram {
+    private static final int SUB_BUCKETS = 4;
+    private final AtomicLongArray buckets = new AtomicLongArray(64 * SUB_BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    private static int bucketOf(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) Math.max(nanos, 0);
+        }
+        int log = 63 - Long.numberOfLeadingZeros(nanos);
+        int fraction = (int) (nanos >>> (log - 2)) & (SUB_BUCKETS - 1);
+        return log * SUB_BUCKETS + fraction;
+    }
+
+    // Upper bound of a bucket in nanoseconds
+    private static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int log = bucket / SUB_BUCKETS;
+        long fraction = bucket % SUB_BUCKETS;
+        return ((SUB_BUCKETS + fraction + 1) << (log - 2)) - 1;
+    }
+
+    public void record(long nanos) {
+        buckets.incrementAndGet(bucketOf(nanos));
+        count.increment();
+        totalNanos.add(nanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    public double getMeanMicros() {
+        long samples = getCount();
+        return samples == 0 ? 0 : getTotalNanos() / 1000.0 / samples;
+    }
+
+    // Returns the duration in microseconds below which the given fraction of samples fall
+    public long getPercentile(double fraction) {
+        return getPercentileNanos(fraction) / 1000;
+    }
+
+    // Same as above, in nanoseconds
+    public long getPercentileNanos(double fraction) {
+        long target = (long) Math.ceil(fraction * getCount());
+        long seen = 0;
+        for (int bucket = 0; bucket < buckets.length(); bucket++) {
+            seen += buckets.get(bucket);
+            if (seen >= target && seen > 0) {
+                return upperBound(bucket);
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d samples, p50 %d us, p99 %d us, p99.9 %d us", getCount(), getPercentile(0.5),
+                getPercentile(0.99), getPercentile(0.999));
+    }
+}
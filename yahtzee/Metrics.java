@@ -0,0 +1,260 @@
+package com.yahtzee;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+// Process-wide counters and latency timers for the game.
+//
+// Metrics are off unless the JVM is started with -Dyahtzee.metrics=true.
+// ENABLED is a constant, so when it is false the JIT removes the checks and
+// an instrumented call costs nothing. When it is true, a timed call costs two
+// System.nanoTime calls and a LatencyHistogram record, and a counter is a
+// striped LongAdder increment.
+//
+// Every metric is registered as a JMX MBean under com.yahtzee:type=Metrics,
+// and writePrometheus dumps them all in the Prometheus text format, which
+// serve() publishes over HTTP on a local port for scrapers.
+public final class Metrics {
+    public static final boolean ENABLED = Boolean.getBoolean("yahtzee.metrics");
+
+    // Setting this property to a port makes serveIfConfigured() start the text endpoint there
+    public static final String PORT_PROPERTY = "yahtzee.metrics.port";
+
+    // What JMX shows of a counter
+    public interface CounterView {
+        long getValue();
+
+        String getHelp();
+    }
+
+    // What JMX shows of a timer, in microseconds
+    public interface TimerView {
+        long getCount();
+
+        double getMeanMicros();
+
+        double getP50Micros();
+
+        double getP99Micros();
+
+        double getP999Micros();
+
+        String getHelp();
+    }
+
+    public static final class Counter implements CounterView {
+        private final String help;
+        private final LongAdder value = new LongAdder();
+
+        private Counter(String help) {
+            this.help = help;
+        }
+
+        public void increment() {
+            if (ENABLED) {
+                value.increment();
+            }
+        }
+
+        @Override
+        public long getValue() {
+            return value.sum();
+        }
+
+        @Override
+        public String getHelp() {
+            return help;
+        }
+    }
+
+    // Times a call site:
+    //     long start = Metrics.TIMER.start();
+    //     ...
+    //     Metrics.TIMER.stop(start);
+    public static final class Timer implements TimerView {
+        private final String help;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        private Timer(String help) {
+            this.help = help;
+        }
+
+        // Returns the start time to pass to stop(), or 0 when metrics are off
+        public long start() {
+            return ENABLED ? System.nanoTime() : 0;
+        }
+
+        public void stop(long start) {
+            if (ENABLED) {
+                histogram.record(System.nanoTime() - start);
+            }
+        }
+
+        public LatencyHistogram getHistogram() {
+            return histogram;
+        }
+
+        @Override
+        public long getCount() {
+            return histogram.getCount();
+        }
+
+        @Override
+        public double getMeanMicros() {
+            return histogram.getMeanMicros();
+        }
+
+        @Override
+        public double getP50Micros() {
+            return histogram.getPercentileNanos(0.5) / 1000.0;
+        }
+
+        @Override
+        public double getP99Micros() {
+            return histogram.getPercentileNanos(0.99) / 1000.0;
+        }
+
+        @Override
+        public double getP999Micros() {
+            return histogram.getPercentileNanos(0.999) / 1000.0;
+        }
+
+        @Override
+        public String getHelp() {
+            return help;
+        }
+    }
+
+    // Registered metrics by name, in the order they were registered
+    private static final Map<String, Object> METRICS = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    public static final Timer DECISION = timer("yahtzee_decision_seconds",
+            "Time Computer.getDiceToKeep takes to choose dice, cached decisions included");
+    public static final Timer HELP = timer("yahtzee_help_seconds", "Time Computer.getHelp takes to build advice");
+    public static final Timer TURN = timer("yahtzee_turn_seconds",
+            "Time a turn takes, including waiting for a human");
+    public static final Timer ROUND = timer("yahtzee_round_seconds",
+            "Time Round.playRound takes, including waiting for a human");
+    public static final Timer SAVE = timer("yahtzee_save_seconds", "Time a save file takes to write");
+    public static final Counter DECISION_CACHE_HITS = counter("yahtzee_decision_cache_hits_total",
+            "Dice decisions answered from the decision cache");
+    public static final Counter ROUNDS_FINISHED = counter("yahtzee_rounds_finished_total", "Rounds played");
+    public static final Counter GAMES_FINISHED = counter("yahtzee_games_finished_total", "Games played to the end");
+
+    private Metrics() {
+    }
+
+    // Registers a timer. Names follow Prometheus conventions; timers end in _seconds.
+    public static Timer timer(String name, String help) {
+        return register(name, new Timer(help), TimerView.class);
+    }
+
+    // Registers a counter. Counter names end in _total.
+    public static Counter counter(String name, String help) {
+        return register(name, new Counter(help), CounterView.class);
+    }
+
+    private static <T, V> T register(String name, T metric, Class<V> view) {
+        if (METRICS.putIfAbsent(name, metric) != null) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered");
+        }
+        if (ENABLED) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new StandardMBean(view.cast(metric), view),
+                        new ObjectName("com.yahtzee:type=Metrics,name=" + name));
+            } catch (JMException e) {
+                System.err.println("Error: Unable to register metric " + name + " with JMX. " + e.getMessage());
+            }
+        }
+        return metric;
+    }
+
+    // Writes every metric in the Prometheus text exposition format. Timers are
+    // summaries with 0.5, 0.99 and 0.999 quantiles in seconds.
+    public static void writePrometheus(StringBuilder out) {
+        List<Map.Entry<String, Object>> metrics;
+        synchronized (METRICS) {
+            metrics = new ArrayList<>(METRICS.entrySet());
+        }
+        for (Map.Entry<String, Object> entry : metrics) {
+            String name = entry.getKey();
+            if (entry.getValue() instanceof Counter) {
+                Counter counter = (Counter) entry.getValue();
+                out.append("# HELP ").append(name).append(' ').append(counter.getHelp()).append('\n');
+                out.append("# TYPE ").append(name).append(" counter\n");
+                out.append(name).append(' ').append(counter.getValue()).append('\n');
+            } else {
+                Timer timer = (Timer) entry.getValue();
+                LatencyHistogram histogram = timer.getHistogram();
+                out.append("# HELP ").append(name).append(' ').append(timer.getHelp()).append('\n');
+                out.append("# TYPE ").append(name).append(" summary\n");
+                for (double quantile : new double[] { 0.5, 0.99, 0.999 }) {
+                    out.append(name).append("{quantile=\"").append(quantile).append("\"} ")
+                            .append(histogram.getPercentileNanos(quantile) / 1e9).append('\n');
+                }
+                out.append(name).append("_sum ").append(histogram.getTotalNanos() / 1e9).append('\n');
+                out.append(name).append("_count ").append(histogram.getCount()).append('\n');
+            }
+        }
+    }
+
+    // Serves writePrometheus over HTTP on the loopback interface from a
+    // daemon thread, answering every request with the dump. Port 0 picks a
+    // free port. Closing the returned socket stops it.
+    public static ServerSocket serve(int port) throws IOException {
+        ServerSocket serverSocket = new ServerSocket(port, 16, InetAddress.getLoopbackAddress());
+        Thread thread = new Thread(() -> {
+            while (!serverSocket.isClosed()) {
+                try (Socket socket = serverSocket.accept()) {
+                    BufferedReader in = new BufferedReader(
+                            new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                    // Skip the request line and headers
+                    String line = in.readLine();
+                    while (line != null && !line.isEmpty()) {
+                        line = in.readLine();
+                    }
+                    StringBuilder text = new StringBuilder(4096);
+                    writePrometheus(text);
+                    byte[] body = text.toString().getBytes(StandardCharsets.UTF_8);
+                    OutputStream out = socket.getOutputStream();
+                    out.write(("HTTP/1.1 200 OK\r\nContent-Type: text/plain; version=0.0.4; charset=utf-8\r\n"
+                            + "Content-Length: " + body.length + "\r\nConnection: close\r\n\r\n")
+                                    .getBytes(StandardCharsets.US_ASCII));
+                    out.write(body);
+                    out.flush();
+                } catch (IOException e) {
+                    // The scraper went away or the server socket was closed
+                }
+            }
+        }, "yahtzee-metrics");
+        thread.setDaemon(true);
+        thread.start();
+        return serverSocket;
+    }
+
+    // Starts the text endpoint if metrics are on and PORT_PROPERTY is set
+    public static void serveIfConfigured() {
+        String port = System.getProperty(PORT_PROPERTY);
+        if (!ENABLED || port == null) {
+            return;
+        }
+        try {
+            ServerSocket server = serve(Integer.parseInt(port));
+            System.err.println("Metrics on http://localhost:" + server.getLocalPort() + "/metrics");
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error: Unable to serve metrics. " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.yahtzee;
+
+import java.util.*;
+
+// Computer player that keeps dice according to the expected-score-optimal
+// policy from StrategySolver. Standing and the default roll count come
+// from Computer.
+class OptimalComputer extends PolicyComputer {
+    private final StrategySolver solver;
+
+    // Constructor: Uses the shared solver, solving it on first use
+    public OptimalComputer() {
+        this(StrategySolver.getDefault());
+    }
+
+    public OptimalComputer(StrategySolver solver) {
+        super();
+        this.solver = solver;
+    }
+
+    // Constructor for automated games, where dice come from the given provider
+    public OptimalComputer(String name, DiceProvider diceProvider, StrategySolver solver) {
+        super(name, diceProvider);
+        this.solver = solver;
+    }
+
+    @Override
+    protected List<Integer> chooseKeep(ScoreCard scoreCard, List<Integer> diceRolls, List<Integer> keptDice,
+            int rollsLeft) {
+        return solver.getBestKeep(scoreCard.getOpenCategoryMask(), keptDice, diceRolls, rollsLeft);
+    }
+}
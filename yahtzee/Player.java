@@ -4,19 +4,26 @@ import java.util.*;
 
 class Player {
     private final String name;
+    private final DiceProvider diceProvider;
 
     // Constructors
     public Player() {
-        this.name = "";
+        this("");
     }
 
     public Player(String name) {
+        this(name, DiceProvider.PROMPT);
+    }
+
+    public Player(String name, DiceProvider diceProvider) {
         this.name = name;
+        this.diceProvider = diceProvider;
     }
 
     // Copy constructor
     public Player(Player other) {
         this.name = other.name;
+        this.diceProvider = other.diceProvider;
     }
 
     // // Copy assignment operator
@@ -49,7 +56,7 @@ class Player {
     }
 
     public List<Integer> getDiceRoll(int numDice) {
-        return ioFunctions.getDiceRoll(numDice);
+        return diceProvider.roll(numDice);
     }
 
     public List<Integer> getDiceToKeep(ScoreCard scoreCard, List<Integer> diceRolls, List<Integer> keptDice) {
@@ -58,10 +65,22 @@ class Player {
         return ioFunctions.getDiceToKeep(diceRolls);
     }
 
+    // Same as above, for players whose choice depends on how many rolls are left in the turn
+    public List<Integer> getDiceToKeep(ScoreCard scoreCard, List<Integer> diceRolls, List<Integer> keptDice,
+            int rollsLeft) {
+        return getDiceToKeep(scoreCard, diceRolls, keptDice);
+    }
+
     public Optional<Map<Category, Reason>> getCategoryPursuits(ScoreCard scoreCard, List<Integer> keptDice) {
         return Optional.empty();
     }
 
+    // Same as above, for players that weigh pursuits by how many rolls are left in the turn
+    public Optional<Map<Category, Reason>> getCategoryPursuits(ScoreCard scoreCard, List<Integer> keptDice,
+            int rollsLeft) {
+        return getCategoryPursuits(scoreCard, keptDice);
+    }
+
     public Optional<Map.Entry<Category, List<Integer>>> getTarget(ScoreCard scoreCard, List<Integer> keptDice) {
         return Optional.empty();
     }
@@ -72,12 +91,17 @@ class Player {
         return ioFunctions.wantsToStand();
     }
 
+    public boolean wantsToStand(ScoreCard scoreCard, List<Integer> keptDice, List<Integer> diceRolls,
+            int rollsLeft) {
+        return wantsToStand(scoreCard, keptDice, diceRolls);
+    }
+
     public boolean wantsHelp() {
         return ioFunctions.wantsHelp();
     }
 
     public void inform(String message) {
-        System.out.println(name + ": " + message);
+        GameTerminal.current().println(name + ": " + message);
     }
 
     @Override
@@ -0,0 +1,29 @@
+package com.yahtzee;
+
+import java.util.*;
+
+// Computer player whose every decision comes from one keep policy that
+// depends on the number of rolls left, implemented by chooseKeep. Its
+// decisions bypass the decision cache, whose key leaves the rolls left out.
+// Timing, flight events, standing, rolling, help and pursuit reporting are
+// inherited from Computer.
+abstract class PolicyComputer extends Computer {
+    protected PolicyComputer() {
+        super();
+    }
+
+    // Constructor for automated games, where dice come from the given provider
+    protected PolicyComputer(String name, DiceProvider diceProvider) {
+        super(name, diceProvider);
+    }
+
+    // The keep policy
+    @Override
+    protected abstract List<Integer> chooseKeep(ScoreCard scoreCard, List<Integer> diceRolls,
+            List<Integer> keptDice, int rollsLeft);
+
+    @Override
+    protected final boolean cachesDecisions() {
+        return false;
+    }
+}
@@ -0,0 +1,102 @@
+package com.yahtzee;
+
+import java.util.*;
+
+// Scores every category a player could pursue from a set of kept dice.
+//
+// Each pursuit reports the exact probability that the final hand scores in the
+// category and the expected score it would get there, weighting each reroll
+// outcome by its multinomial probability from RerollTable. All categories are
+// accumulated in a single pass over the outcomes of the kept dice. With two
+// rolls left the player may keep more dice in between; each category is then
+// assumed to be chased with the keep that maximises its own expected score.
+public final class PursuitAnalysis {
+
+    // Per category ordinal and kept index: the expected score and the
+    // probability of scoring in the category with one roll left. They do not
+    // depend on the scorecard, so they are built once.
+    private static final double[][] LAST_SCORE = new double[ScoreTable.NUM_CATEGORIES][RerollTable.NUM_KEPT];
+    private static final double[][] LAST_HIT = new double[ScoreTable.NUM_CATEGORIES][RerollTable.NUM_KEPT];
+
+    static {
+        double[] handScores = new double[ScoreTable.NUM_HANDS];
+        double[] handHits = new double[ScoreTable.NUM_HANDS];
+        for (Category category : Category.values()) {
+            for (int hand = 0; hand < ScoreTable.NUM_HANDS; hand++) {
+                handScores[hand] = ScoreTable.getScore(hand, category);
+                handHits[hand] = ScoreTable.isApplicable(hand, category) ? 1 : 0;
+            }
+            for (int k = 0; k < RerollTable.NUM_KEPT; k++) {
+                LAST_SCORE[category.ordinal()][k] = RerollTable.expectedValue(k, handScores);
+                LAST_HIT[category.ordinal()][k] = RerollTable.expectedValue(k, handHits);
+            }
+        }
+    }
+
+    private PursuitAnalysis() {
+    }
+
+    // Returns a pursuit for each given category, highest expected score first
+    public static Map<Category, Reason> analyze(List<Category> categories, List<Integer> keptDice, int rollsLeft) {
+        DiceHand kept = DiceHand.of(keptDice);
+        int keptIndex = RerollTable.keptIndex(kept);
+        int numCategories = categories.size();
+
+        double[] hit = new double[numCategories];
+        double[] expected = new double[numCategories];
+        int[] maxScore = new int[numCategories];
+        int[] minScore = new int[numCategories];
+        int[] maxOutcome = new int[numCategories];
+        int[] minOutcome = new int[numCategories];
+        Arrays.fill(maxScore, Integer.MIN_VALUE);
+        Arrays.fill(minScore, Integer.MAX_VALUE);
+
+        for (int o = RerollTable.getStart(keptIndex); o < RerollTable.getEnd(keptIndex); o++) {
+            int hand = RerollTable.getHand(o);
+            double probability = RerollTable.getProbability(o);
+            for (int i = 0; i < numCategories; i++) {
+                Category category = categories.get(i);
+                int score = ScoreTable.getScore(hand, category);
+                if (score >= maxScore[i]) {
+                    maxScore[i] = score;
+                    maxOutcome[i] = o;
+                }
+                if (score < minScore[i]) {
+                    minScore[i] = score;
+                    minOutcome[i] = o;
+                }
+
+                if (rollsLeft < 2) {
+                    expected[i] += probability * score;
+                    if (ScoreTable.isApplicable(hand, category)) {
+                        hit[i] += probability;
+                    }
+                } else {
+                    double[] lastScore = LAST_SCORE[category.ordinal()];
+                    int best = RerollTable.bestOption(o, lastScore);
+                    expected[i] += probability * lastScore[best];
+                    hit[i] += probability * LAST_HIT[category.ordinal()][best];
+                }
+            }
+        }
+
+        List<Reason> reasons = new ArrayList<>(numCategories);
+        for (int i = 0; i < numCategories; i++) {
+            reasons.add(new Reason(keptDice, categories.get(i), maxScore[i], rolledDice(maxOutcome[i], kept),
+                    minScore[i], rolledDice(minOutcome[i], kept), hit[i], expected[i]));
+        }
+        reasons.sort(Comparator.comparingDouble(Reason::getExpectedScore).reversed());
+
+        Map<Category, Reason> pursuits = new LinkedHashMap<>();
+        for (Reason reason : reasons) {
+            pursuits.put(reason.getPursuedCategory(), reason);
+        }
+        return pursuits;
+    }
+
+    // The dice that were rolled to reach an outcome's final hand
+    private static List<Integer> rolledDice(int outcome, DiceHand kept) {
+        DiceHand hand = ScoreTable.getHand(RerollTable.getHand(outcome));
+        return DiceHand.fromPacked(hand.getPacked() - kept.getPacked()).toList();
+    }
+}
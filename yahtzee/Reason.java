@@ -21,14 +21,22 @@ public class Reason {
     // The dice values the player would need to roll in order to achieve the minimum score in this category
     private List<Integer> rollToGetMin;
 
+    // The probability that the final hand scores in this category
+    private double probability;
+
+    // The expected score in this category over the remaining rolls
+    private double expectedScore;
+
     // Constructor
-    public Reason(List<Integer> currentDice, Category pursuedCategory, int maxScore, List<Integer> rollToGetMax, int minScore, List<Integer> rollToGetMin) {
+    public Reason(List<Integer> currentDice, Category pursuedCategory, int maxScore, List<Integer> rollToGetMax, int minScore, List<Integer> rollToGetMin, double probability, double expectedScore) {
         this.currentDice = currentDice;
         this.pursuedCategory = pursuedCategory;
         this.maxScore = maxScore;
         this.rollToGetMax = rollToGetMax;
         this.minScore = minScore;
         this.rollToGetMin = rollToGetMin;
+        this.probability = probability;
+        this.expectedScore = expectedScore;
     }
 
     // Getters
@@ -55,4 +63,12 @@ public class Reason {
     public List<Integer> getRollToGetMin() {
         return rollToGetMin;
     }
+
+    public double getProbability() {
+        return probability;
+    }
+
+    public double getExpectedScore() {
+        return expectedScore;
+    }
 }
\ No newline at end of file
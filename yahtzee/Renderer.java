@@ -0,0 +1,67 @@
+package com.yahtzee;
+
+import java.util.*;
+
+// Formats game output for ConsoleListener. Text is gathered until flush(),
+// which ConsoleListener calls once at the end of every event, so a step of
+// the game reaches its terminal in a single write.
+public interface Renderer {
+    // Renderer that drops all output, for automated runs
+    Renderer QUIET = new Renderer() {
+        @Override
+        public boolean isQuiet() {
+            return true;
+        }
+
+        @Override
+        public void print(String text) {
+        }
+
+        @Override
+        public void printScoreCard(ScoreCard scoreCard) {
+        }
+
+        @Override
+        public void printCategories(List<Category> categories) {
+        }
+
+        @Override
+        public void printCategoryPursuits(Map<Category, Reason> categoryPursuits) {
+        }
+
+        @Override
+        public void printDice(List<Integer> dice) {
+        }
+
+        @Override
+        public void flush() {
+        }
+    };
+
+    // Checks if output is dropped, so callers can skip work done only to show it
+    default boolean isQuiet() {
+        return false;
+    }
+
+    void print(String text);
+
+    default void println(String text) {
+        print(text);
+        print("\n");
+    }
+
+    // The table of ScoreCard.getString, followed by a line break
+    void printScoreCard(ScoreCard scoreCard);
+
+    // Category names one per line, as ioFunctions.showCategories shows them
+    void printCategories(List<Category> categories);
+
+    // The pursuit lines of ioFunctions.showCategoryPursuits
+    void printCategoryPursuits(Map<Category, Reason> categoryPursuits);
+
+    // Dice in the form of ioFunctions.toStringVector
+    void printDice(List<Integer> dice);
+
+    // Writes out everything printed since the last flush
+    void flush();
+}
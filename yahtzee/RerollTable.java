@@ -0,0 +1,232 @@
+package com.yahtzee;
+
+import java.util.*;
+
+// Exact probability distribution over the 252 final hands for every kept-dice
+// multiset, built once at class load.
+//
+// Kept multisets of 0 to 5 dice are numbered 0..461 in order of size, then in
+// ascending sorted order. The outcomes of kept multiset k are stored in flat
+// primitive arrays at positions getStart(k) .. getEnd(k) - 1: the ScoreTable
+// index of the final hand and its probability. Each outcome corresponds to one
+// multiset of the rerolled dice, so only reachable hands are stored (4368
+// outcomes in total) and an expected value is a short dot product.
+//
+// For decisions between rolls, each outcome also lists its keep options: the
+// kept indices of the kept dice plus each distinct sub-multiset of the roll,
+// largest first, at getOptionStart(o) .. getOptionEnd(o) - 1.
+public final class RerollTable {
+    public static final int NUM_KEPT = 462;
+
+    // Maps a base-6 key of the counts of faces 1-6 to the kept index
+    private static final short[] KEPT_BY_KEY = new short[46656];
+    private static final DiceHand[] KEPT = new DiceHand[NUM_KEPT];
+
+    // Kept index of each final hand, by ScoreTable index
+    private static final int[] KEPT_OF_HAND = new int[ScoreTable.NUM_HANDS];
+
+    private static final int[] START = new int[NUM_KEPT + 1];
+    private static final int[] HAND;
+    private static final double[] PROBABILITY;
+    private static final int[] OPTION_START;
+    private static final int[] OPTIONS;
+
+    // Final hands of each kept multiset as sorted lists, for the List based API
+    private static final List<List<List<Integer>>> FINAL_ROLLS = new ArrayList<>(NUM_KEPT);
+
+    static {
+        Arrays.fill(KEPT_BY_KEY, (short) -1);
+        int kept = 0;
+        for (int size = 0; size <= DiceHand.MAX_DICE; size++) {
+            for (List<Integer> dice : helperFunctions.diceCombinations(size)) {
+                DiceHand hand = DiceHand.of(dice);
+                KEPT[kept] = hand;
+                KEPT_BY_KEY[key(hand)] = (short) kept;
+                if (size == DiceHand.MAX_DICE) {
+                    KEPT_OF_HAND[ScoreTable.indexOf(hand)] = kept;
+                }
+                kept++;
+            }
+        }
+
+        List<Integer> hands = new ArrayList<>();
+        List<Double> probabilities = new ArrayList<>();
+        List<Integer> optionStarts = new ArrayList<>();
+        List<Integer> options = new ArrayList<>();
+        for (int k = 0; k < NUM_KEPT; k++) {
+            START[k] = hands.size();
+            List<List<Integer>> finalRolls = new ArrayList<>();
+            for (List<Integer> dice : helperFunctions.diceCombinations(DiceHand.MAX_DICE - KEPT[k].size())) {
+                DiceHand roll = DiceHand.of(dice);
+                DiceHand finalHand = KEPT[k].add(roll);
+                hands.add(ScoreTable.indexOf(finalHand));
+                probabilities.add(rollProbability(roll));
+                finalRolls.add(finalHand.toList());
+                optionStarts.add(options.size());
+                for (DiceHand subset : subsets(roll)) {
+                    options.add(keptIndex(KEPT[k].add(subset)));
+                }
+            }
+            FINAL_ROLLS.add(Collections.unmodifiableList(finalRolls));
+        }
+        START[NUM_KEPT] = hands.size();
+
+        HAND = hands.stream().mapToInt(Integer::intValue).toArray();
+        PROBABILITY = probabilities.stream().mapToDouble(Double::doubleValue).toArray();
+        optionStarts.add(options.size());
+        OPTION_START = optionStarts.stream().mapToInt(Integer::intValue).toArray();
+        OPTIONS = options.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private RerollTable() {
+    }
+
+    private static int key(DiceHand hand) {
+        int key = 0;
+        for (int face = DiceHand.NUM_FACES; face >= 1; face--) {
+            key = key * 6 + hand.count(face);
+        }
+        return key;
+    }
+
+    // Returns every distinct sub-multiset of the given dice, largest first
+    public static List<DiceHand> subsets(DiceHand dice) {
+        List<DiceHand> result = new ArrayList<>();
+        collectSubsets(dice, DiceHand.NUM_FACES, DiceHand.EMPTY, result);
+        result.sort((a, b) -> b.size() - a.size());
+        return result;
+    }
+
+    private static void collectSubsets(DiceHand dice, int face, DiceHand current, List<DiceHand> result) {
+        if (face == 0) {
+            result.add(current);
+            return;
+        }
+        DiceHand next = current;
+        for (int count = 0; count <= dice.count(face); count++) {
+            collectSubsets(dice, face - 1, next, result);
+            if (count < dice.count(face)) {
+                next = next.add(face);
+            }
+        }
+    }
+
+    // Probability of rolling exactly this multiset: n! / (c1! ... c6!) / 6^n
+    public static double rollProbability(DiceHand roll) {
+        double permutations = factorial(roll.size());
+        for (int face = 1; face <= DiceHand.NUM_FACES; face++) {
+            permutations /= factorial(roll.count(face));
+        }
+        return permutations / Math.pow(DiceHand.NUM_FACES, roll.size());
+    }
+
+    private static double factorial(int n) {
+        double result = 1;
+        for (int i = 2; i <= n; i++) {
+            result *= i;
+        }
+        return result;
+    }
+
+    // Returns the index (0..461) of a multiset of up to five dice
+    public static int keptIndex(DiceHand kept) {
+        return KEPT_BY_KEY[key(kept)];
+    }
+
+    public static DiceHand getKept(int keptIndex) {
+        return KEPT[keptIndex];
+    }
+
+    // Returns the kept index of a final hand given its ScoreTable index
+    public static int keptIndexOfHand(int handIndex) {
+        return KEPT_OF_HAND[handIndex];
+    }
+
+    // First outcome of a kept multiset
+    public static int getStart(int keptIndex) {
+        return START[keptIndex];
+    }
+
+    // One past the last outcome of a kept multiset
+    public static int getEnd(int keptIndex) {
+        return START[keptIndex + 1];
+    }
+
+    // Total number of outcomes over all kept multisets
+    public static int getNumOutcomes() {
+        return HAND.length;
+    }
+
+    // ScoreTable index of the final hand of an outcome
+    public static int getHand(int outcome) {
+        return HAND[outcome];
+    }
+
+    public static double getProbability(int outcome) {
+        return PROBABILITY[outcome];
+    }
+
+    // First keep option after an outcome
+    public static int getOptionStart(int outcome) {
+        return OPTION_START[outcome];
+    }
+
+    // One past the last keep option after an outcome
+    public static int getOptionEnd(int outcome) {
+        return OPTION_START[outcome + 1];
+    }
+
+    // Kept index of a keep option
+    public static int getOption(int option) {
+        return OPTIONS[option];
+    }
+
+    // Returns the kept index among an outcome's options with the highest value;
+    // options are ordered largest first, so ties keep more dice
+    public static int bestOption(int outcome, double[] keptValues) {
+        int best = OPTIONS[OPTION_START[outcome]];
+        for (int o = OPTION_START[outcome] + 1; o < OPTION_START[outcome + 1]; o++) {
+            if (keptValues[OPTIONS[o]] > keptValues[best]) {
+                best = OPTIONS[o];
+            }
+        }
+        return best;
+    }
+
+    // Expected value of the final hand after rolling every die not kept, given a
+    // value for each final hand indexed by ScoreTable index
+    public static double expectedValue(int keptIndex, double[] handValues) {
+        double expected = 0;
+        for (int o = START[keptIndex]; o < START[keptIndex + 1]; o++) {
+            expected += PROBABILITY[o] * handValues[HAND[o]];
+        }
+        return expected;
+    }
+
+    public static double expectedValue(DiceHand kept, double[] handValues) {
+        return expectedValue(keptIndex(kept), handValues);
+    }
+
+    // Expected score in a category after rolling every die not kept
+    public static double expectedScore(int keptIndex, Category category) {
+        double expected = 0;
+        for (int o = START[keptIndex]; o < START[keptIndex + 1]; o++) {
+            expected += PROBABILITY[o] * ScoreTable.getScore(HAND[o], category);
+        }
+        return expected;
+    }
+
+    // Returns the distinct sorted final hands reachable from the kept dice, as
+    // a shared unmodifiable list
+    public static List<List<Integer>> getFinalRolls(DiceHand kept) {
+        return FINAL_ROLLS.get(keptIndex(kept));
+    }
+
+    // Approximate memory held by the primitive tables
+    public static long getTableBytes() {
+        return (long) KEPT_BY_KEY.length * Short.BYTES
+                + ((long) KEPT_OF_HAND.length + START.length + HAND.length + OPTION_START.length
+                        + OPTIONS.length) * Integer.BYTES
+                + (long) PROBABILITY.length * Double.BYTES;
+    }
+}
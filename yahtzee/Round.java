@@ -3,12 +3,13 @@ package com.yahtzee;
 import java.util.*;
 
 public class Round {
-    // Function to play a round of Yahtzee
-    public static ScoreCard playRound(int roundNumber, ScoreCard scoreCard, List<Player> players) {
+    // Function to play a round of Yahtzee, reporting progress to the listener
+    public static ScoreCard playRound(int roundNumber, ScoreCard scoreCard, List<Player> players,
+            GameListener listener) {
+        long start = Metrics.ROUND.start();
         Map<Player, Integer> playerScores = scoreCard.getPlayerScores(players);
-        Queue<Player> playerQueue = getPlayerQueue(playerScores);
-        System.out.println("Player Queue: " + playerQueue);
-        
+        Queue<Player> playerQueue = getPlayerQueue(playerScores, listener);
+        listener.playerOrderDecided(playerQueue);
 
         ScoreCard currentScoreCard = scoreCard;
 
@@ -16,33 +17,29 @@ public class Round {
         while (!roundOver) {
             Player player = playerQueue.poll();
 
-            System.out.println(currentScoreCard.getString());
+            listener.turnStarted(player, currentScoreCard);
 
-            System.out.println("It's " + player.getName() + "'s turn.");
+            DiceHand hand = DiceHand.of(Turn.playTurn(player, currentScoreCard, listener));
 
-            List<Integer> dice = Turn.playTurn(player, scoreCard);
-
-            Optional<Category> scoredCategory = scoreCard.getMaxScoringCategory(dice);
+            Optional<Category> scoredCategory = currentScoreCard.getMaxScoringCategory(hand);
 
             // if (scoredCategory.isPresent()) {
             //     System.out.println(player.getName() + " scored " + ScoreCard.getScore(dice, scoredCategory.get()) +
             //             " points in the " + Category.CATEGORY_NAMES[scoredCategory.get().ordinal()] + " category.\n\n");
             // }
             if (scoredCategory.isPresent()) {
-                String categoryName = Category.CATEGORY_NAMES.get(scoredCategory.get());
-                int score = ScoreCard.getScore(dice, scoredCategory.get());
-                
-                System.out.println(player.getName() + " scored " + score + 
-                        " points in the " + categoryName + " category.\n\n");
+                int score = ScoreCard.getScore(hand, scoredCategory.get());
+                listener.categoryScored(player, scoredCategory.get(), score);
             }
             
 
-            currentScoreCard = currentScoreCard.addEntry(roundNumber, player, dice);
+            currentScoreCard = currentScoreCard.addEntry(roundNumber, player, hand);
 
             roundOver = playerQueue.isEmpty() || currentScoreCard.isFull();
         }
 
-        System.out.println("Round ends");
+        listener.roundFinished(roundNumber);
+        Metrics.ROUND.stop(start);
 
         return currentScoreCard;
     }
@@ -69,9 +66,7 @@ public class Round {
 
     //     return enqueuePlayersByScore(playerScores);
     // }
-    private static Queue<Player> getPlayerQueue(Map<Player, Integer> playerScores) {
-        Queue<Player> playerQueue = new LinkedList<>();
-    
+    private static Queue<Player> getPlayerQueue(Map<Player, Integer> playerScores, GameListener listener) {
         Iterator<Map.Entry<Player, Integer>> iterator = playerScores.entrySet().iterator();
         Player player1 = iterator.next().getKey();
         Player player2 = iterator.next().getKey();
@@ -80,17 +75,56 @@ public class Round {
         int player2Score = playerScores.get(player2);
     
         if (player1Score == player2Score) {
-            if (player1Score == 0) {
-                System.out.println("Determining who goes first by rolling a die.");
-            } else {
-                System.out.println("Both players have a score of " + player1Score + ". Conducting a tie breaker.");
+            listener.tieBreakerStarted(player1Score);
+            if (player1 instanceof Human || player2 instanceof Human) {
+                return queueFromTieBreaker(player1, player2);
             }
-            return queueFromTieBreaker(player1, player2);
+            return queueFromDieToss(player1, player1::getDiceRoll, player2, player2::getDiceRoll, listener);
         }
     
         return enqueuePlayersByScore(playerScores);
     }
 
+    // Function to order the players of a round without asking anyone: ties,
+    // including those with a human, are broken by tossing dice from the given provider
+    static Queue<Player> getPlayerQueue(Map<Player, Integer> playerScores, DiceProvider dice, GameListener listener) {
+        Iterator<Map.Entry<Player, Integer>> iterator = playerScores.entrySet().iterator();
+        Player player1 = iterator.next().getKey();
+        Player player2 = iterator.next().getKey();
+
+        int player1Score = playerScores.get(player1);
+        if (player1Score == playerScores.get(player2)) {
+            listener.tieBreakerStarted(player1Score);
+            return queueFromDieToss(player1, dice, player2, dice, listener);
+        }
+
+        return enqueuePlayersByScore(playerScores);
+    }
+
+    // Function to resolve a tie by having each player toss a die from the given dice provider
+    private static Queue<Player> queueFromDieToss(Player player1, DiceProvider dice1, Player player2,
+            DiceProvider dice2, GameListener listener) {
+        Queue<Player> playerQueue = new LinkedList<>();
+
+        int roll1;
+        int roll2;
+        do {
+            roll1 = dice1.roll(1).get(0);
+            roll2 = dice2.roll(1).get(0);
+            listener.tieBreakerRolled(player1, roll1, player2, roll2);
+        } while (roll1 == roll2);
+
+        if (roll1 > roll2) {
+            playerQueue.add(player1);
+            playerQueue.add(player2);
+        } else {
+            playerQueue.add(player2);
+            playerQueue.add(player1);
+        }
+
+        return playerQueue;
+    }
+
     // Function to resolve a tie-breaker by rolling a die or other tie-breaking logic
     private static Queue<Player> queueFromTieBreaker(Player player1, Player player2) {
         Queue<Player> playerQueue = new LinkedList<>();
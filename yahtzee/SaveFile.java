@@ -0,0 +1,140 @@
+package com.yahtzee;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Reads and writes saved games. Files ending in BINARY_EXTENSION hold the
+// binary form from Game.toBinary; anything else holds the text
+// form from Game.serialize. Both are moved through a FileChannel in one read
+// or write.
+public final class SaveFile {
+    public static final String BINARY_EXTENSION = ".ysav";
+
+    private SaveFile() {
+    }
+
+    // Checks if a file name selects the binary format
+    public static boolean isBinary(Path path) {
+        return path.getFileName().toString().endsWith(BINARY_EXTENSION);
+    }
+
+    // Writes the game in the format selected by the file extension, replacing any existing file
+    public static void save(Game game, Path path) throws IOException {
+        long start = Metrics.SAVE.start();
+        FlightEvents.Save event = new FlightEvents.Save();
+        event.begin();
+        ByteBuffer buffer = isBinary(path) ? game.toBinary()
+                : ByteBuffer.wrap(game.serialize().getBytes(StandardCharsets.UTF_8));
+        boolean succeeded = false;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            succeeded = true;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.path = path.toString();
+                event.binary = isBinary(path);
+                event.bytes = buffer.limit();
+                event.succeeded = succeeded;
+                event.commit();
+            }
+        }
+        Metrics.SAVE.stop(start);
+    }
+
+    // Loads a game in the format selected by the file extension. Throws
+    // IllegalArgumentException if the contents are not a valid save.
+    public static Game load(Path path) throws IOException {
+        ByteBuffer buffer = read(path);
+        if (isBinary(path)) {
+            return Game.fromBinary(buffer);
+        }
+        return parseText(new String(buffer.array(), 0, buffer.limit(), StandardCharsets.UTF_8));
+    }
+
+    // Checks the layout of the text form before handing it to Game.deserialize,
+    // which assumes a well-formed save: a "Round: n" line, a "Scorecard:" line,
+    // then one line per category that is either 0 or "points player round".
+    static Game parseText(String serial) {
+        if (serial.isBlank()) {
+            throw new IllegalArgumentException("Save file is empty");
+        }
+        String[] lines = serial.split("\n");
+        int line = 0;
+        while (line < lines.length && lines[line].isBlank()) {
+            line++;
+        }
+        if (line == lines.length || !lines[line].startsWith("Round: ")) {
+            throw new IllegalArgumentException("Save file does not start with the round");
+        }
+        if (parseNumber(lines[line].substring(7).trim(), "round") < 1) {
+            throw new IllegalArgumentException("Save file has an invalid round");
+        }
+        while (line < lines.length && !lines[line].trim().equals("Scorecard:")) {
+            line++;
+        }
+        if (line == lines.length) {
+            throw new IllegalArgumentException("Save file has no scorecard");
+        }
+
+        int entries = 0;
+        for (line++; line < lines.length; line++) {
+            String entry = lines[line].trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+            if (++entries > ScoreTable.NUM_CATEGORIES) {
+                throw new IllegalArgumentException("Save file has more than " + ScoreTable.NUM_CATEGORIES
+                        + " scorecard entries");
+            }
+            if (entry.equals("0")) {
+                continue;
+            }
+            String[] parts = entry.split(" ");
+            if (parts.length != 3 || parseNumber(parts[0], "points") < 0 || parseNumber(parts[2], "round") < 1) {
+                throw new IllegalArgumentException("Save file has an invalid scorecard entry: " + entry);
+            }
+        }
+        if (entries != ScoreTable.NUM_CATEGORIES) {
+            throw new IllegalArgumentException("Save file has " + entries + " scorecard entries instead of "
+                    + ScoreTable.NUM_CATEGORIES);
+        }
+
+        try {
+            return Game.deserialize(serial);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Save file could not be read: " + e.getMessage(), e);
+        }
+    }
+
+    private static int parseNumber(String text, String field) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Save file has an invalid " + field + ": " + text, e);
+        }
+    }
+
+    private static ByteBuffer read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Save file is too large");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    break;
+                }
+            }
+            return buffer.flip();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.yahtzee;
 
+import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -44,17 +45,86 @@ class ScoreCardEntry {
 }
 
 public class ScoreCard {
-    private final Map<Category, Optional<ScoreCardEntry>> scoreCard;
+    private static final int NUM_CATEGORIES = ScoreTable.NUM_CATEGORIES;
+    private static final int NO_OWNER = -1;
+
+    // Number of bytes writeBinary puts in a buffer: per category ordinal, the
+    // owner's seat (-1 if open), the points and the round as a short
+    public static final int BINARY_SIZE = NUM_CATEGORIES * 4;
+
+    // Column headings and rule that getString starts with, and the usual length of a row after them
+    static final String HEADER = buildHeader();
+    private static final int ROW_WIDTH = 56;
+
+    // Open categories in the order getOpenCategories returns them, built once per mask
+    private static final List<List<Category>> OPEN_CATEGORY_LISTS = buildOpenCategoryLists();
+
+    // Bitmask of unclaimed category ordinals
+    private final int openMask;
+
+    // Per category ordinal: points, index into players (NO_OWNER if open) and round
+    private final int[] points;
+    private final int[] owners;
+    private final int[] rounds;
+
+    // Players with at least one entry, in order of their first claim, and their running totals
+    private final Player[] players;
+    private final int[] totals;
+
+    // The arrays are never modified after construction, so every ScoreCard is
+    // immutable and safe to share between threads; addEntry copies them.
+    private ScoreCard(int openMask, int[] points, int[] owners, int[] rounds, Player[] players, int[] totals) {
+        this.openMask = openMask;
+        this.points = points;
+        this.owners = owners;
+        this.rounds = rounds;
+        this.players = players;
+        this.totals = totals;
+    }
 
     // Default constructor that initializes the scorecard with empty values for all
     // categories
     public ScoreCard() {
-        this.scoreCard = initializeScoreCard();
+        this(ScoreTable.ALL_CATEGORIES, new int[NUM_CATEGORIES], emptyOwners(), new int[NUM_CATEGORIES],
+                new Player[0], new int[0]);
     }
 
-    // Constructor with scoreCard parameter
+    // Constructor with scoreCard parameter. Categories missing from the map are open.
     public ScoreCard(Map<Category, Optional<ScoreCardEntry>> scoreCard) {
-        this.scoreCard = scoreCard;
+        ScoreCard result = new ScoreCard();
+        for (Map.Entry<Category, Optional<ScoreCardEntry>> entry : scoreCard.entrySet()) {
+            if (entry.getValue().isPresent()) {
+                ScoreCardEntry scoreCardEntry = entry.getValue().get();
+                result = result.addEntry(entry.getKey(), scoreCardEntry.getPoints(), scoreCardEntry.getWinner(),
+                        scoreCardEntry.getRound());
+            }
+        }
+        this.openMask = result.openMask;
+        this.points = result.points;
+        this.owners = result.owners;
+        this.rounds = result.rounds;
+        this.players = result.players;
+        this.totals = result.totals;
+    }
+
+    private static int[] emptyOwners() {
+        int[] owners = new int[NUM_CATEGORIES];
+        Arrays.fill(owners, NO_OWNER);
+        return owners;
+    }
+
+    private static List<List<Category>> buildOpenCategoryLists() {
+        List<List<Category>> lists = new ArrayList<>(1 << NUM_CATEGORIES);
+        for (int mask = 0; mask < 1 << NUM_CATEGORIES; mask++) {
+            List<Category> openCategories = new ArrayList<>();
+            for (int ordinal = NUM_CATEGORIES - 1; ordinal >= 0; ordinal--) {
+                if ((mask & (1 << ordinal)) != 0) {
+                    openCategories.add(Category.CATEGORIES.get(ordinal));
+                }
+            }
+            lists.add(List.copyOf(openCategories));
+        }
+        return lists;
     }
 
     // Static method to deserialize a scorecard from a string representation
@@ -97,27 +167,80 @@ public class ScoreCard {
 
     // Method to serialize the scorecard to a string representation
     public String serialize() {
-        
         StringBuilder serial = new StringBuilder();
-        
-        
-        for (Map.Entry<Category, Optional<ScoreCardEntry>> entry : scoreCard.entrySet()) {
-            if (entry.getValue().isPresent()) {
-                ScoreCardEntry scoreCardEntry = entry.getValue().get();
-                serial.append(scoreCardEntry.getPoints()).append(" ")
-                        .append(scoreCardEntry.getWinner().getName()).append(" ")
-                        .append(scoreCardEntry.getRound()).append("\n");
+
+        for (int ordinal = 0; ordinal < NUM_CATEGORIES; ordinal++) {
+            if (owners[ordinal] != NO_OWNER) {
+                serial.append(points[ordinal]).append(" ")
+                        .append(players[owners[ordinal]].getName()).append(" ")
+                        .append(rounds[ordinal]).append("\n");
             } else {
                 serial.append("0\n");
             }
         }
-        
+
         return serial.toString();
     }
- 
-    // Copy constructor
+
+    // Writes the fixed-layout binary form of the scorecard. Owners are stored as
+    // their index in seats rather than by name.
+    public void writeBinary(ByteBuffer buffer, List<Player> seats) {
+        byte[] ownerSeats = new byte[players.length];
+        for (int i = 0; i < players.length; i++) {
+            int seat = seats.indexOf(players[i]);
+            if (seat < 0) {
+                throw new IllegalArgumentException("Player " + players[i].getName() + " has no seat");
+            }
+            ownerSeats[i] = (byte) seat;
+        }
+        for (int ordinal = 0; ordinal < NUM_CATEGORIES; ordinal++) {
+            if (owners[ordinal] == NO_OWNER) {
+                buffer.put((byte) NO_OWNER).put((byte) 0).putShort((short) 0);
+            } else {
+                buffer.put(ownerSeats[owners[ordinal]]).put((byte) points[ordinal]).putShort((short) rounds[ordinal]);
+            }
+        }
+    }
+
+    // Reads a scorecard written by writeBinary, mapping seats back to players
+    public static ScoreCard readBinary(ByteBuffer buffer, List<Player> seats) {
+        int openMask = ScoreTable.ALL_CATEGORIES;
+        int[] points = new int[NUM_CATEGORIES];
+        int[] owners = emptyOwners();
+        int[] rounds = new int[NUM_CATEGORIES];
+        int[] ownerOfSeat = new int[seats.size()];
+        Arrays.fill(ownerOfSeat, NO_OWNER);
+        Player[] players = new Player[0];
+        int[] totals = new int[0];
+
+        for (int ordinal = 0; ordinal < NUM_CATEGORIES; ordinal++) {
+            int seat = buffer.get();
+            int entryPoints = buffer.get() & 0xFF;
+            int round = buffer.getShort();
+            if (seat == NO_OWNER) {
+                continue;
+            }
+            if (seat < 0 || seat >= seats.size()) {
+                throw new IllegalArgumentException("Invalid seat in scorecard: " + seat);
+            }
+            if (ownerOfSeat[seat] == NO_OWNER) {
+                ownerOfSeat[seat] = players.length;
+                players = Arrays.copyOf(players, players.length + 1);
+                players[ownerOfSeat[seat]] = seats.get(seat);
+                totals = Arrays.copyOf(totals, totals.length + 1);
+            }
+            openMask &= ~(1 << ordinal);
+            points[ordinal] = entryPoints;
+            owners[ordinal] = ownerOfSeat[seat];
+            rounds[ordinal] = round;
+            totals[ownerOfSeat[seat]] += entryPoints;
+        }
+        return new ScoreCard(openMask, points, owners, rounds, players, totals);
+    }
+
+    // Copy constructor. Scorecards are immutable, so the copy shares the arrays.
     public ScoreCard(ScoreCard other) {
-        this.scoreCard = other.scoreCard;
+        this(other.openMask, other.points, other.owners, other.rounds, other.players, other.totals);
     }
 
     // Copy assignment operator
@@ -128,114 +251,181 @@ public class ScoreCard {
         return this;
     }
 
-    // Equality operator to compare two ScoreCard objects
+    // Equality operator to compare two ScoreCard objects entry by entry
     @Override
     public boolean equals(Object obj) {
         if (this == obj)
             return true;
         if (obj == null || getClass() != obj.getClass())
             return false;
-        ScoreCard scoreCard1 = (ScoreCard) obj;
-        return Objects.equals(scoreCard, scoreCard1.scoreCard);
+        ScoreCard other = (ScoreCard) obj;
+        if (openMask != other.openMask || !Arrays.equals(points, other.points)
+                || !Arrays.equals(rounds, other.rounds)) {
+            return false;
+        }
+        for (int ordinal = 0; ordinal < NUM_CATEGORIES; ordinal++) {
+            if (owners[ordinal] != NO_OWNER
+                    && !players[owners[ordinal]].equals(other.players[other.owners[ordinal]])) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(scoreCard);
+        int hash = Objects.hash(openMask, Arrays.hashCode(points), Arrays.hashCode(rounds));
+        for (int ordinal = 0; ordinal < NUM_CATEGORIES; ordinal++) {
+            hash = 31 * hash + (owners[ordinal] == NO_OWNER ? 0 : players[owners[ordinal]].hashCode());
+        }
+        return hash;
     }
 
     // Adds a score entry to the specified category with points, winner, and round,
-    // returns updated scorecard
-    // public ScoreCard addEntry(Category category, int points, Player winner, int
-    // round) {
-    // if (scoreCard.get(category).isPresent()) {
-    // throw new IllegalArgumentException("Category already has a score card
-    // entry");
-    // }
-
-    // Map<Category, Optional<ScoreCardEntry>> newScoreCard = new
-    // HashMap<>(scoreCard);
-    // newScoreCard.put(category, Optional.of(new ScoreCardEntry(points, winner,
-    // round)));
-    // return new ScoreCard(newScoreCard);
-    // }
-
+    // returns updated scorecard. Only the three 12-entry arrays are copied, plus the
+    // player arrays when the winner has no entry yet.
     public ScoreCard addEntry(Category category, int points, Player winner, int round) {
-        if (scoreCard.get(category).isPresent()) {
+        int ordinal = category.ordinal();
+        if ((openMask & (1 << ordinal)) == 0) {
             throw new IllegalArgumentException("Category already has a score card entry");
         }
 
-        Map<Category, Optional<ScoreCardEntry>> newScoreCard = new LinkedHashMap<>(scoreCard);
-        newScoreCard.put(category, Optional.of(new ScoreCardEntry(points, winner, round)));
-        return new ScoreCard(newScoreCard);
+        int owner = indexOfPlayer(winner);
+        Player[] newPlayers = players;
+        int[] newTotals;
+        if (owner == NO_OWNER) {
+            owner = players.length;
+            newPlayers = Arrays.copyOf(players, players.length + 1);
+            newPlayers[owner] = winner;
+            newTotals = Arrays.copyOf(totals, totals.length + 1);
+        } else {
+            newTotals = totals.clone();
+        }
+        newTotals[owner] += points;
+
+        int[] newPoints = this.points.clone();
+        int[] newOwners = owners.clone();
+        int[] newRounds = rounds.clone();
+        newPoints[ordinal] = points;
+        newOwners[ordinal] = owner;
+        newRounds[ordinal] = round;
+        return new ScoreCard(openMask & ~(1 << ordinal), newPoints, newOwners, newRounds, newPlayers, newTotals);
+    }
+
+    private int indexOfPlayer(Player player) {
+        for (int i = 0; i < players.length; i++) {
+            if (players[i].equals(player)) {
+                return i;
+            }
+        }
+        return NO_OWNER;
     }
 
     // Adds an entry automatically for the max scoring category based on dice roll
     public ScoreCard addEntry(int round, Player winner, List<Integer> dice) {
-        Optional<Category> maxCategory = getMaxScoringCategory(dice);
+        return addEntry(round, winner, DiceHand.of(dice));
+    }
+
+    public ScoreCard addEntry(int round, Player winner, DiceHand hand) {
+        Optional<Category> maxCategory = getMaxScoringCategory(hand);
         if (!maxCategory.isPresent()) {
             return this;
         }
-        return addEntry(maxCategory.get(), Category.getScore(dice, maxCategory.get()), winner, round);
+        int score = Category.getScore(hand, maxCategory.get());
+        ScoreCard result = addEntry(maxCategory.get(), score, winner, round);
+        FlightEvents.Claim event = new FlightEvents.Claim();
+        if (event.shouldCommit()) {
+            event.player = winner.getName();
+            event.round = round;
+            event.category = Category.CATEGORY_NAMES.get(maxCategory.get());
+            event.points = score;
+            event.dice = hand.toString();
+            event.openCategories = Integer.bitCount(result.openMask);
+            event.commit();
+        }
+        return result;
     }
 
     // Finds the best scoring category based on dice roll
     public Optional<Category> getMaxScoringCategory(List<Integer> dice) {
-        List<Category> openCategories = getOpenCategories();
-        List<Category> applicableCategories = Category.getApplicableCategories(dice);
-        List<Category> assignableCategories = helperFunctions.intersection(openCategories, applicableCategories);
-
-        if (assignableCategories.isEmpty()) {
-            return Optional.empty();
-        }
+        return getMaxScoringCategory(DiceHand.of(dice));
+    }
 
-        Map<Category, Integer> categoryScores = new HashMap<>();
-        for (Category category : assignableCategories) {
-            int score = Category.getScore(dice, category);
-            categoryScores.put(category, score);
+    // Full hands are scanned in the ScoreTable masked by the open categories;
+    // ties go to the later category
+    public Optional<Category> getMaxScoringCategory(DiceHand hand) {
+        if (hand.size() == DiceHand.MAX_DICE) {
+            int ordinal = ScoreTable.getMaxScoringOrdinal(ScoreTable.indexOf(hand), openMask);
+            return ordinal < 0 ? Optional.empty() : Optional.of(Category.CATEGORIES.get(ordinal));
         }
 
-        Category maxCategory = Category.ONES;
+        Category maxCategory = null;
         int maxScore = 0;
-        for (Map.Entry<Category, Integer> entry : categoryScores.entrySet()) {
-            if (entry.getValue() >= maxScore) {
-                maxScore = entry.getValue();
-                maxCategory = entry.getKey();
+        for (Category category : Category.CATEGORIES) {
+            if (!isOpen(category) || !Category.isApplicableCategory(hand, category)) {
+                continue;
+            }
+            int score = Category.getScore(hand, category);
+            if (score >= maxScore) {
+                maxScore = score;
+                maxCategory = category;
             }
         }
 
-        return Optional.of(maxCategory);
+        return Optional.ofNullable(maxCategory);
+    }
+
+    // Returns the entry for a category, empty if it has not been claimed
+    public Optional<ScoreCardEntry> getEntry(Category category) {
+        int ordinal = category.ordinal();
+        if (owners[ordinal] == NO_OWNER) {
+            return Optional.empty();
+        }
+        return Optional.of(new ScoreCardEntry(points[ordinal], players[owners[ordinal]], rounds[ordinal]));
+    }
+
+    // Returns the player who claimed a category, empty if it is open
+    public Optional<Player> getOwner(Category category) {
+        int owner = owners[category.ordinal()];
+        return owner == NO_OWNER ? Optional.empty() : Optional.of(players[owner]);
+    }
+
+    // Returns the points a category was claimed for, 0 if it is open
+    public int getPoints(Category category) {
+        return points[category.ordinal()];
+    }
+
+    // Checks if a category has not been claimed yet
+    public boolean isOpen(Category category) {
+        return (openMask & (1 << category.ordinal())) != 0;
     }
 
     // Checks if the scorecard is completely filled
     public boolean isFull() {
-        for (Map.Entry<Category, Optional<ScoreCardEntry>> entry : scoreCard.entrySet()) {
-            if (!entry.getValue().isPresent()) {
-                return false;
-            }
-        }
-        return true;
+        return openMask == 0;
     }
 
-    // Returns a list of unfilled categories
-    public List<Category> getOpenCategories() {
-        List<Category> openCategories = new ArrayList<>();
-        for (Map.Entry<Category, Optional<ScoreCardEntry>> entry : scoreCard.entrySet()) {
-            if (!entry.getValue().isPresent()) {
-                openCategories.add(entry.getKey());
-            }
-        }
+    // Returns a bitmask of the unfilled category ordinals
+    public int getOpenCategoryMask() {
+        return openMask;
+    }
 
-        return helperFunctions.reversed(openCategories);
+    // Returns an unmodifiable list of unfilled categories, last category first
+    public List<Category> getOpenCategories() {
+        return OPEN_CATEGORY_LISTS.get(openMask);
     }
 
     // Returns a list of possible categories based on dice roll
     public List<Category> getPossibleCategories(List<Integer> dice) {
+        return getPossibleCategories(DiceHand.of(dice));
+    }
+
+    public List<Category> getPossibleCategories(DiceHand hand) {
         List<Category> openCategories = getOpenCategories();
 
         List<Category> possibleCategories = new ArrayList<>();
         for (Category category : openCategories) {
-            if (Category.isPossibleCategory(dice, category)) {
+            if (Category.isPossibleCategory(hand, category)) {
                 possibleCategories.add(category);
             }
         }
@@ -243,15 +433,10 @@ public class ScoreCard {
         return possibleCategories;
     }
 
-    // Gets the total score for a given player by summing their points
+    // Gets the total score for a given player from the running totals
     public int getPlayerScore(Player player) {
-        int totalScore = 0;
-        for (Map.Entry<Category, Optional<ScoreCardEntry>> entry : scoreCard.entrySet()) {
-            if (entry.getValue().isPresent() && entry.getValue().get().getWinner().equals(player)) {
-                totalScore += entry.getValue().get().getPoints();
-            }
-        }
-        return totalScore;
+        int owner = indexOfPlayer(player);
+        return owner == NO_OWNER ? 0 : totals[owner];
     }
 
     // Returns a map of player scores
@@ -271,15 +456,12 @@ public class ScoreCard {
             return Optional.empty();
         }
 
-        List<Player> players = getPlayers();
-        Map<Player, Integer> playerScores = getPlayerScores(players);
-
         int maxScore = 0;
         Player winner = null;
-        for (Map.Entry<Player, Integer> entry : playerScores.entrySet()) {
-            if (entry.getValue() > maxScore) {
-                maxScore = entry.getValue();
-                winner = entry.getKey();
+        for (int i = 0; i < players.length; i++) {
+            if (totals[i] > maxScore) {
+                maxScore = totals[i];
+                winner = players[i];
             }
         }
 
@@ -292,19 +474,14 @@ public class ScoreCard {
             return false;
         }
 
-        List<Player> players = getPlayers();
-        Map<Player, Integer> playerScores = getPlayerScores(players);
-
         int maxScore = 0;
-        for (Map.Entry<Player, Integer> entry : playerScores.entrySet()) {
-            if (entry.getValue() > maxScore) {
-                maxScore = entry.getValue();
-            }
+        for (int total : totals) {
+            maxScore = Math.max(maxScore, total);
         }
 
         int count = 0;
-        for (Map.Entry<Player, Integer> entry : playerScores.entrySet()) {
-            if (entry.getValue() == maxScore) {
+        for (int total : totals) {
+            if (total == maxScore) {
                 count++;
             }
         }
@@ -312,13 +489,13 @@ public class ScoreCard {
         return count > 1;
     }
 
-    // Get a list of all players who have entries in the scorecard
+    // Get a list of all players who have entries in the scorecard, in category order
     public List<Player> getPlayers() {
         List<Player> players = new ArrayList<>();
 
-        for (Map.Entry<Category, Optional<ScoreCardEntry>> entry : scoreCard.entrySet()) {
-            if (entry.getValue().isPresent() && !players.contains(entry.getValue().get().getWinner())) {
-                players.add(entry.getValue().get().getWinner());
+        for (int ordinal = 0; ordinal < NUM_CATEGORIES; ordinal++) {
+            if (owners[ordinal] != NO_OWNER && !players.contains(this.players[owners[ordinal]])) {
+                players.add(this.players[owners[ordinal]]);
             }
         }
         return players;
@@ -326,39 +503,55 @@ public class ScoreCard {
 
     // Generate a formatted string representation of the scorecard
     public String getString() {
-        StringBuilder scoreCardString = new StringBuilder();
-        scoreCardString.append(String.format("%-20s%-10s%-15s%-10s%n", "Category", "Round", "Winner", "Points"));
-        scoreCardString.append("-".repeat(50)).append("\n");
-        for (Map.Entry<Category, Optional<ScoreCardEntry>> entry : scoreCard.entrySet()) {
-            scoreCardString.append(String.format("%-20s", Category.CATEGORY_NAMES.get(entry.getKey())));
-            if (entry.getValue().isPresent()) {
-                ScoreCardEntry scoreCardEntry = entry.getValue().get();
-                scoreCardString.append(String.format("%-10s%-15s%-10s%n",
-                        scoreCardEntry.getRound(),
-                        scoreCardEntry.getWinner().getName(),
-                        scoreCardEntry.getPoints()));
-            } else {
-                scoreCardString.append(String.format("%-10s%-15s%-10s%n", "-", "-", "-"));
-            }
+        StringBuilder scoreCardString = new StringBuilder(HEADER.length() + NUM_CATEGORIES * ROW_WIDTH);
+        scoreCardString.append(HEADER);
+        for (Category category : Category.CATEGORIES) {
+            appendRow(scoreCardString, category);
         }
         return scoreCardString.toString();
     }
 
-    // Initialize the scorecard with all categories set to empty (no entries yet)
-    // private static Map<Category, Optional<ScoreCardEntry>> initializeScoreCard()
-    // {
-    // Map<Category, Optional<ScoreCardEntry>> tempScoreCard = new HashMap<>();
-    // for (Category category : Category.values()) {
-    // tempScoreCard.put(category, Optional.empty());
-    // }
-    // return tempScoreCard;
-    // }
-    private static Map<Category, Optional<ScoreCardEntry>> initializeScoreCard() {
-        Map<Category, Optional<ScoreCardEntry>> tempScoreCard = new LinkedHashMap<>();
-        for (Category category : Category.values()) {
-            tempScoreCard.put(category, Optional.empty());
+    private static String buildHeader() {
+        StringBuilder header = new StringBuilder();
+        padded(header, "Category", 20);
+        padded(header, "Round", 10);
+        padded(header, "Winner", 15);
+        padded(header, "Points", 10);
+        return header.append(System.lineSeparator()).append("-".repeat(50)).append("\n").toString();
+    }
+
+    // Appends the getString row of one category, padded the way String.format("%-20s") pads
+    void appendRow(StringBuilder out, Category category) {
+        int ordinal = category.ordinal();
+        padded(out, Category.CATEGORY_NAMES.get(category), 20);
+        if (owners[ordinal] != NO_OWNER) {
+            padded(out, Integer.toString(rounds[ordinal]), 10);
+            padded(out, players[owners[ordinal]].getName(), 15);
+            padded(out, Integer.toString(points[ordinal]), 10);
+        } else {
+            padded(out, "-", 10);
+            padded(out, "-", 15);
+            padded(out, "-", 10);
         }
-        return tempScoreCard;
+        out.append(System.lineSeparator());
+    }
+
+    // Checks if a category's getString row reads the same on both scorecards
+    boolean hasSameRow(ScoreCard other, Category category) {
+        int ordinal = category.ordinal();
+        if (owners[ordinal] == NO_OWNER || other.owners[ordinal] == NO_OWNER) {
+            return owners[ordinal] == other.owners[ordinal];
+        }
+        return rounds[ordinal] == other.rounds[ordinal] && points[ordinal] == other.points[ordinal]
+                && players[owners[ordinal]].getName().equals(other.players[other.owners[ordinal]].getName());
+    }
+
+    private static StringBuilder padded(StringBuilder out, String text, int width) {
+        out.append(text);
+        for (int i = text.length(); i < width; i++) {
+            out.append(' ');
+        }
+        return out;
     }
 
     // Static method to get the score for a given dice roll and category
@@ -368,9 +561,17 @@ public class ScoreCard {
         return Category.getScore(dice, category);
     }
 
+    public static int getScore(DiceHand hand, Category category) {
+        return Category.getScore(hand, category);
+    }
+
     // Static method to check if a given dice roll is possible for a category
     public static boolean isPossibleCategory(List<Integer> dice, Category category) {
         // Implement the logic to check if the dice roll is possible for the category
         return Category.isPossibleCategory(dice, category);
     }
+
+    public static boolean isPossibleCategory(DiceHand hand, Category category) {
+        return Category.isPossibleCategory(hand, category);
+    }
 }
@@ -0,0 +1,107 @@
+package com.yahtzee;
+
+import java.util.*;
+
+// Precomputed scores for every distinct five-dice hand.
+// Hands are numbered 0..251 in ascending sorted order, so a score lookup is a
+// single array read indexed by hand index and category ordinal.
+public final class ScoreTable {
+    public static final int NUM_HANDS = 252;
+    public static final int NUM_CATEGORIES = Category.values().length;
+
+    // Bitmask with one bit per category ordinal
+    public static final int ALL_CATEGORIES = (1 << NUM_CATEGORIES) - 1;
+
+    private static final Category[] CATEGORY_VALUES = Category.values();
+
+    // Maps a base-6 key of the counts of faces 1-5 to the hand index
+    private static final short[] INDEX_BY_KEY = new short[7776];
+
+    private static final DiceHand[] HANDS = new DiceHand[NUM_HANDS];
+    private static final int[] SCORES = new int[NUM_HANDS * NUM_CATEGORIES];
+    private static final int[] APPLICABLE = new int[NUM_HANDS];
+
+    static {
+        Arrays.fill(INDEX_BY_KEY, (short) -1);
+        List<List<Integer>> combinations = helperFunctions.diceCombinations(DiceHand.MAX_DICE);
+        for (int index = 0; index < NUM_HANDS; index++) {
+            DiceHand hand = DiceHand.of(combinations.get(index));
+            HANDS[index] = hand;
+            INDEX_BY_KEY[key(hand)] = (short) index;
+
+            int applicable = 0;
+            for (Category category : CATEGORY_VALUES) {
+                SCORES[index * NUM_CATEGORIES + category.ordinal()] = Category.computeScore(hand, category);
+                if (Category.computeApplicable(hand, category)) {
+                    applicable |= 1 << category.ordinal();
+                }
+            }
+            APPLICABLE[index] = applicable;
+        }
+    }
+
+    private ScoreTable() {
+    }
+
+    private static int key(DiceHand hand) {
+        int key = 0;
+        for (int face = DiceHand.NUM_FACES - 1; face >= 1; face--) {
+            key = key * 6 + hand.count(face);
+        }
+        return key;
+    }
+
+    // Returns the canonical index (0..251) of a five-dice hand
+    public static int indexOf(DiceHand hand) {
+        if (hand.size() != DiceHand.MAX_DICE) {
+            throw new IllegalArgumentException("Only five-dice hands have a table index");
+        }
+        return INDEX_BY_KEY[key(hand)];
+    }
+
+    // Returns the hand with the given canonical index
+    public static DiceHand getHand(int index) {
+        return HANDS[index];
+    }
+
+    public static int getScore(int index, Category category) {
+        return SCORES[index * NUM_CATEGORIES + category.ordinal()];
+    }
+
+    public static int getScore(DiceHand hand, Category category) {
+        return getScore(indexOf(hand), category);
+    }
+
+    // Returns a bitmask of the category ordinals the hand can be scored in
+    public static int getApplicableMask(int index) {
+        return APPLICABLE[index];
+    }
+
+    public static boolean isApplicable(int index, Category category) {
+        return (APPLICABLE[index] & (1 << category.ordinal())) != 0;
+    }
+
+    // Returns the ordinal of the highest scoring applicable category in
+    // openMask, or -1 if none applies. Ties go to the later category.
+    public static int getMaxScoringOrdinal(int index, int openMask) {
+        int candidates = APPLICABLE[index] & openMask;
+        int base = index * NUM_CATEGORIES;
+        int maxOrdinal = -1;
+        int maxScore = 0;
+        while (candidates != 0) {
+            int ordinal = Integer.numberOfTrailingZeros(candidates);
+            candidates &= candidates - 1;
+            if (SCORES[base + ordinal] >= maxScore) {
+                maxScore = SCORES[base + ordinal];
+                maxOrdinal = ordinal;
+            }
+        }
+        return maxOrdinal;
+    }
+
+    // Returns the highest score reachable with the hand in any category of openMask
+    public static int getMaxScore(int index, int openMask) {
+        int ordinal = getMaxScoringOrdinal(index, openMask);
+        return ordinal < 0 ? 0 : SCORES[index * NUM_CATEGORIES + ordinal];
+    }
+}
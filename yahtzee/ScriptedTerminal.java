@@ -0,0 +1,161 @@
+package com.yahtzee;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+// GameTerminal that answers prompts from a script instead of a person, for
+// replaying full human-path games as regression and throughput tests.
+//
+// Answers come from an in-memory queue, optionally loaded from a file with
+// one answer per line. When the script runs out, the fallback answers, if
+// there is one; otherwise readLine throws NoSuchElementException just as a
+// closed standard input would. Output is kept in memory so runs can be
+// compared, and every answer given is recorded so a fallback-driven run can
+// be saved as a script.
+public class ScriptedTerminal implements GameTerminal {
+    private static final int AUTO_ANSWER_TAIL = 4096;
+
+    private final Deque<String> script;
+    private final Function<CharSequence, String> fallback;
+    private final StringBuilder output = new StringBuilder();
+    private final List<String> answers = new ArrayList<>();
+
+    public ScriptedTerminal(Collection<String> script) {
+        this(script, null);
+    }
+
+    // Same as above, asking the fallback for answers once the script runs
+    // out. The fallback is given all output so far.
+    public ScriptedTerminal(Collection<String> script, Function<CharSequence, String> fallback) {
+        this.script = new ArrayDeque<>(script);
+        this.fallback = fallback;
+    }
+
+    // Reads a script with one answer per line
+    public static ScriptedTerminal fromFile(Path path) throws IOException {
+        return new ScriptedTerminal(Files.readAllLines(path, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public String readLine() {
+        String answer = script.poll();
+        if (answer == null) {
+            if (fallback == null) {
+                throw new NoSuchElementException("Script has no more answers");
+            }
+            answer = fallback.apply(output);
+        }
+        answers.add(answer);
+        return answer;
+    }
+
+    @Override
+    public void print(String text) {
+        output.append(text);
+    }
+
+    // Everything printed so far
+    public String getOutput() {
+        return output.toString();
+    }
+
+    // Answers given so far, from the script or the fallback
+    public List<String> getAnswers() {
+        return Collections.unmodifiableList(answers);
+    }
+
+    // Answers left in the script
+    public int getRemaining() {
+        return script.size();
+    }
+
+    // Fallback that plays a cautious human: takes help, never stands, enters
+    // no dice by hand, keeps the dice of the most common value in the last
+    // roll shown, and declines to load or save
+    public static String autoAnswer(CharSequence output) {
+        // The prompt and the dice it asks about are always near the end, so
+        // only the tail is copied rather than the whole game so far
+        String text = output.subSequence(Math.max(0, output.length() - AUTO_ANSWER_TAIL), output.length()).toString();
+        String prompt = text.substring(text.lastIndexOf('\n') + 1);
+        if (prompt.startsWith("Would you like help?")) {
+            return "y";
+        }
+        if (prompt.startsWith("Enter the dice you would like to keep")) {
+            int start = text.lastIndexOf("Current dice rolls: [");
+            if (start < 0) {
+                return "";
+            }
+            String dice = text.substring(start + "Current dice rolls: [".length(), text.indexOf(']', start));
+            int[] counts = new int[7];
+            for (String die : dice.split(", ")) {
+                if (!die.isEmpty()) {
+                    counts[Integer.parseInt(die)]++;
+                }
+            }
+            int best = 1;
+            for (int face = 2; face <= 6; face++) {
+                if (counts[face] >= counts[best]) {
+                    best = face;
+                }
+            }
+            return (" " + best).repeat(counts[best]).trim();
+        }
+        return "n";
+    }
+
+    // Plays one App session against a new human and computer, with dice from the given seed
+    private static ScriptedTerminal play(ScriptedTerminal terminal, long seed, Renderer renderer) {
+        GameTerminal.setCurrent(terminal);
+        try {
+            DiceSource.seedCurrent(seed);
+            Game game = new Game(new ScoreCard(), 1, List.of(new Human(), new Computer()),
+                    new ConsoleListener(renderer));
+            App.playSession(game, true);
+            return terminal;
+        } finally {
+            GameTerminal.setCurrent(GameTerminal.SYSTEM);
+        }
+    }
+
+    // Usage: ScriptedTerminal record <script> [seed]
+    //        ScriptedTerminal replay <script> [times] [seed] [quiet]
+    //
+    // record plays a game with autoAnswer and saves the answers as a script.
+    // replay plays the script the given number of times with the same dice,
+    // in parallel, checks that every run prints exactly the same output and
+    // reports games per second. With quiet, only prompts and help are printed, not the
+    // progress of the game.
+    public static void main(String[] args) throws IOException {
+        Path path = Path.of(args[1]);
+        if (args[0].equals("record")) {
+            long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+            ScriptedTerminal terminal = play(new ScriptedTerminal(List.of(), ScriptedTerminal::autoAnswer), seed,
+                    new ConsoleRenderer());
+            Files.write(path, terminal.getAnswers(), StandardCharsets.UTF_8);
+            System.out.println("Recorded " + terminal.getAnswers().size() + " answers to " + path);
+            return;
+        }
+
+        int times = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 1;
+        boolean quiet = args.length > 4 && args[4].equals("quiet");
+        List<String> script = Files.readAllLines(path, StandardCharsets.UTF_8);
+        String expected = play(new ScriptedTerminal(script), seed, quiet ? Renderer.QUIET : new ConsoleRenderer())
+                .getOutput();
+
+        // Terminals and dice are per thread, so replays run on all cores
+        long start = System.nanoTime();
+        long mismatches = IntStream.range(0, times).parallel()
+                .mapToObj(i -> play(new ScriptedTerminal(script), seed, quiet ? Renderer.QUIET : new ConsoleRenderer()))
+                .filter(terminal -> terminal.getRemaining() != 0 || !terminal.getOutput().equals(expected))
+                .count();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d replays of %d answers in %.2f s (%.0f games/s), %d differed from the first%n", times,
+                script.size(), seconds, times / seconds, mismatches);
+    }
+}
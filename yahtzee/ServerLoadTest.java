@@ -0,0 +1,140 @@
+package com.yahtzee;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Measures what a GameServer session costs. Opens many idle sessions and
+// reports heap and resident memory per session, then plays a number of full
+// games with scripted clients that decline every offer and keep no dice, and
+// reports the response latency they saw.
+public class ServerLoadTest {
+    // Prompts end with ": " on a line that starts with one of these
+    private static final List<String> PROMPT_STARTS = List.of("Would you like", "Enter ");
+
+    // Reads server output until the next prompt, or returns null at the end of the session
+    private static String readPrompt(Reader in) throws IOException {
+        StringBuilder text = new StringBuilder();
+        while (true) {
+            int c = in.read();
+            if (c < 0) {
+                return null;
+            }
+            text.append((char) c);
+            if (c == ' ' && text.length() > 1 && text.charAt(text.length() - 2) == ':') {
+                String line = text.substring(text.lastIndexOf("\n") + 1);
+                if (PROMPT_STARTS.stream().anyMatch(line::startsWith)) {
+                    return line;
+                }
+            }
+        }
+    }
+
+    // Plays one game answering every prompt, adding the latency of each answer in nanoseconds
+    private static void playScripted(int port, List<Long> latencies) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            socket.setTcpNoDelay(true);
+            Reader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+            String prompt = readPrompt(in);
+            while (prompt != null) {
+                out.write(prompt.startsWith("Enter the dice you would like to keep") ? "\n" : "n\n");
+                out.flush();
+                long sent = System.nanoTime();
+                prompt = readPrompt(in);
+                if (prompt != null) {
+                    latencies.add(System.nanoTime() - sent);
+                }
+            }
+        }
+    }
+
+    // Resident set size of this process in bytes, or -1 where /proc is not available
+    private static long residentBytes() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Not on Linux
+        }
+        return -1;
+    }
+
+    private static long percentile(List<Long> sorted, double fraction) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(fraction * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+    }
+
+    // Usage: ServerLoadTest [idleSessions] [games] [clientThreads]
+    public static void main(String[] args) throws Exception {
+        int idleSessions = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int clientThreads = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+
+        try (GameServer server = GameServer.start(0)) {
+            long heapBefore = Heap.usedAfterGc();
+            long residentBefore = residentBytes();
+            int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+
+            // Idle sessions: connected and waiting at their first prompt
+            List<Socket> idle = new ArrayList<>(idleSessions);
+            for (int i = 0; i < idleSessions; i++) {
+                Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+                readPrompt(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                idle.add(socket);
+            }
+
+            long heapAfter = Heap.usedAfterGc();
+            long residentAfter = residentBytes();
+            int threadsAfter = ManagementFactory.getThreadMXBean().getThreadCount();
+            System.out.printf("%d idle sessions, %d active on the server%n", idleSessions, server.getActiveSessions());
+            System.out.printf("Heap per session: %.1f KB%n", (heapAfter - heapBefore) / 1024.0 / idleSessions);
+            if (residentBefore >= 0) {
+                System.out.printf("Resident memory per session (heap, stacks and sockets): %.1f KB%n",
+                        (residentAfter - residentBefore) / 1024.0 / idleSessions);
+            }
+            System.out.printf("Platform threads: %d -> %d%n", threadsBefore, threadsAfter);
+
+            // Active sessions, played next to the idle ones
+            List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+            ExecutorService clients = Executors.newFixedThreadPool(clientThreads);
+            List<Future<?>> results = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int i = 0; i < games; i++) {
+                results.add(clients.submit(() -> {
+                    playScripted(server.getPort(), latencies);
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            clients.shutdown();
+
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            System.out.printf("%d games played in %.1f s by %d clients%n", games, seconds, clientThreads);
+            System.out.printf("Client response latency: p50 %.0f us, p99 %.0f us, p99.9 %.0f us (%d responses)%n",
+                    percentile(sorted, 0.5) / 1e3, percentile(sorted, 0.99) / 1e3, percentile(sorted, 0.999) / 1e3,
+                    sorted.size());
+            System.out.println("Server response time: " + server.getResponseTimes());
+
+            for (Socket socket : idle) {
+                socket.close();
+            }
+        }
+    }
+}
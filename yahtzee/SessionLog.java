@@ -0,0 +1,499 @@
+package com.yahtzee;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+// Write-ahead log shared by every hosted session, with group commit.
+//
+// Sessions append small records: a session opened, a category claimed, a
+// round ended, a session resumed, a session closed. Appends from all threads are gathered into
+// one batch, and a single writer thread writes each batch with one channel
+// write and then syncs it according to the FsyncPolicy. The future returned
+// by an append completes once its batch is committed under that policy, so a
+// thousand sessions finishing a round together cost one write and one fsync.
+//
+// The file is a HEADER_SIZE header (magic number and format version)
+// followed by RECORD_SIZE records: session id, type, seat, category, points,
+// round and a CRC32 of the rest. A record with a bad CRC marks the end of the
+// log, which is where a crash mid-write leaves it. recover() rebuilds every
+// open session as of the last round it finished.
+public class SessionLog implements AutoCloseable {
+    public static final int MAGIC = 0x5954574C;
+    public static final short VERSION = 1;
+    public static final int HEADER_SIZE = 8;
+    public static final int RECORD_SIZE = 20;
+
+    private static final int INITIAL_BATCH_SIZE = 64 * 1024;
+    private static final int NO_SEAT = -1;
+
+    // When committed batches are forced to disk
+    public enum FsyncPolicy {
+        // After every batch, before its appends complete
+        EVERY_BATCH,
+        // At most once per interval; appends complete once written
+        INTERVAL,
+        // Never; the operating system writes the file back when it likes
+        NEVER
+    }
+
+    // Kinds of log record
+    public enum RecordType {
+        OPENED(1), CLAIMED(2), ROUND_ENDED(3), CLOSED(4), RESUMED(5);
+
+        private final int code;
+
+        RecordType(int code) {
+            this.code = code;
+        }
+
+        static RecordType fromCode(int code) {
+            for (RecordType type : values()) {
+                if (type.code == code) {
+                    return type;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final FileChannel channel;
+    private final FsyncPolicy policy;
+    private final long maxSessionId;
+    private final long intervalNanos;
+    private final Thread writer;
+
+    // Guarded by this: the batch being filled and the appends waiting on it
+    private ByteBuffer pending = ByteBuffer.allocate(INITIAL_BATCH_SIZE);
+    private List<CompletableFuture<Void>> waiting = new ArrayList<>();
+    private boolean closed;
+
+    private final AtomicLong records = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong syncs = new AtomicLong();
+
+    private SessionLog(FileChannel channel, FsyncPolicy policy, Duration interval, long maxSessionId) {
+        this.channel = channel;
+        this.policy = policy;
+        this.maxSessionId = maxSessionId;
+        this.intervalNanos = interval.toNanos();
+        this.writer = new Thread(this::writeLoop, "yahtzee-session-log");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Opens a log for appending, creating it if needed and cutting off any
+    // incomplete record at its end. The interval only applies to INTERVAL.
+    public static SessionLog open(Path path, FsyncPolicy policy, Duration interval) throws IOException {
+        if (policy == FsyncPolicy.INTERVAL && (interval.isNegative() || interval.isZero())) {
+            throw new IllegalArgumentException("The fsync interval must be positive");
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            long[] maxSessionId = {-1};
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putShort(VERSION)
+                        .putShort((short) 0).flip();
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+                channel.force(true);
+            } else {
+                channel.truncate(scan(channel,
+                        record -> maxSessionId[0] = Math.max(maxSessionId[0], record.getSessionId())));
+            }
+            channel.position(channel.size());
+            return new SessionLog(channel, policy, interval, maxSessionId[0]);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public static SessionLog open(Path path, FsyncPolicy policy) throws IOException {
+        return open(path, policy, Duration.ofMillis(10));
+    }
+
+    // Returns a listener that logs the claims and round ends of one session,
+    // whose players sit in the given seats. The log records the session as
+    // opened at once. When a round ends, the listener waits for that record
+    // to be committed, so a finished round is as durable as the policy allows
+    // before the next one starts.
+    public GameListener listener(long sessionId, List<Player> seats) {
+        append(sessionId, RecordType.OPENED, NO_SEAT, null, 0, 0);
+        return resumedListener(sessionId, seats);
+    }
+
+    // Returns a listener like listener() for a session that is already open
+    // in the log, such as one a client carries on after reconnecting. The log
+    // records the session as resumed at once, which drops the claims of its
+    // unfinished round, since that round is played again.
+    public GameListener resumedListener(long sessionId, List<Player> seats) {
+        append(sessionId, RecordType.RESUMED, NO_SEAT, null, 0, 0);
+        return new GameListener() {
+            private int round;
+
+            @Override
+            public void roundStarted(int round, Map<Player, Integer> scores) {
+                this.round = round;
+            }
+
+            @Override
+            public void categoryScored(Player player, Category category, int points) {
+                append(sessionId, RecordType.CLAIMED, seats.indexOf(player), category, points, round);
+            }
+
+            @Override
+            public void roundEnded(int round, ScoreCard scoreCard, Map<Player, Integer> scores) {
+                append(sessionId, RecordType.ROUND_ENDED, NO_SEAT, null, 0, round).join();
+            }
+        };
+    }
+
+    // Records that a session is over; recover() no longer returns it
+    public CompletableFuture<Void> closeSession(long sessionId) {
+        return append(sessionId, RecordType.CLOSED, NO_SEAT, null, 0, 0);
+    }
+
+    // Adds a record to the next batch. The future completes when the batch
+    // is committed, or exceptionally if writing it fails.
+    public CompletableFuture<Void> append(long sessionId, RecordType type, int seat, Category category, int points,
+            int round) {
+        CompletableFuture<Void> committed = new CompletableFuture<>();
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Session log is closed");
+            }
+            if (pending.remaining() < RECORD_SIZE) {
+                pending = ByteBuffer.allocate(pending.capacity() * 2).put(pending.flip());
+            }
+            int start = pending.position();
+            pending.putLong(sessionId).put((byte) type.code).put((byte) seat)
+                    .put((byte) (category == null ? -1 : category.ordinal())).put((byte) points)
+                    .putShort((short) round).putShort((short) 0);
+            CRC32 crc = new CRC32();
+            crc.update(pending.array(), start, RECORD_SIZE - Integer.BYTES);
+            pending.putInt((int) crc.getValue());
+            waiting.add(committed);
+            if (waiting.size() == 1) {
+                notifyAll();
+            }
+        }
+        return committed;
+    }
+
+    private void writeLoop() {
+        ByteBuffer spare = ByteBuffer.allocate(INITIAL_BATCH_SIZE);
+        long lastSync = System.nanoTime();
+        boolean dirty = false;
+        while (true) {
+            ByteBuffer batch;
+            List<CompletableFuture<Void>> batchWaiting;
+            synchronized (this) {
+                while (waiting.isEmpty() && !closed) {
+                    try {
+                        if (dirty && policy == FsyncPolicy.INTERVAL) {
+                            long wait = intervalNanos - (System.nanoTime() - lastSync);
+                            if (wait <= 0) {
+                                break;
+                            }
+                            wait(wait / 1_000_000, (int) (wait % 1_000_000));
+                        } else {
+                            wait();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                if (waiting.isEmpty() && closed) {
+                    break;
+                }
+                batch = pending;
+                batchWaiting = waiting;
+                pending = spare.clear();
+                waiting = new ArrayList<>();
+            }
+
+            try {
+                batch.flip();
+                while (batch.hasRemaining()) {
+                    channel.write(batch);
+                }
+                if (!batchWaiting.isEmpty()) {
+                    batches.incrementAndGet();
+                    records.addAndGet(batchWaiting.size());
+                    dirty = true;
+                }
+                if (dirty && (policy == FsyncPolicy.EVERY_BATCH
+                        || policy == FsyncPolicy.INTERVAL && System.nanoTime() - lastSync >= intervalNanos)) {
+                    channel.force(false);
+                    syncs.incrementAndGet();
+                    lastSync = System.nanoTime();
+                    dirty = false;
+                }
+                for (CompletableFuture<Void> committed : batchWaiting) {
+                    committed.complete(null);
+                }
+            } catch (IOException e) {
+                for (CompletableFuture<Void> committed : batchWaiting) {
+                    committed.completeExceptionally(e);
+                }
+            }
+            // The written batch is filled next time
+            spare = batch;
+        }
+        if (dirty && policy != FsyncPolicy.NEVER) {
+            try {
+                channel.force(false);
+                syncs.incrementAndGet();
+            } catch (IOException e) {
+                System.err.println("Error: Unable to sync the session log. " + e.getMessage());
+            }
+        }
+    }
+
+    // Records appended and committed so far
+    public long getRecords() {
+        return records.get();
+    }
+
+    // Batches written so far; records per batch is the group commit factor
+    public long getBatches() {
+        return batches.get();
+    }
+
+    public long getSyncs() {
+        return syncs.get();
+    }
+
+    // Highest session id in the log when it was opened, or -1 if it had none
+    public long getMaxSessionId() {
+        return maxSessionId;
+    }
+
+    public FsyncPolicy getPolicy() {
+        return policy;
+    }
+
+    // Commits what is pending, syncs it unless the policy is NEVER, and closes the file
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notifyAll();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    // One decoded log record
+    public static class Record {
+        private final long sessionId;
+        private final RecordType type;
+        private final int seat;
+        private final Category category;
+        private final int points;
+        private final int round;
+
+        public Record(long sessionId, RecordType type, int seat, Category category, int points, int round) {
+            this.sessionId = sessionId;
+            this.type = type;
+            this.seat = seat;
+            this.category = category;
+            this.points = points;
+            this.round = round;
+        }
+
+        public long getSessionId() {
+            return sessionId;
+        }
+
+        public RecordType getType() {
+            return type;
+        }
+
+        public int getSeat() {
+            return seat;
+        }
+
+        public Category getCategory() {
+            return category;
+        }
+
+        public int getPoints() {
+            return points;
+        }
+
+        public int getRound() {
+            return round;
+        }
+    }
+
+    // Reads records from the start of the log until the first incomplete or
+    // damaged one, handing each to the consumer, and returns the offset where
+    // the valid log ends
+    private static long scan(FileChannel channel, Consumer<Record> consumer) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                break;
+            }
+        }
+        if (header.position() < HEADER_SIZE || header.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a session log");
+        }
+        if (header.getShort(Integer.BYTES) != VERSION) {
+            throw new IllegalArgumentException("Unsupported session log version: " + header.getShort(Integer.BYTES));
+        }
+
+        long end = HEADER_SIZE;
+        ByteBuffer block = ByteBuffer.allocate(RECORD_SIZE * 4096);
+        CRC32 crc = new CRC32();
+        while (true) {
+            block.clear();
+            int read = 0;
+            while (block.hasRemaining()) {
+                int n = channel.read(block, end + block.position());
+                if (n < 0) {
+                    break;
+                }
+                read += n;
+            }
+            int records = read / RECORD_SIZE;
+            for (int i = 0; i < records; i++) {
+                int offset = i * RECORD_SIZE;
+                crc.reset();
+                crc.update(block.array(), offset, RECORD_SIZE - Integer.BYTES);
+                RecordType type = RecordType.fromCode(block.get(offset + 8));
+                if (type == null || block.getInt(offset + RECORD_SIZE - Integer.BYTES) != (int) crc.getValue()) {
+                    return end;
+                }
+                int ordinal = block.get(offset + 10);
+                consumer.accept(new Record(block.getLong(offset), type, block.get(offset + 9),
+                        ordinal < 0 ? null : Category.CATEGORIES.get(ordinal), block.get(offset + 11),
+                        block.getShort(offset + 12)));
+                end += RECORD_SIZE;
+            }
+            if (read < block.capacity()) {
+                return end;
+            }
+        }
+    }
+
+    // Rebuilds every session that was opened and not closed, as of the last
+    // round it finished, with players from the given supplier in its seats.
+    // Claims of a round that did not finish are dropped, so that round is
+    // played again; the same goes for claims made before the session was
+    // last resumed.
+    public static Map<Long, Game> recover(Path path, Supplier<List<Player>> seats) throws IOException {
+        Map<Long, List<Player>> players = new HashMap<>();
+        Map<Long, ScoreCard> finished = new HashMap<>();
+        Map<Long, ScoreCard> working = new HashMap<>();
+        Map<Long, Integer> rounds = new HashMap<>();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            scan(channel, record -> {
+                long id = record.getSessionId();
+                switch (record.getType()) {
+                    case OPENED:
+                        players.put(id, seats.get());
+                        finished.put(id, new ScoreCard());
+                        working.put(id, new ScoreCard());
+                        rounds.put(id, 0);
+                        break;
+                    case CLAIMED:
+                        if (players.containsKey(id)) {
+                            working.put(id, working.get(id).addEntry(record.getCategory(), record.getPoints(),
+                                    players.get(id).get(record.getSeat()), record.getRound()));
+                        }
+                        break;
+                    case ROUND_ENDED:
+                        if (players.containsKey(id)) {
+                            finished.put(id, working.get(id));
+                            rounds.put(id, record.getRound());
+                        }
+                        break;
+                    case RESUMED:
+                        if (players.containsKey(id)) {
+                            working.put(id, finished.get(id));
+                        }
+                        break;
+                    default:
+                        players.remove(id);
+                        finished.remove(id);
+                        working.remove(id);
+                        rounds.remove(id);
+                }
+            });
+        }
+        Map<Long, Game> games = new TreeMap<>();
+        for (Map.Entry<Long, ScoreCard> entry : finished.entrySet()) {
+            long id = entry.getKey();
+            games.put(id, new Game(entry.getValue(), rounds.get(id) + 1, players.get(id)));
+        }
+        return games;
+    }
+
+    // Usage: SessionLog <log> [sessions] [threads] [policy]
+    //
+    // Plays computer-vs-computer games as sessions on several threads, all
+    // logging to one log, and reports commits per second and the group commit
+    // factor. Then recovers the log and checks every session matches its game.
+    public static void main(String[] args) throws Exception {
+        Path path = Path.of(args[0]);
+        int sessions = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        FsyncPolicy policy = args.length > 3 ? FsyncPolicy.valueOf(args[3]) : FsyncPolicy.EVERY_BATCH;
+
+        Files.deleteIfExists(path);
+        Map<Long, Game> played = Collections.synchronizedMap(new HashMap<>());
+        long start = System.nanoTime();
+        try (SessionLog log = open(path, policy)) {
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            List<Future<?>> results = new ArrayList<>();
+            for (long id = 0; id < sessions; id++) {
+                long sessionId = id;
+                results.add(pool.submit(() -> {
+                    DiceSource dice = DiceSource.forStream(1, sessionId);
+                    List<Player> seats = List.of(new Computer("Computer 1", dice), new Computer("Computer 2", dice));
+                    Game game = new Game(new ScoreCard(), 1, seats, log.listener(sessionId, seats)).playGame();
+                    played.put(sessionId, game);
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+            pool.shutdown();
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%s: %d records in %d batches (%.1f per batch), %d syncs, %.2f s, %.0f commits/s%n",
+                    policy, log.getRecords(), log.getBatches(), (double) log.getRecords() / log.getBatches(),
+                    log.getSyncs(), seconds, log.getRecords() / seconds);
+        }
+
+        Map<Long, Game> recovered = recover(path, () -> List.of(new Computer("Computer 1", null),
+                new Computer("Computer 2", null)));
+        long matching = recovered.entrySet().stream()
+                .filter(entry -> entry.getValue().getPlayerScores().values().toString()
+                        .equals(played.get(entry.getKey()).getPlayerScores().values().toString()))
+                .count();
+        System.out.printf("Recovered %d sessions, %d matching the games played%n", recovered.size(), matching);
+    }
+}
@@ -0,0 +1,343 @@
+package com.yahtzee;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+// Keeps hosted games by session id, with at most a fixed number in memory.
+//
+// Games live in a least-recently-used cache. When it is full, or when a game
+// has been left idle for too long, the game is written to a file in the
+// store's directory in its binary save form and dropped from memory. The next
+// get() or update() for that session reads it back, so callers never see the
+// difference except in latency. A session is always either resident or on
+// disk, never both.
+//
+// The binary save form holds a game between rounds with the name and kind of
+// each seat, and each claim's owner stored by seat, so put() only takes games
+// whose claims are all by their own players and whose players the save can
+// rebuild. A GameMachine waiting mid-turn is not a Game and cannot be stored.
+// A rehydrated game gets new players with the same names and strategies, and
+// nothing of an evicted game stays in memory. The listener is not part of the
+// save form either: rehydrated games get theirs from the function given to
+// the constructor.
+//
+// Sessions are spread over lock stripes by id; each stripe has its own share
+// of the cache and does its disk work under its own lock.
+public class SessionStore implements AutoCloseable {
+    private static final int STRIPES = 16;
+
+    private static class Resident {
+        Game game;
+        long lastAccessNanos;
+
+        Resident(Game game) {
+            this.game = game;
+            this.lastAccessNanos = System.nanoTime();
+        }
+    }
+
+    private final Path directory;
+    private final Function<Long, GameListener> listeners;
+    private final int maxPerStripe;
+    private final List<LinkedHashMap<Long, Resident>> stripes = new ArrayList<>(STRIPES);
+
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong rehydrations = new AtomicLong();
+    private final LatencyHistogram rehydrationTimes = new LatencyHistogram();
+    private ScheduledExecutorService idleEvictor;
+
+    // Stores evicted games in the given directory, creating it if needed.
+    // maxResident is rounded up to a multiple of the number of stripes.
+    public SessionStore(Path directory, int maxResident, Function<Long, GameListener> listeners) throws IOException {
+        if (maxResident < 1) {
+            throw new IllegalArgumentException("At least one session must fit in memory");
+        }
+        this.directory = Files.createDirectories(directory);
+        this.listeners = listeners;
+        this.maxPerStripe = (maxResident + STRIPES - 1) / STRIPES;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes.add(new LinkedHashMap<>(16, 0.75f, true));
+        }
+    }
+
+    private LinkedHashMap<Long, Resident> stripeOf(long id) {
+        return stripes.get(Math.floorMod(Long.hashCode(id) * 0x9E3779B9, STRIPES));
+    }
+
+    private Path pathOf(long id) {
+        return directory.resolve(id + SaveFile.BINARY_EXTENSION);
+    }
+
+    // Throws IllegalArgumentException if the game has no binary save form
+    private static void checkStorable(Game game) {
+        game.toBinary();
+    }
+
+    // Adds or replaces a session. If making room for it fails, the store is
+    // left as it was before the call.
+    public void put(long id, Game game) throws IOException {
+        checkStorable(game);
+        LinkedHashMap<Long, Resident> stripe = stripeOf(id);
+        synchronized (stripe) {
+            Resident previous = stripe.put(id, new Resident(game));
+            try {
+                evictOverflow(stripe);
+            } catch (IOException | RuntimeException e) {
+                if (previous == null) {
+                    stripe.remove(id);
+                } else {
+                    stripe.put(id, previous);
+                }
+                throw e;
+            }
+            Files.deleteIfExists(pathOf(id));
+        }
+    }
+
+    // Returns a session's game, reading it back from disk if it was evicted.
+    // Throws IllegalArgumentException if there is no such session.
+    public Game get(long id) throws IOException {
+        LinkedHashMap<Long, Resident> stripe = stripeOf(id);
+        synchronized (stripe) {
+            return residentOf(id, stripe).game;
+        }
+    }
+
+    // Applies an input to a session's game and keeps the result. The step
+    // runs under the session's stripe lock, so it should not block.
+    public Game update(long id, UnaryOperator<Game> step) throws IOException {
+        LinkedHashMap<Long, Resident> stripe = stripeOf(id);
+        synchronized (stripe) {
+            Resident resident = residentOf(id, stripe);
+            Game game = step.apply(resident.game);
+            checkStorable(game);
+            resident.game = game;
+            return game;
+        }
+    }
+
+    // Removes a session and returns its game, reading it back from disk if it
+    // was evicted. Throws IllegalArgumentException if there is no such session.
+    public Game take(long id) throws IOException {
+        LinkedHashMap<Long, Resident> stripe = stripeOf(id);
+        synchronized (stripe) {
+            Resident resident = stripe.remove(id);
+            if (resident != null) {
+                return resident.game;
+            }
+            long start = System.nanoTime();
+            Game game = rehydrate(id);
+            Files.delete(pathOf(id));
+            recordRehydration(start);
+            return game;
+        }
+    }
+
+    // Drops a session from memory and disk; returns whether it existed
+    public boolean remove(long id) throws IOException {
+        LinkedHashMap<Long, Resident> stripe = stripeOf(id);
+        synchronized (stripe) {
+            boolean wasResident = stripe.remove(id) != null;
+            return Files.deleteIfExists(pathOf(id)) || wasResident;
+        }
+    }
+
+    private Resident residentOf(long id, LinkedHashMap<Long, Resident> stripe) throws IOException {
+        Resident resident = stripe.get(id);
+        if (resident != null) {
+            resident.lastAccessNanos = System.nanoTime();
+            return resident;
+        }
+
+        long start = System.nanoTime();
+        resident = new Resident(rehydrate(id));
+        stripe.put(id, resident);
+        try {
+            evictOverflow(stripe);
+        } catch (IOException | RuntimeException e) {
+            // The session stays on disk
+            stripe.remove(id);
+            throw e;
+        }
+        Files.delete(pathOf(id));
+        recordRehydration(start);
+        return resident;
+    }
+
+    // Reads an evicted session back with new players and a new listener
+    private Game rehydrate(long id) throws IOException {
+        Path path = pathOf(id);
+        if (!Files.exists(path)) {
+            throw new IllegalArgumentException("No session " + id);
+        }
+        return SaveFile.load(path).withListener(listeners.apply(id));
+    }
+
+    private void recordRehydration(long start) {
+        rehydrationTimes.record(System.nanoTime() - start);
+        rehydrations.incrementAndGet();
+    }
+
+    // Evicts least recently used sessions until the stripe fits
+    private void evictOverflow(LinkedHashMap<Long, Resident> stripe) throws IOException {
+        Iterator<Map.Entry<Long, Resident>> iterator = stripe.entrySet().iterator();
+        while (stripe.size() > maxPerStripe) {
+            Map.Entry<Long, Resident> eldest = iterator.next();
+            evict(eldest.getKey(), eldest.getValue());
+            iterator.remove();
+        }
+    }
+
+    // Writes a session to disk; the caller drops it from memory once this
+    // returns. A failed write leaves no file behind and the session resident.
+    private void evict(long id, Resident resident) throws IOException {
+        Path path = pathOf(id);
+        try {
+            SaveFile.save(resident.game, path);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(path);
+            throw e;
+        }
+        evictions.incrementAndGet();
+    }
+
+    // Evicts every session that has not been used for the given time and
+    // returns how many were evicted
+    public int evictIdle(Duration maxIdle) throws IOException {
+        long cutoff = System.nanoTime() - maxIdle.toNanos();
+        int evicted = 0;
+        for (LinkedHashMap<Long, Resident> stripe : stripes) {
+            synchronized (stripe) {
+                // Access order puts the least recently used first
+                Iterator<Map.Entry<Long, Resident>> iterator = stripe.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<Long, Resident> entry = iterator.next();
+                    if (entry.getValue().lastAccessNanos - cutoff > 0) {
+                        break;
+                    }
+                    evict(entry.getKey(), entry.getValue());
+                    iterator.remove();
+                    evicted++;
+                }
+            }
+        }
+        return evicted;
+    }
+
+    // Writes every resident session to disk, for example before shutting down
+    public void evictAll() throws IOException {
+        evictIdle(Duration.ZERO);
+    }
+
+    // Runs evictIdle on a background thread every interval until close()
+    public synchronized void evictIdleEvery(Duration interval, Duration maxIdle) {
+        if (idleEvictor != null) {
+            throw new IllegalStateException("Idle eviction is already running");
+        }
+        idleEvictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "yahtzee-session-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        idleEvictor.scheduleWithFixedDelay(() -> {
+            try {
+                evictIdle(maxIdle);
+            } catch (IOException e) {
+                System.err.println("Error: Unable to evict idle sessions. " + e.getMessage());
+            }
+        }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // Sessions held in memory
+    public int getResidentSessions() {
+        int resident = 0;
+        for (LinkedHashMap<Long, Resident> stripe : stripes) {
+            synchronized (stripe) {
+                resident += stripe.size();
+            }
+        }
+        return resident;
+    }
+
+    // Sessions held on disk
+    public long getEvictedSessions() throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.filter(SaveFile::isBinary).count();
+        }
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getRehydrations() {
+        return rehydrations.get();
+    }
+
+    // Time taken to read evicted sessions back, in microseconds per percentile
+    public LatencyHistogram getRehydrationTimes() {
+        return rehydrationTimes;
+    }
+
+    // Stops idle eviction. Sessions stay where they are; resident ones are not written out.
+    @Override
+    public synchronized void close() {
+        if (idleEvictor != null) {
+            idleEvictor.shutdownNow();
+            idleEvictor = null;
+        }
+    }
+
+    // Usage: SessionStore <directory> [sessions] [maxResident] [inputs]
+    //
+    // Opens sessions, then sends inputs to random sessions, each advancing the
+    // session a round by filling the next open category, and reports heap use
+    // and the store's metrics.
+    public static void main(String[] args) throws Exception {
+        Path directory = Path.of(args[0]);
+        int sessions = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        int maxResident = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int inputs = args.length > 3 ? Integer.parseInt(args[3]) : 100_000;
+
+        long heapBefore = Heap.usedAfterGc();
+        try (SessionStore store = new SessionStore(directory, maxResident, id -> GameListener.NONE)) {
+            List<Player> seats = List.of(new Human(), new Computer());
+            for (int id = 0; id < sessions; id++) {
+                store.put(id, new Game(new ScoreCard(), 1, seats));
+            }
+            Random random = new Random(1);
+            long start = System.nanoTime();
+            for (int i = 0; i < inputs; i++) {
+                store.update(random.nextInt(sessions), game -> {
+                    if (game.isOver()) {
+                        return game;
+                    }
+                    Player player = game.getPlayers().get(game.getCurrentRound() % 2);
+                    ScoreCard scoreCard = game.getScoreCard().addEntry(game.getCurrentRound(), player,
+                            DiceHand.of(Dice.rollDice(DiceHand.MAX_DICE)));
+                    return new Game(scoreCard, game.getCurrentRound() + 1, game.getPlayers(), game.getListener());
+                });
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            long heapAfter = Heap.usedAfterGc();
+
+            System.out.printf("%d sessions, %d resident, %d on disk%n", sessions, store.getResidentSessions(),
+                    store.getEvictedSessions());
+            System.out.printf("Heap growth: %.1f MB%n", (heapAfter - heapBefore) / 1024.0 / 1024.0);
+            System.out.printf("%d inputs in %.2f s: %d evictions, %d rehydrations%n", inputs, seconds,
+                    store.getEvictions(), store.getRehydrations());
+            LatencyHistogram times = store.getRehydrationTimes();
+            System.out.printf("Rehydration latency: p50 %d us, p99 %d us, p99.9 %d us%n", times.getPercentile(0.5),
+                    times.getPercentile(0.99), times.getPercentile(0.999));
+        }
+    }
+}
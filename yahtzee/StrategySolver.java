@@ -0,0 +1,322 @@
+package com.yahtzee;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Computes the expected-score-optimal solo policy for every set of open categories.
+//
+// A game state is the bitmask of open category ordinals (2^12 states). The
+// category a finished hand goes into is fixed by ScoreCard.getMaxScoringCategory,
+// so the policy only decides which dice to keep. Within a turn the kept dice
+// only grow (see Turn.playTurn), so a decision point is (kept dice, rolled dice,
+// rolls left). A hand that fits no open category scores nothing and leaves the
+// state unchanged, which makes each state's value a fixed point; it is found by
+// policy iteration on the probability of such a wasted turn.
+//
+// States are solved layer by layer in increasing number of open categories.
+// Each layer only depends on the layers below it and is split across a
+// fork-join pool.
+public class StrategySolver {
+    public static final int NUM_STATES = 1 << ScoreTable.NUM_CATEGORIES;
+
+    private static final int MAX_POLICY_ITERATIONS = 200;
+    private static final double EPSILON = 1e-9;
+    private static final int LAYER_SPLIT_THRESHOLD = 16;
+
+    private static final int NUM_KEPT = RerollTable.NUM_KEPT;
+
+    private static final int EMPTY_KEPT = RerollTable.keptIndex(DiceHand.EMPTY);
+
+    // Evaluated turns kept for decisions, direct-mapped by a hash of the open mask
+    private static final int TURN_CACHE_BITS = 8;
+
+    // Solve timing and memory figures for sizing the machines it runs on
+    public static class Report {
+        private final int states;
+        private final int parallelism;
+        private final long elapsedNanos;
+        private final long valueTableBytes;
+        private final long transitionTableBytes;
+        private final long workspaceBytesPerThread;
+        private final long heapUsedBytes;
+
+        public Report(int states, int parallelism, long elapsedNanos, long valueTableBytes,
+                long transitionTableBytes, long workspaceBytesPerThread, long heapUsedBytes) {
+            this.states = states;
+            this.parallelism = parallelism;
+            this.elapsedNanos = elapsedNanos;
+            this.valueTableBytes = valueTableBytes;
+            this.transitionTableBytes = transitionTableBytes;
+            this.workspaceBytesPerThread = workspaceBytesPerThread;
+            this.heapUsedBytes = heapUsedBytes;
+        }
+
+        public int getStates() {
+            return states;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public long getValueTableBytes() {
+            return valueTableBytes;
+        }
+
+        public long getTransitionTableBytes() {
+            return transitionTableBytes;
+        }
+
+        public long getWorkspaceBytesPerThread() {
+            return workspaceBytesPerThread;
+        }
+
+        public long getHeapUsedBytes() {
+            return heapUsedBytes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Solved %d states on %d threads in %.1f ms%n"
+                    + "Value table: %d bytes%n"
+                    + "Transition tables: %d bytes%n"
+                    + "Workspace per thread: %d bytes%n"
+                    + "Heap in use after solve: %d bytes%n",
+                    states, parallelism, elapsedNanos / 1e6, valueTableBytes, transitionTableBytes,
+                    workspaceBytesPerThread, heapUsedBytes);
+        }
+    }
+
+    // Scratch arrays for evaluating one turn
+    private static class Workspace {
+        final double[] finalValue = new double[ScoreTable.NUM_HANDS];
+        final double[] finalWaste = new double[ScoreTable.NUM_HANDS];
+        final double[] lastRollValue = new double[NUM_KEPT];
+        final double[] lastRollWaste = new double[NUM_KEPT];
+        final double[] secondRollValue = new double[NUM_KEPT];
+        final double[] secondRollWaste = new double[NUM_KEPT];
+        double turnValue;
+        double turnWaste;
+
+        static long bytes() {
+            return (2L * ScoreTable.NUM_HANDS + 4L * NUM_KEPT) * Double.BYTES;
+        }
+    }
+
+    private static final class DefaultHolder {
+        static final StrategySolver INSTANCE = solve(ForkJoinPool.commonPool());
+    }
+
+    // Kept values of an evaluated turn for one set of open categories
+    private static final class TurnValues {
+        final int openMask;
+        final double[] lastRollValue;
+        final double[] secondRollValue;
+
+        TurnValues(int openMask, Workspace workspace) {
+            this.openMask = openMask;
+            this.lastRollValue = workspace.lastRollValue;
+            this.secondRollValue = workspace.secondRollValue;
+        }
+    }
+
+    private final double[] stateValues;
+    private final Report report;
+    private final AtomicReferenceArray<TurnValues> turns = new AtomicReferenceArray<>(1 << TURN_CACHE_BITS);
+
+    private StrategySolver(double[] stateValues, Report report) {
+        this.stateValues = stateValues;
+        this.report = report;
+    }
+
+    // Returns a shared solver, solved on first use with the common pool
+    public static StrategySolver getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    // Solves every state, processing each layer of states in parallel on the given pool
+    public static StrategySolver solve(ForkJoinPool pool) {
+        Runtime runtime = Runtime.getRuntime();
+        long start = System.nanoTime();
+
+        double[] values = new double[NUM_STATES];
+        List<List<Integer>> layers = new ArrayList<>();
+        for (int i = 0; i <= ScoreTable.NUM_CATEGORIES; i++) {
+            layers.add(new ArrayList<>());
+        }
+        for (int state = 0; state < NUM_STATES; state++) {
+            layers.get(Integer.bitCount(state)).add(state);
+        }
+
+        ThreadLocal<Workspace> workspaces = ThreadLocal.withInitial(Workspace::new);
+        for (int layer = 1; layer <= ScoreTable.NUM_CATEGORIES; layer++) {
+            int[] states = layers.get(layer).stream().mapToInt(Integer::intValue).toArray();
+            pool.invoke(new LayerTask(states, 0, states.length, values, workspaces));
+        }
+
+        long elapsed = System.nanoTime() - start;
+        long transitionBytes = RerollTable.getTableBytes();
+        Report report = new Report(NUM_STATES, pool.getParallelism(), elapsed, (long) NUM_STATES * Double.BYTES,
+                transitionBytes, Workspace.bytes(), runtime.totalMemory() - runtime.freeMemory());
+        return new StrategySolver(values, report);
+    }
+
+    private static class LayerTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] states;
+        private final int from;
+        private final int to;
+        private final double[] values;
+        private final ThreadLocal<Workspace> workspaces;
+
+        LayerTask(int[] states, int from, int to, double[] values, ThreadLocal<Workspace> workspaces) {
+            this.states = states;
+            this.from = from;
+            this.to = to;
+            this.values = values;
+            this.workspaces = workspaces;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LAYER_SPLIT_THRESHOLD) {
+                Workspace workspace = workspaces.get();
+                for (int i = from; i < to; i++) {
+                    values[states[i]] = solveState(states[i], values, workspace);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new LayerTask(states, from, mid, values, workspaces),
+                    new LayerTask(states, mid, to, values, workspaces));
+        }
+    }
+
+    // Finds the fixed point of a state's value. Under the policy that is optimal
+    // for a guess x, the turn value is linear in x with slope equal to the
+    // probability of a wasted turn; jumping to that line's fixed point and
+    // repeating is policy iteration and only ever increases x.
+    private static double solveState(int openMask, double[] values, Workspace workspace) {
+        double x = 0;
+        for (int i = 0; i < MAX_POLICY_ITERATIONS; i++) {
+            evaluateTurn(openMask, x, values, workspace);
+            double waste = workspace.turnWaste;
+            if (waste >= 1 - EPSILON) {
+                break;
+            }
+            double next = (workspace.turnValue - waste * x) / (1 - waste);
+            if (Math.abs(next - x) <= EPSILON * Math.max(1, Math.abs(next))) {
+                return next;
+            }
+            x = next;
+        }
+        return x;
+    }
+
+    // Backward induction over the three rolls of a turn. wasteValue is the value
+    // of a turn whose final hand fits no open category.
+    private static void evaluateTurn(int openMask, double wasteValue, double[] values, Workspace w) {
+        for (int handIndex = 0; handIndex < ScoreTable.NUM_HANDS; handIndex++) {
+            int ordinal = ScoreTable.getMaxScoringOrdinal(handIndex, openMask);
+            if (ordinal < 0) {
+                w.finalValue[handIndex] = wasteValue;
+                w.finalWaste[handIndex] = 1;
+            } else {
+                w.finalValue[handIndex] = ScoreTable.getScore(handIndex, Category.CATEGORIES.get(ordinal))
+                        + values[openMask & ~(1 << ordinal)];
+                w.finalWaste[handIndex] = 0;
+            }
+        }
+
+        // Before the third roll: everything not kept is rolled once more
+        for (int k = 0; k < NUM_KEPT; k++) {
+            w.lastRollValue[k] = RerollTable.expectedValue(k, w.finalValue);
+            w.lastRollWaste[k] = RerollTable.expectedValue(k, w.finalWaste);
+        }
+
+        // Before the second roll: roll, then keep the best subset for the third roll
+        for (int k = 0; k < NUM_KEPT; k++) {
+            double value = 0;
+            double waste = 0;
+            for (int o = RerollTable.getStart(k); o < RerollTable.getEnd(k); o++) {
+                int best = RerollTable.bestOption(o, w.lastRollValue);
+                value += RerollTable.getProbability(o) * w.lastRollValue[best];
+                waste += RerollTable.getProbability(o) * w.lastRollWaste[best];
+            }
+            w.secondRollValue[k] = value;
+            w.secondRollWaste[k] = waste;
+        }
+
+        double value = 0;
+        double waste = 0;
+        for (int o = RerollTable.getStart(EMPTY_KEPT); o < RerollTable.getEnd(EMPTY_KEPT); o++) {
+            int best = RerollTable.bestOption(o, w.secondRollValue);
+            value += RerollTable.getProbability(o) * w.secondRollValue[best];
+            waste += RerollTable.getProbability(o) * w.secondRollWaste[best];
+        }
+        w.turnValue = value;
+        w.turnWaste = waste;
+    }
+
+    public Report getReport() {
+        return report;
+    }
+
+    // Expected solo score from a state with the given open categories
+    public double getExpectedScore(int openMask) {
+        return stateValues[openMask];
+    }
+
+    // Expected final score of every kept multiset with one or two rolls left,
+    // indexed by kept index. Evaluated turns are shared by every thread in a
+    // small direct-mapped cache, so the later decisions of a turn reuse the
+    // first one's work and memory stays fixed however many threads decide.
+    private double[] keptValues(int openMask, int rollsLeft) {
+        int slot = (openMask * 0x9E3779B9) >>> (Integer.SIZE - TURN_CACHE_BITS);
+        TurnValues values = turns.get(slot);
+        if (values == null || values.openMask != openMask) {
+            Workspace workspace = new Workspace();
+            evaluateTurn(openMask, stateValues[openMask], stateValues, workspace);
+            values = new TurnValues(openMask, workspace);
+            turns.set(slot, values);
+        }
+        return rollsLeft >= 2 ? values.secondRollValue : values.lastRollValue;
+    }
+
+    // Returns the dice from diceRolls to add to keptDice that maximise the
+    // expected score with the given number of rolls left in the turn
+    public List<Integer> getBestKeep(int openMask, List<Integer> keptDice, List<Integer> diceRolls, int rollsLeft) {
+        DiceHand kept = DiceHand.of(keptDice);
+        DiceHand rolled = DiceHand.of(diceRolls);
+        if (rollsLeft <= 0) {
+            return rolled.toList();
+        }
+        double[] keptValues = keptValues(openMask, rollsLeft);
+
+        DiceHand best = rolled;
+        double bestValue = keptValues[RerollTable.keptIndex(kept.add(rolled))];
+        for (DiceHand subset : RerollTable.subsets(rolled)) {
+            double value = keptValues[RerollTable.keptIndex(kept.add(subset))];
+            if (value > bestValue) {
+                best = subset;
+                bestValue = value;
+            }
+        }
+        return best.toList();
+    }
+
+    // Prints solve time and memory use for the default pool
+    public static void main(String[] args) {
+        StrategySolver solver = solve(ForkJoinPool.commonPool());
+        System.out.print(solver.getReport());
+        System.out.printf("Expected score from an empty scorecard: %.3f%n",
+                solver.getExpectedScore(NUM_STATES - 1));
+    }
+}
@@ -0,0 +1,199 @@
+package com.yahtzee;
+
+import java.util.*;
+
+// The rules of a turn as an explicit state machine. Turn.playTurn drives it
+// on the calling thread with play(); GameMachine drives it without blocking.
+//
+// After each roll but the last the turn waits in AWAITING_STAND, then in
+// AWAITING_KEEP unless the player stood. A Computer answers on the spot; for
+// any other player the machine stops and waits for stand() or keep() to be
+// called with that player's answer, or for play() to ask the player. Once the
+// dice are final the turn is SCORED. Dice always come from the given
+// provider, and the listener sees the same events however the turn is driven.
+public class TurnMachine {
+    public static final int MAX_ROLLS = 3;
+
+    public enum State {
+        AWAITING_STAND, AWAITING_KEEP, SCORED
+    }
+
+    private final Player player;
+    private final ScoreCard scoreCard;
+    private final DiceProvider dice;
+    private final GameListener listener;
+
+    private final List<Integer> keptDice = new ArrayList<>(DiceHand.MAX_DICE);
+    private List<Integer> diceRolls = List.of();
+    private int currentRoll;
+    private State state;
+    private long startNanos;
+
+    public TurnMachine(Player player, ScoreCard scoreCard, DiceProvider dice, GameListener listener) {
+        this.player = player;
+        this.scoreCard = scoreCard;
+        this.dice = dice;
+        this.listener = listener;
+    }
+
+    // Takes the first roll and advances as far as possible without input
+    public State start() {
+        if (state != null) {
+            throw new IllegalStateException("Turn already started");
+        }
+        startNanos = Metrics.TURN.start();
+        roll();
+        if (player instanceof Computer) {
+            while (state != State.SCORED) {
+                answer();
+            }
+        }
+        return state;
+    }
+
+    // Plays the whole turn on the calling thread, asking the player for every
+    // answer, and returns the final dice
+    public List<Integer> play() {
+        start();
+        while (state != State.SCORED) {
+            answer();
+        }
+        return getFinalDice();
+    }
+
+    // Asks the player for the answer the turn waits on. This blocks for as
+    // long as the player takes, which for a person means until they type it.
+    private void answer() {
+        if (state == State.AWAITING_STAND) {
+            if (player.wantsHelp()) {
+                listener.helpGiven(player, getHelp());
+            }
+            boolean stands;
+            AllocationProfiler.enter(AllocationProfiler.Phase.STAND);
+            try {
+                stands = player.wantsToStand(scoreCard, keptDice, diceRolls, rollsLeft());
+            } finally {
+                AllocationProfiler.exit(AllocationProfiler.Phase.STAND);
+            }
+            stand(stands);
+        } else {
+            List<Integer> diceToKeep;
+            AllocationProfiler.enter(AllocationProfiler.Phase.KEEP);
+            try {
+                diceToKeep = player.getDiceToKeep(scoreCard, diceRolls, keptDice, rollsLeft());
+            } finally {
+                AllocationProfiler.exit(AllocationProfiler.Phase.KEEP);
+            }
+            keep(diceToKeep);
+        }
+    }
+
+    // Answers AWAITING_STAND: true ends the turn with the current dice
+    public State stand(boolean stand) {
+        expect(State.AWAITING_STAND);
+        if (stand) {
+            listener.stood(player);
+            finish(diceRolls);
+        } else {
+            state = State.AWAITING_KEEP;
+        }
+        return state;
+    }
+
+    // Answers AWAITING_KEEP with the dice to set aside from the last roll.
+    // Throws IllegalArgumentException if they were not all rolled.
+    public State keep(List<Integer> diceToKeep) {
+        expect(State.AWAITING_KEEP);
+        if (!helperFunctions.difference(diceToKeep, diceRolls).isEmpty()) {
+            throw new IllegalArgumentException("Only rolled dice can be kept");
+        }
+        listener.diceKept(player, diceToKeep);
+        keptDice.addAll(diceToKeep);
+        if (keptDice.size() == DiceHand.MAX_DICE) {
+            listener.allDiceKept(player);
+            finish(List.of());
+            return state;
+        }
+        listener.keepFinished(player, scoreCard, keptDice, rollsLeft());
+        roll();
+        return state;
+    }
+
+    private void expect(State expected) {
+        if (state != expected) {
+            throw new IllegalStateException("Turn is " + state + ", not " + expected);
+        }
+    }
+
+    private int rollsLeft() {
+        return MAX_ROLLS - currentRoll;
+    }
+
+    private void roll() {
+        currentRoll++;
+        listener.rollStarted(player, currentRoll, scoreCard, keptDice);
+        AllocationProfiler.enter(AllocationProfiler.Phase.ROLL);
+        try {
+            diceRolls = dice.roll(DiceHand.MAX_DICE - keptDice.size());
+        } finally {
+            AllocationProfiler.exit(AllocationProfiler.Phase.ROLL);
+        }
+        listener.diceRolled(player, scoreCard, keptDice, diceRolls);
+
+        if (currentRoll == MAX_ROLLS) {
+            listener.lastRollTaken(player);
+            finish(diceRolls);
+            return;
+        }
+        state = State.AWAITING_STAND;
+    }
+
+    private void finish(List<Integer> lastDice) {
+        keptDice.addAll(lastDice);
+        diceRolls = List.of();
+        state = State.SCORED;
+        listener.turnEnded(player, keptDice);
+        Metrics.TURN.stop(startNanos);
+    }
+
+    // Advice for the player waiting on this turn, as a Computer would give it
+    public String getHelp() {
+        if (state != State.AWAITING_STAND && state != State.AWAITING_KEEP) {
+            throw new IllegalStateException("Help is only given while the turn waits for input");
+        }
+        AllocationProfiler.enter(AllocationProfiler.Phase.HELP);
+        try {
+            return new Computer().getHelp(scoreCard, keptDice, diceRolls, rollsLeft());
+        } finally {
+            AllocationProfiler.exit(AllocationProfiler.Phase.HELP);
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    // Roll number of the last roll, 1 to 3
+    public int getRollNumber() {
+        return currentRoll;
+    }
+
+    public List<Integer> getKeptDice() {
+        return Collections.unmodifiableList(keptDice);
+    }
+
+    // Dice of the last roll that have not been kept yet
+    public List<Integer> getDiceRolls() {
+        return diceRolls;
+    }
+
+    // The final five dice once the turn is SCORED
+    public List<Integer> getFinalDice() {
+        expect(State.SCORED);
+        return Collections.unmodifiableList(keptDice);
+    }
+}
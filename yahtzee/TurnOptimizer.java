@@ -0,0 +1,148 @@
+package com.yahtzee;
+
+import java.util.*;
+
+// Chooses dice to keep by exact expectimax over the rest of a turn.
+//
+// Unlike StrategySolver, which solves the whole game once, this looks only at
+// the current turn and needs no precomputation. A finished hand is worth the
+// value function of the category ScoreCard.getMaxScoringCategory would claim
+// with it, or nothing if no open category fits. Before each reroll the player
+// picks the best of every distinct sub-multiset of the roll to keep, and the
+// reroll averages over the exact outcome distribution from RerollTable.
+//
+// The expected value of a kept multiset with a given number of rolls left is
+// memoized per thread for the last set of open categories seen, so the later
+// decisions of a turn reuse the earlier ones. A cold decision with two rolls
+// left visits each of the 462 kept multisets at most once per roll.
+public class TurnOptimizer {
+    // How many rerolls can follow a decision
+    public static final int MAX_ROLLS_LEFT = 2;
+
+    private static final int NUM_KEPT = RerollTable.NUM_KEPT;
+
+    // Value of claiming a category with the given points; higher is better
+    @FunctionalInterface
+    public interface CategoryValue {
+        double value(Category category, int points);
+
+        // Every point is worth the same in every category
+        CategoryValue POINTS = (category, points) -> points;
+
+        // Points scaled by a weight per category; categories without a weight count as 1
+        static CategoryValue weighted(Map<Category, Double> weights) {
+            double[] byOrdinal = new double[ScoreTable.NUM_CATEGORIES];
+            Arrays.fill(byOrdinal, 1);
+            for (Map.Entry<Category, Double> weight : weights.entrySet()) {
+                byOrdinal[weight.getKey().ordinal()] = weight.getValue();
+            }
+            return (category, points) -> byOrdinal[category.ordinal()] * points;
+        }
+    }
+
+    // Terminal hand values and memoized expectations for one set of open categories
+    private final class Memo {
+        int openMask = -1;
+        final double[] handValues = new double[ScoreTable.NUM_HANDS];
+
+        // expected[r][k] is the value of rolling the dice not in kept multiset
+        // k with r more rolls to follow, or NaN until computed
+        final double[][] expected = new double[MAX_ROLLS_LEFT + 1][NUM_KEPT];
+
+        void reset(int openMask) {
+            this.openMask = openMask;
+            for (int hand = 0; hand < ScoreTable.NUM_HANDS; hand++) {
+                int ordinal = ScoreTable.getMaxScoringOrdinal(hand, openMask);
+                if (ordinal < 0) {
+                    handValues[hand] = wasteValue;
+                } else {
+                    Category category = Category.CATEGORIES.get(ordinal);
+                    handValues[hand] = categoryValue.value(category, ScoreTable.getScore(hand, category));
+                }
+            }
+            for (double[] values : expected) {
+                Arrays.fill(values, Double.NaN);
+            }
+        }
+
+        double expected(int keptIndex, int rollsLeft) {
+            double value = expected[rollsLeft][keptIndex];
+            if (!Double.isNaN(value)) {
+                return value;
+            }
+            if (rollsLeft == 0) {
+                value = RerollTable.expectedValue(keptIndex, handValues);
+            } else {
+                value = 0;
+                for (int o = RerollTable.getStart(keptIndex); o < RerollTable.getEnd(keptIndex); o++) {
+                    double best = Double.NEGATIVE_INFINITY;
+                    for (int option = RerollTable.getOptionStart(o); option < RerollTable.getOptionEnd(o); option++) {
+                        best = Math.max(best, expected(RerollTable.getOption(option), rollsLeft - 1));
+                    }
+                    value += RerollTable.getProbability(o) * best;
+                }
+            }
+            expected[rollsLeft][keptIndex] = value;
+            return value;
+        }
+    }
+
+    private final CategoryValue categoryValue;
+    private final double wasteValue;
+    private final ThreadLocal<Memo> memos = ThreadLocal.withInitial(Memo::new);
+
+    // Constructor: Maximizes the expected points of the turn
+    public TurnOptimizer() {
+        this(CategoryValue.POINTS, 0);
+    }
+
+    // Constructor: Maximizes the expected category value, counting wasteValue
+    // for a hand that fits no open category
+    public TurnOptimizer(CategoryValue categoryValue, double wasteValue) {
+        this.categoryValue = categoryValue;
+        this.wasteValue = wasteValue;
+    }
+
+    private Memo memo(int openMask) {
+        Memo memo = memos.get();
+        if (memo.openMask != openMask) {
+            memo.reset(openMask);
+        }
+        return memo;
+    }
+
+    // Expected value of the turn from here if the given dice are kept and the
+    // rest rolled with rollsLeft rolls, this one included
+    public double getExpectedValue(ScoreCard scoreCard, List<Integer> keptDice, int rollsLeft) {
+        if (rollsLeft < 1 || rollsLeft > MAX_ROLLS_LEFT + 1) {
+            throw new IllegalArgumentException("Rolls left must be between 1 and " + (MAX_ROLLS_LEFT + 1));
+        }
+        return memo(scoreCard.getOpenCategoryMask()).expected(RerollTable.keptIndex(DiceHand.of(keptDice)),
+                rollsLeft - 1);
+    }
+
+    // Returns the dice from diceRolls to add to keptDice that maximize the
+    // expected value with the given number of rolls left in the turn. Ties go
+    // to keeping more dice, and keeping all of them means standing.
+    public List<Integer> getBestKeep(ScoreCard scoreCard, List<Integer> keptDice, List<Integer> diceRolls,
+            int rollsLeft) {
+        DiceHand kept = DiceHand.of(keptDice);
+        DiceHand rolled = DiceHand.of(diceRolls);
+        if (rollsLeft <= 0) {
+            return rolled.toList();
+        }
+        Memo memo = memo(scoreCard.getOpenCategoryMask());
+        int after = Math.min(rollsLeft, MAX_ROLLS_LEFT) - 1;
+
+        DiceHand best = rolled;
+        double bestValue = memo.expected(RerollTable.keptIndex(kept.add(rolled)), after);
+        for (DiceHand subset : RerollTable.subsets(rolled)) {
+            double value = memo.expected(RerollTable.keptIndex(kept.add(subset)), after);
+            if (value > bestValue) {
+                best = subset;
+                bestValue = value;
+            }
+        }
+        return best.toList();
+    }
+}
@@ -235,10 +235,9 @@ public class helperFunctions {
         return result;
     }
 
-    // Generates a random boolean value
+    // Generates a random boolean value from the calling thread's DiceSource
     public static boolean randomBool() {
-        Random random = new Random();
-        return random.nextBoolean();
+        return DiceSource.current().nextBoolean();
     }
 
     // Function to return the reversed version of a given list.
@@ -6,24 +6,27 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.Scanner;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 
 public class ioFunctions {
 
     // Prompts the user with a yes/no question and returns true for 'y' and false
     // for 'n'.
     public static boolean getYesNo(String prompt) {
-        Scanner scanner = new Scanner(System.in);
+        GameTerminal terminal = GameTerminal.current();
         String response;
         while (true) {
-            System.out.print(prompt + " (y/n): ");
-            response = scanner.nextLine();
-            System.out.println();
+            terminal.print(prompt + " (y/n): ");
+            response = terminal.readLine();
+            terminal.println();
             if (response.equals("y")) {
                 return true;
             } else if (response.equals("n")) {
                 return false;
             } else {
-                System.out.println("Invalid response. Please enter 'y' or 'n'.");
+                terminal.println("Invalid response. Please enter 'y' or 'n'.");
             }
         }
     }
@@ -31,20 +34,20 @@ public class ioFunctions {
     // Prompts the user to input a manual die roll value between 1 and 6 and
     // validates the input.
     public static int getManualDieRoll() {
-        Scanner scanner = new Scanner(System.in);
+        GameTerminal terminal = GameTerminal.current();
         String response;
         while (true) {
-            System.out.print("Enter the value of the die roll: ");
-            response = scanner.nextLine();
+            terminal.print("Enter the value of the die roll: ");
+            response = terminal.readLine();
             try {
                 int i = Integer.parseInt(response);
                 if (i >= 1 && i <= 6) {
                     return i;
                 } else {
-                    System.out.println("Invalid response. Please enter an integer between 1 and 6.");
+                    terminal.println("Invalid response. Please enter an integer between 1 and 6.");
                 }
             } catch (NumberFormatException e) {
-                System.out.println("Invalid response. Please enter an integer between 1 and 6.");
+                terminal.println("Invalid response. Please enter an integer between 1 and 6.");
             }
         }
     }
@@ -68,25 +71,25 @@ public class ioFunctions {
     // Prompts the user to manually input a set of dice rolls and validates the
     // input.
     public static List<Integer> getManualDiceRoll(int numDice) {
-        Scanner scanner = new Scanner(System.in);
+        GameTerminal terminal = GameTerminal.current();
         List<Integer> diceRolls = new ArrayList<>();
         String response;
 
-        System.out.print("Enter " + numDice + " dice rolls separated by spaces: ");
-        response = scanner.nextLine();
+        terminal.print("Enter " + numDice + " dice rolls separated by spaces: ");
+        response = terminal.readLine();
         Scanner iss = new Scanner(response);
         while (iss.hasNextInt()) {
             int i = iss.nextInt();
             if (i >= 1 && i <= 6) {
                 diceRolls.add(i);
             } else {
-                System.out.println("Invalid response. Please enter an integer between 1 and 6. Please try again.");
+                terminal.println("Invalid response. Please enter an integer between 1 and 6. Please try again.");
                 return getManualDiceRoll(numDice);
             }
         }
 
         if (diceRolls.size() != numDice) {
-            System.out.println(
+            terminal.println(
                     "Invalid response. Please enter " + numDice + " integers between 1 and 6. Please try again.");
             return getManualDiceRoll(numDice);
         }
@@ -96,11 +99,7 @@ public class ioFunctions {
 
     // Automatically generates a set of random dice rolls.
     public static List<Integer> getAutoDiceRoll(int numDice) {
-        List<Integer> rolls = new ArrayList<>();
-        for (int i = 0; i < numDice; i++) {
-            rolls.add(getAutoDieRoll());
-        }
-        return rolls;
+        return Dice.rollDice(numDice);
     }
 
     // Determines whether to manually roll a set of dice or automatically roll them
@@ -116,7 +115,7 @@ public class ioFunctions {
 
     // Displays a simple message to the user
     public static void showMessage(String message) {
-        System.out.println(message);
+        GameTerminal.current().println(message);
     }
 
     // Conducts a tie-breaker where both human and computer roll a die. Returns true
@@ -129,51 +128,51 @@ public class ioFunctions {
 
         int humanRoll = getDieRoll();
         int computerRoll;
-        System.out.println("\n");
+        GameTerminal.current().println("\n");
         if (humanWantsToRollForComputer()) {
             computerRoll = getManualDieRoll();
         } else {
             computerRoll = getAutoDieRoll();
         }
 
-        System.out.println("You rolled a " + humanRoll);
-        System.out.println("The computer rolled a " + computerRoll);
+        GameTerminal.current().println("You rolled a " + humanRoll);
+        GameTerminal.current().println("The computer rolled a " + computerRoll);
 
         if (humanRoll > computerRoll) {
-            System.out.println("You go first!\n");
+            GameTerminal.current().println("You go first!\n");
             return true;
         } else if (computerRoll > humanRoll) {
-            System.out.println("The computer goes first!\n");
+            GameTerminal.current().println("The computer goes first!\n");
             return false;
         }
 
-        System.out.println("It's a tie! Rolling again.\n");
+        GameTerminal.current().println("It's a tie! Rolling again.\n");
         return humanWonTieBreaker();
     }
 
     // Prompts the user to select specific dice to keep and validates that they were
     // originally rolled.
     public static List<Integer> getDiceToKeep(List<Integer> diceRolls) {
-        Scanner scanner = new Scanner(System.in);
+        GameTerminal terminal = GameTerminal.current();
         List<Integer> diceToKeep = new ArrayList<>();
         String response;
 
-        System.out.print("Enter the dice you would like to keep separated by spaces: ");
-        response = scanner.nextLine();
+        terminal.print("Enter the dice you would like to keep separated by spaces: ");
+        response = terminal.readLine();
         Scanner iss = new Scanner(response);
         while (iss.hasNextInt()) {
             int i = iss.nextInt();
             if (i >= 1 && i <= 6) {
                 diceToKeep.add(i);
             } else {
-                System.out.println("Invalid response. Please enter an integer between 1 and 6. Please try again.");
+                terminal.println("Invalid response. Please enter an integer between 1 and 6. Please try again.");
                 return getDiceToKeep(diceRolls);
             }
         }
 
         for (int die : diceToKeep) {
             if (!diceRolls.contains(die)) {
-                System.out.println("Invalid response. Please enter a die that was rolled. Please try again.");
+                terminal.println("Invalid response. Please enter a die that was rolled. Please try again.");
                 return getDiceToKeep(diceRolls);
             }
         }
@@ -183,15 +182,19 @@ public class ioFunctions {
 
     // Converts a list of integers into a string representation.
     public static String toStringVector(List<Integer> vec) {
-        StringBuilder str = new StringBuilder("[");
+        return appendVector(new StringBuilder(), vec).toString();
+    }
+
+    // Appends the toStringVector form of the dice
+    static StringBuilder appendVector(StringBuilder str, List<Integer> vec) {
+        str.append("[");
         for (int i = 0; i < vec.size(); i++) {
             str.append(vec.get(i));
             if (i != vec.size() - 1) {
                 str.append(", ");
             }
         }
-        str.append("]");
-        return str.toString();
+        return str.append("]");
     }
 
     // // Displays the available score categories to the user.
@@ -207,13 +210,18 @@ public class ioFunctions {
 
     // Displays the available score categories to the user.
     public static void showCategories(List<Category> categories) {
+        GameTerminal.current().print(appendCategories(new StringBuilder(), categories).toString());
+    }
+
+    // Appends the showCategories listing, one category name per line
+    static StringBuilder appendCategories(StringBuilder str, List<Category> categories) {
         for (int i = 0; i < categories.size(); i++) {
-            System.out.print(Category.CATEGORY_NAMES.get(categories.get(i)));
+            str.append(Category.CATEGORY_NAMES.get(categories.get(i)));
             if (i != categories.size() - 1) {
-                System.out.print("\n");
+                str.append("\n");
             }
         }
-        System.out.print('\n');
+        return str.append("\n");
     }
 
     // Prompts the user to load a saved game.
@@ -254,56 +262,57 @@ public class ioFunctions {
     // return getSerial();
     // }
     // }
-    public static String getSerial() {
-        Scanner scanner = new Scanner(System.in);
-        String serial;
-        System.out.print("Enter the name of the file you would like to load: ");
-        serial = scanner.nextLine();
-
-        File file = new File(serial);
-        if (!file.exists() || !file.canRead()) {
-            System.err.println("Error: File does not exist or cannot be opened.");
-            System.out.println("Please try again.");
-            return getSerial();
+
+    // Prompts for a saved game file and loads it, in the binary format for
+    // files ending in .ysav and the text format otherwise. Asks again until a
+    // valid save is read.
+    public static Game getSavedGame() {
+        GameTerminal terminal = GameTerminal.current();
+        terminal.print("Enter the name of the file you would like to load: ");
+        Path path;
+        try {
+            path = Path.of(terminal.readLine());
+        } catch (InvalidPathException e) {
+            path = null;
         }
 
-        try (Scanner fileScanner = new Scanner(file)) {
-            StringBuilder serialString = new StringBuilder();
-            while (fileScanner.hasNextLine()) {
-                serialString.append(fileScanner.nextLine()).append("\n");
-            }
-            if (serialString.length() == 0) {
-                System.err.println("Error: File is empty.");
-                System.out.println("Please try again.");
-                return getSerial();
-            }
-            return serialString.toString();
-        } catch (FileNotFoundException e) {
-            System.err.println("Error: File not found.");
-            System.out.println("Please try again.");
-            return getSerial();
+        if (path == null || !Files.isRegularFile(path) || !Files.isReadable(path)) {
+            terminal.println("Error: File does not exist or cannot be opened.");
+            terminal.println("Please try again.");
+            return getSavedGame();
         }
-    }
 
-    
+        try {
+            return SaveFile.load(path);
+        } catch (IOException e) {
+            terminal.println("Error: Unable to read the file.");
+        } catch (IllegalArgumentException e) {
+            terminal.println("Error: " + e.getMessage() + ".");
+        }
+        terminal.println("Please try again.");
+        return getSavedGame();
+    }
 
-    public static void saveGameProcedure(String serial) {
+    // Offers to save the game and exit. Files ending in .ysav are saved in the
+    // compact binary format, anything else as text. Returns true if the game
+    // was saved and the program should end.
+    public static boolean saveGameProcedure(Game game) {
         if (getYesNo("Would you like to save the game and exit?")) {
-            Scanner scanner = new Scanner(System.in);
-            System.out.print("Enter the name of the file you would like to save: ");
-            String fileName = scanner.nextLine();
-    
-            try (PrintWriter out = new PrintWriter(new FileWriter(fileName))) {
-                out.print(serial);
-                System.out.println("Game saved successfully.");
-                System.exit(0);
-            } catch (IOException e) {
-                System.err.println("Error: Unable to save the file.");
+            GameTerminal terminal = GameTerminal.current();
+            terminal.print("Enter the name of the file you would like to save: ");
+            String fileName = terminal.readLine();
+
+            try {
+                SaveFile.save(game, Path.of(fileName));
+                terminal.println("Game saved successfully.");
+                return true;
+            } catch (IOException | InvalidPathException e) {
+                terminal.println("Error: Unable to save the file.");
             }
         }
+        return false;
     }
 
-    // Asks the user if they want to stand (not reroll dice).
     public static boolean wantsToStand() {
         return getYesNo("Would you like to stand?");
     }
@@ -337,25 +346,35 @@ public class ioFunctions {
 
     // Displays potential scoring opportunities for the current roll.
     public static void showCategoryPursuits(Map<Category, Reason> categoryPursuits) {
+        GameTerminal.current().print(appendCategoryPursuits(new StringBuilder(), categoryPursuits).toString());
+    }
+
+    // Appends the showCategoryPursuits lines
+    static StringBuilder appendCategoryPursuits(StringBuilder str, Map<Category, Reason> categoryPursuits) {
         List<Reason> reasons = new ArrayList<>(categoryPursuits.values());
         reasons.sort(Comparator.comparingInt(a -> a.getMaxScore()));
 
-        System.out.println("Current dice: " + toStringVector(reasons.get(0).getCurrentDice()));
+        appendVector(str.append("Current dice: "), reasons.get(0).getCurrentDice()).append("\n");
 
         for (Map.Entry<Category, Reason> entry : categoryPursuits.entrySet()) {
             Reason reason = entry.getValue();
+            str.append("Can get ").append(Category.CATEGORY_NAMES.get(reason.getPursuedCategory()));
             if (reason.getMinScore() == 0) {
-                System.out.println("Can get " + Category.CATEGORY_NAMES.get(reason.getPursuedCategory()) +
-                        " with a score of " + reason.getMaxScore() +
-                        " by rolling " + toStringVector(reason.getRollToGetMax()));
-                continue;
+                str.append(" with a score of ").append(reason.getMaxScore()).append(" by rolling ");
+            } else {
+                str.append(" with a minimum score of ").append(reason.getMinScore()).append(" by getting ");
+                appendVector(str, reason.getRollToGetMin()).append(" and a maximum score of ")
+                        .append(reason.getMaxScore()).append(" by rolling ");
             }
-            System.out.println("Can get " + Category.CATEGORY_NAMES.get(reason.getPursuedCategory()) +
-                    " with a minimum score of " + reason.getMinScore() +
-                    " by getting " + toStringVector(reason.getRollToGetMin()) +
-                    " and a maximum score of " + reason.getMaxScore() +
-                    " by rolling " + toStringVector(reason.getRollToGetMax()));
+            appendVector(str, reason.getRollToGetMax()).append(toStringOdds(reason)).append("\n");
         }
+        return str;
+    }
+
+    // Formats the chance of scoring in a pursued category and its expected score
+    public static String toStringOdds(Reason reason) {
+        return String.format(" (%.1f%% chance, expected score %.2f)", reason.getProbability() * 100,
+                reason.getExpectedScore());
     }
 
     // Asks if human wants help or not
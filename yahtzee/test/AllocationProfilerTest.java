@@ -0,0 +1,72 @@
+package com.yahtzee;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+// Phases that throw still exit, so the thread's profile stays usable
+class AllocationProfilerTest {
+    @BeforeEach
+    void needsAllocationCounting() {
+        assumeTrue(AllocationProfiler.isSupported());
+    }
+
+    // Goes away, as a disconnected client does, when asked which dice to keep
+    private static final class LeavingPlayer extends Player {
+        LeavingPlayer() {
+            super("Leaving", numDice -> Collections.nCopies(numDice, 3));
+        }
+
+        @Override
+        public boolean wantsHelp() {
+            return false;
+        }
+
+        @Override
+        public boolean wantsToStand(ScoreCard scoreCard, List<Integer> keptDice, List<Integer> diceRolls,
+                int rollsLeft) {
+            return false;
+        }
+
+        @Override
+        public List<Integer> getDiceToKeep(ScoreCard scoreCard, List<Integer> diceRolls, List<Integer> keptDice,
+                int rollsLeft) {
+            throw new NoSuchElementException("Client disconnected");
+        }
+    }
+
+    @Test
+    void throwingPhaseExits() {
+        AllocationProfiler.begin();
+        AllocationProfiler profile;
+        try {
+            assertThrows(NoSuchElementException.class,
+                    () -> Turn.playTurn(new LeavingPlayer(), new ScoreCard(), GameListener.NONE));
+            // Had KEEP been left open, this would throw
+            AllocationProfiler.enter(AllocationProfiler.Phase.ROLL);
+            AllocationProfiler.exit(AllocationProfiler.Phase.ROLL);
+        } finally {
+            profile = AllocationProfiler.end();
+        }
+        assertEquals(2, profile.getCalls(AllocationProfiler.Phase.ROLL));
+        assertEquals(1, profile.getCalls(AllocationProfiler.Phase.STAND));
+        assertEquals(1, profile.getCalls(AllocationProfiler.Phase.KEEP));
+    }
+
+    @Test
+    void beginDropsAProfileThatNeverEnded() {
+        AllocationProfiler.begin();
+        AllocationProfiler.enter(AllocationProfiler.Phase.ROLL);
+        // The game failed without end(); the next one starts afresh
+        AllocationProfiler.begin();
+        AllocationProfiler.enter(AllocationProfiler.Phase.HELP);
+        AllocationProfiler.exit(AllocationProfiler.Phase.HELP);
+        AllocationProfiler profile = AllocationProfiler.end();
+        assertEquals(1, profile.getCalls(AllocationProfiler.Phase.HELP));
+        assertEquals(0, profile.getCalls(AllocationProfiler.Phase.ROLL));
+        assertThrows(IllegalStateException.class, AllocationProfiler::end);
+    }
+}
@@ -0,0 +1,25 @@
+package com.yahtzee;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Writes damaged contents to a file and checks that reading it back fails
+// with an IllegalArgumentException naming the problem
+final class DamagedFiles {
+    // Reads a file the way the format under test does
+    interface Reader {
+        void read(Path path) throws IOException;
+    }
+
+    private DamagedFiles() {
+    }
+
+    static void assertRejected(Path path, byte[] contents, Reader reader, String message) throws IOException {
+        Files.write(path, contents);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> reader.read(path));
+        assertTrue(e.getMessage().contains(message), () -> path.getFileName() + ": " + e.getMessage());
+    }
+}
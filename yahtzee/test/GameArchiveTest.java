@@ -0,0 +1,241 @@
+package com.yahtzee;
+
+import static com.yahtzee.DamagedFiles.assertRejected;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Archives written from played games read back column by column, and damaged archives
+class GameArchiveTest {
+    private static final int NUM_SEATS = 2;
+
+    @TempDir
+    Path directory;
+
+    // What a turn looked like to an ordinary listener
+    private static final class Turn {
+        int round;
+        int seat;
+        int category = -1;
+        int points;
+        int finalHand;
+    }
+
+    private static final class TurnRecorder implements GameListener {
+        final List<Turn> turns = new ArrayList<>();
+        private final List<Player> players;
+        private int round;
+        private int seat;
+
+        TurnRecorder(List<Player> players) {
+            this.players = players;
+        }
+
+        @Override
+        public void roundStarted(int round, Map<Player, Integer> scores) {
+            this.round = round;
+        }
+
+        @Override
+        public void turnStarted(Player player, ScoreCard scoreCard) {
+            seat = players.indexOf(player);
+        }
+
+        @Override
+        public void turnEnded(Player player, List<Integer> finalDice) {
+            Turn turn = new Turn();
+            turn.round = round;
+            turn.seat = seat;
+            turn.finalHand = ScoreTable.indexOf(DiceHand.of(finalDice));
+            turns.add(turn);
+        }
+
+        @Override
+        public void categoryScored(Player player, Category category, int points) {
+            turns.get(turns.size() - 1).category = category.ordinal();
+            turns.get(turns.size() - 1).points = points;
+        }
+    }
+
+    // Game ids with large, small and backward jumps, so the delta varints need several widths
+    private static final long[] GAME_IDS = { 0, 1, 2, 1_000_000_007L, 5, 1L << 40, 41, 42 };
+
+    private final List<Game> games = new ArrayList<>();
+    private final List<List<Player>> players = new ArrayList<>();
+    private final List<Turn> turns = new ArrayList<>();
+
+    // Plays the games into chunks of at most chunkGames games
+    private Path writeArchive(String name, int chunkGames) throws IOException {
+        Path path = directory.resolve(name);
+        try (GameArchive.Writer writer = GameArchive.Writer.create(path, NUM_SEATS)) {
+            GameArchive.ChunkBuilder builder = new GameArchive.ChunkBuilder(NUM_SEATS, chunkGames);
+            for (int i = 0; i < GAME_IDS.length; i++) {
+                List<Player> seats = List.of(new Computer("Computer 1", DiceProvider.RANDOM),
+                        new Computer("Computer 2", DiceProvider.RANDOM));
+                TurnRecorder recorder = new TurnRecorder(seats);
+                DiceSource.seedCurrent(100 + i);
+                builder.startGame(GAME_IDS[i], seats);
+                Game game = new Game(new ScoreCard(), 1, seats, new CompositeListener(builder, recorder)).playGame();
+                builder.finishGame(game);
+                games.add(game);
+                players.add(seats);
+                turns.addAll(recorder.turns);
+                if (builder.isFull()) {
+                    writer.write(builder);
+                }
+            }
+            writer.write(builder);
+            assertEquals(GAME_IDS.length, writer.getGames());
+        }
+        return path;
+    }
+
+    private static int[] concat(List<GameArchive.Chunk> chunks, Function<GameArchive.Chunk, int[]> column) {
+        return chunks.stream().flatMapToInt(chunk -> Arrays.stream(column.apply(chunk))).toArray();
+    }
+
+    @Test
+    void everyColumnRoundTrips() throws IOException {
+        Path path = writeArchive("games.yarc", 3);
+        try (GameArchive.Reader reader = GameArchive.Reader.open(path)) {
+            assertEquals(NUM_SEATS, reader.getNumSeats());
+            assertEquals(3, reader.getNumChunks());
+            assertEquals(GAME_IDS.length, reader.getGames());
+            List<GameArchive.Chunk> chunks = reader.chunks().collect(Collectors.toList());
+
+            assertArrayEquals(GAME_IDS, chunks.stream().flatMapToLong(chunk -> Arrays.stream(chunk.getGameIds()))
+                    .toArray());
+
+            int[] scores = concat(chunks, GameArchive.Chunk::getScores);
+            int[] turnCounts = concat(chunks, GameArchive.Chunk::getTurnCounts);
+            int turnsSoFar = 0;
+            for (int game = 0; game < games.size(); game++) {
+                for (int seat = 0; seat < NUM_SEATS; seat++) {
+                    assertEquals(games.get(game).getScoreCard().getPlayerScore(players.get(game).get(seat)),
+                            scores[game * NUM_SEATS + seat]);
+                }
+                turnsSoFar += turnCounts[game];
+            }
+            assertEquals(turns.size(), turnsSoFar);
+
+            int[] rounds = concat(chunks, GameArchive.Chunk::getRounds);
+            int[] seats = concat(chunks, GameArchive.Chunk::getSeats);
+            int[] categories = concat(chunks, GameArchive.Chunk::getCategories);
+            int[] points = concat(chunks, GameArchive.Chunk::getPoints);
+            int[] finalHands = concat(chunks, GameArchive.Chunk::getFinalHands);
+            for (int i = 0; i < turns.size(); i++) {
+                Turn turn = turns.get(i);
+                assertEquals(turn.round, rounds[i], "round of turn " + i);
+                assertEquals(turn.seat, seats[i], "seat of turn " + i);
+                assertEquals(turn.category, categories[i], "category of turn " + i);
+                assertEquals(turn.points, points[i], "points of turn " + i);
+                assertEquals(turn.finalHand, finalHands[i], "final hand of turn " + i);
+            }
+        }
+    }
+
+    @Test
+    void rollsAddUpToTheirTurns() throws IOException {
+        Path path = writeArchive("rolls.yarc", GameArchive.DEFAULT_CHUNK_GAMES);
+        try (GameArchive.Reader reader = GameArchive.Reader.open(path)) {
+            assertEquals(1, reader.getNumChunks());
+            GameArchive.Chunk chunk = reader.chunks().findFirst().orElseThrow();
+            int[] rollCounts = chunk.getRollCounts();
+            int[] rolled = chunk.getRolled();
+            int[] kept = chunk.getKept();
+            assertEquals(Arrays.stream(rollCounts).sum(), chunk.getRolls());
+            assertEquals(chunk.getRolls(), rolled.length);
+            assertEquals(chunk.getRolls(), kept.length);
+            for (int roll = 0; roll < rolled.length; roll++) {
+                DiceHand rolledDice = RerollTable.getKept(rolled[roll]);
+                DiceHand keptDice = RerollTable.getKept(kept[roll]);
+                for (int face = 1; face <= DiceHand.NUM_FACES; face++) {
+                    assertTrue(keptDice.count(face) <= rolledDice.count(face), "roll " + roll);
+                }
+            }
+            for (int count : rollCounts) {
+                assertTrue(count >= 1 && count <= 3);
+            }
+        }
+    }
+
+    @Test
+    void emptyArchiveHasNoChunks() throws IOException {
+        Path path = directory.resolve("empty.yarc");
+        try (GameArchive.Writer writer = GameArchive.Writer.create(path, NUM_SEATS)) {
+            writer.write(new GameArchive.ChunkBuilder(NUM_SEATS));
+        }
+        try (GameArchive.Reader reader = GameArchive.Reader.open(path)) {
+            assertEquals(0, reader.getNumChunks());
+            assertEquals(0, reader.getGames());
+        }
+    }
+
+    @Test
+    void truncatedTailDropsOnlyTheLastChunk() throws IOException {
+        Path path = writeArchive("torn.yarc", 3);
+        byte[] archive = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(archive, archive.length - 1));
+        try (GameArchive.Reader reader = GameArchive.Reader.open(path)) {
+            assertEquals(2, reader.getNumChunks());
+            assertEquals(6, reader.getGames());
+            long[] ids = reader.chunks().flatMapToLong(chunk -> Arrays.stream(chunk.getGameIds())).toArray();
+            assertArrayEquals(Arrays.copyOf(GAME_IDS, 6), ids);
+        }
+    }
+
+    @Test
+    void corruptHeadersAreRejected() throws IOException {
+        Path path = writeArchive("header.yarc", 3);
+        byte[] archive = Files.readAllBytes(path);
+
+        Path rejected = directory.resolve("rejected.yarc");
+        DamagedFiles.Reader open = damaged -> GameArchive.Reader.open(damaged).close();
+
+        byte[] badMagic = archive.clone();
+        ByteBuffer.wrap(badMagic).order(ByteOrder.LITTLE_ENDIAN).putInt(0, 0);
+        assertRejected(rejected, badMagic, open, "Not a game archive");
+
+        byte[] badVersion = archive.clone();
+        ByteBuffer.wrap(badVersion).order(ByteOrder.LITTLE_ENDIAN).putShort(4, (short) (GameArchive.VERSION + 1));
+        assertRejected(rejected, badVersion, open, "version");
+
+        Path shortFile = directory.resolve("short.yarc");
+        Files.write(shortFile, Arrays.copyOf(archive, 3));
+        assertThrows(IOException.class, () -> GameArchive.Reader.open(shortFile).close());
+    }
+
+    @Test
+    void corruptColumnLengthsAreRejected() throws IOException {
+        Path path = writeArchive("columns.yarc", GameArchive.DEFAULT_CHUNK_GAMES);
+        byte[] archive = Files.readAllBytes(path);
+        // The first column length follows the file header, the chunk size and four counts
+        ByteBuffer buffer = ByteBuffer.wrap(archive).order(ByteOrder.LITTLE_ENDIAN);
+        int firstColumn = 8 + 4 + 4 * Integer.BYTES;
+        buffer.putInt(firstColumn, buffer.getInt(firstColumn) + 1);
+        Files.write(path, archive);
+        try (GameArchive.Reader reader = GameArchive.Reader.open(path)) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> reader.chunks().findFirst());
+            assertTrue(e.getMessage().contains("corrupt"), e.getMessage());
+        }
+    }
+
+    @Test
+    void writerRejectsOtherSeatCounts() throws IOException {
+        try (GameArchive.Writer writer = GameArchive.Writer.create(directory.resolve("seats.yarc"), NUM_SEATS)) {
+            assertThrows(IllegalArgumentException.class, () -> writer.write(new GameArchive.ChunkBuilder(3)));
+        }
+        GameArchive.ChunkBuilder builder = new GameArchive.ChunkBuilder(NUM_SEATS);
+        assertThrows(IllegalArgumentException.class, () -> builder.startGame(0, List.of(new Human())));
+    }
+}
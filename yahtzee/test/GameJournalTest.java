@@ -0,0 +1,172 @@
+package com.yahtzee;
+
+import static com.yahtzee.DamagedFiles.assertRejected;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Recording, recovering and reading back journals, including torn and corrupted files
+class GameJournalTest {
+    @TempDir
+    Path directory;
+
+    private static List<Player> seats() {
+        return List.of(new Computer("Computer 1", DiceProvider.RANDOM),
+                new Computer("Computer 2", DiceProvider.RANDOM));
+    }
+
+    // Plays a seeded game into a journal and returns the finished game
+    private static Game playJournaled(Path path, List<Player> seats, long seed) throws IOException {
+        DiceSource.seedCurrent(seed);
+        try (GameJournal journal = GameJournal.open(path, seats)) {
+            return new Game(new ScoreCard(), 1, seats, journal).playGame();
+        }
+    }
+
+    @Test
+    void recoversAFinishedGame() throws IOException {
+        Path path = directory.resolve("game.yjnl");
+        List<Player> seats = seats();
+        Game played = playJournaled(path, seats, 7);
+
+        Game recovered = GameJournal.recover(path, seats);
+        assertEquals(played.getScoreCard(), recovered.getScoreCard());
+        assertTrue(recovered.isOver());
+
+        List<GameJournal.Entry> entries = GameJournal.readAll(path);
+        assertEquals(ScoreTable.NUM_CATEGORIES,
+                entries.stream().filter(e -> e.getType() == GameJournal.EntryType.CLAIMED).count());
+        for (GameJournal.Entry entry : entries) {
+            if (entry.getType() == GameJournal.EntryType.CLAIMED) {
+                assertEquals(played.getScoreCard().getPoints(entry.getCategory()), entry.getPoints());
+                assertEquals(Optional.of(seats.get(entry.getSeat())),
+                        played.getScoreCard().getOwner(entry.getCategory()));
+            }
+        }
+    }
+
+    @Test
+    void readRoundReturnsOnlyThatRound() throws IOException {
+        Path path = directory.resolve("rounds.yjnl");
+        playJournaled(path, seats(), 11);
+
+        List<GameJournal.Entry> all = GameJournal.readAll(path);
+        int lastRound = all.get(all.size() - 1).getRound();
+        for (int round = 1; round <= lastRound; round++) {
+            int wanted = round;
+            List<GameJournal.Entry> entries = GameJournal.readRound(path, round);
+            assertEquals(GameJournal.EntryType.ROUND_STARTED, entries.get(0).getType());
+            assertEquals(GameJournal.EntryType.ROUND_ENDED, entries.get(entries.size() - 1).getType());
+            assertTrue(entries.stream().allMatch(e -> e.getRound() == wanted));
+            assertEquals(all.stream().filter(e -> e.getRound() == wanted).count(), entries.size());
+        }
+        assertEquals(List.of(), GameJournal.readRound(path, lastRound + 1));
+    }
+
+    // Offset just past the ROUND_ENDED record of the given round
+    private static long endOfRound(Path path, int round) throws IOException {
+        long position = GameJournal.HEADER_SIZE;
+        for (GameJournal.Entry entry : GameJournal.readAll(path)) {
+            position += entry.getType().getSize();
+            if (entry.getType() == GameJournal.EntryType.ROUND_ENDED && entry.getRound() == round) {
+                return position;
+            }
+        }
+        throw new AssertionError("Round " + round + " never ended");
+    }
+
+    private static void truncate(Path path, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        }
+    }
+
+    @Test
+    void tornTailRecoversTheLastFinishedRound() throws IOException {
+        Path path = directory.resolve("torn.yjnl");
+        List<Player> seats = seats();
+        playJournaled(path, seats, 3);
+
+        // Cut the file partway through a record of round 4
+        long cut = endOfRound(path, 3) + 9;
+        truncate(path, cut);
+
+        Game recovered = GameJournal.recover(path, seats);
+        assertEquals(4, recovered.getCurrentRound());
+        Game expected = GameJournal.recover(copyUpTo(path, endOfRound(path, 3)), seats);
+        assertEquals(expected.getScoreCard(), recovered.getScoreCard());
+        assertTrue(GameJournal.readAll(path).stream().allMatch(e -> e.getRound() <= 4));
+    }
+
+    private Path copyUpTo(Path path, long size) throws IOException {
+        Path copy = directory.resolve("copy-" + size + ".yjnl");
+        Files.write(copy, Arrays.copyOf(Files.readAllBytes(path), (int) size));
+        return copy;
+    }
+
+    @Test
+    void reopeningDiscardsTheUnfinishedRound() throws IOException {
+        Path path = directory.resolve("reopen.yjnl");
+        List<Player> seats = seats();
+        playJournaled(path, seats, 5);
+        long roundTwoEnd = endOfRound(path, 2);
+        truncate(path, roundTwoEnd + 20);
+
+        try (GameJournal journal = GameJournal.open(path, seats)) {
+            assertEquals(roundTwoEnd, journal.size());
+        }
+        assertEquals(roundTwoEnd, Files.size(path));
+        assertEquals(List.of(), GameJournal.readRound(path, 3));
+
+        // Playing on continues the recovered game in the same journal
+        Game resumed = GameJournal.recover(path, seats);
+        try (GameJournal journal = GameJournal.open(path, seats)) {
+            Game finished = resumed.withListener(journal).playGame();
+            assertEquals(finished.getScoreCard(), GameJournal.recover(path, seats).getScoreCard());
+        }
+    }
+
+    @Test
+    void corruptHeadersAreRejected() throws IOException {
+        Path path = directory.resolve("header.yjnl");
+        List<Player> seats = seats();
+        playJournaled(path, seats, 9);
+        byte[] journal = Files.readAllBytes(path);
+
+        Path rejected = directory.resolve("rejected.yjnl");
+        DamagedFiles.Reader recover = damaged -> GameJournal.recover(damaged, seats);
+
+        byte[] badMagic = journal.clone();
+        ByteBuffer.wrap(badMagic).putInt(0, 0);
+        assertRejected(rejected, badMagic, recover, "Not a game journal");
+
+        byte[] badVersion = journal.clone();
+        ByteBuffer.wrap(badVersion).putShort(4, (short) (GameJournal.VERSION + 1));
+        assertRejected(rejected, badVersion, recover, "version");
+
+        assertRejected(rejected, journal, damaged -> GameJournal.recover(damaged, List.of(seats.get(0))), "players");
+        assertRejected(rejected, Arrays.copyOf(journal, GameJournal.HEADER_SIZE - 1), recover, "Not a game journal");
+    }
+
+    @Test
+    void unknownRecordTypeEndsTheJournal() throws IOException {
+        Path path = directory.resolve("garbage.yjnl");
+        List<Player> seats = seats();
+        playJournaled(path, seats, 13);
+        long roundOneEnd = endOfRound(path, 1);
+        byte[] journal = Files.readAllBytes(path);
+        journal[(int) roundOneEnd] = 0x7F;
+        Files.write(path, journal);
+
+        assertEquals(2, GameJournal.recover(path, seats).getCurrentRound());
+        assertTrue(GameJournal.readAll(path).stream().allMatch(e -> e.getRound() <= 1));
+    }
+}
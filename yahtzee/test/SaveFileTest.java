@@ -0,0 +1,188 @@
+package com.yahtzee;
+
+import static com.yahtzee.DamagedFiles.assertRejected;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.zip.CRC32;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Round trips and corrupted files for both save formats
+class SaveFileTest {
+    @TempDir
+    Path directory;
+
+    private static Game partlyPlayedGame() {
+        Human human = new Human();
+        Computer computer = new Computer();
+        ScoreCard scoreCard = new ScoreCard()
+                .addEntry(Category.SIXES, 18, human, 1)
+                .addEntry(Category.YAHTZEE, 50, computer, 1)
+                .addEntry(Category.FULL_HOUSE, 25, human, 2)
+                .addEntry(Category.ONES, 0, computer, 2)
+                .addEntry(Category.FIVE_STRAIGHT, 40, computer, 3);
+        return new Game(scoreCard, 4, Arrays.asList(human, computer));
+    }
+
+    private static void assertSameGame(Game expected, Game actual) {
+        // Players are equal when they have the same class and name
+        assertEquals(expected.getPlayers(), actual.getPlayers());
+        assertEquals(expected.getCurrentRound(), actual.getCurrentRound());
+        assertEquals(expected.getScoreCard().serialize(), actual.getScoreCard().serialize());
+        for (int seat = 0; seat < 2; seat++) {
+            assertEquals(expected.getScoreCard().getPlayerScore(expected.getPlayers().get(seat)),
+                    actual.getScoreCard().getPlayerScore(actual.getPlayers().get(seat)));
+        }
+    }
+
+    @Test
+    void textRoundTrip() throws IOException {
+        Game game = partlyPlayedGame();
+        Path path = directory.resolve("game.txt");
+        SaveFile.save(game, path);
+        assertSameGame(game, SaveFile.load(path));
+    }
+
+    @Test
+    void binaryRoundTrip() throws IOException {
+        Game game = partlyPlayedGame();
+        Path path = directory.resolve("game" + SaveFile.BINARY_EXTENSION);
+        SaveFile.save(game, path);
+        assertSameGame(game, SaveFile.load(path));
+    }
+
+    @Test
+    void binarySavesRebuildEverySeat() throws IOException {
+        List<Player> seats = new ArrayList<>(List.of(new Player("Ålice"), new Human(), new Computer()));
+        for (ComputerStrategy strategy : ComputerStrategy.values()) {
+            seats.add(strategy.create("Computer " + strategy, DiceProvider.RANDOM));
+        }
+        ScoreCard scoreCard = new ScoreCard()
+                .addEntry(Category.SIXES, 24, seats.get(0), 1)
+                .addEntry(Category.FIVES, 20, seats.get(seats.size() - 1), 1);
+        Game game = new Game(scoreCard, 2, seats);
+        Path path = directory.resolve("seats" + SaveFile.BINARY_EXTENSION);
+        SaveFile.save(game, path);
+
+        Game loaded = SaveFile.load(path);
+        assertSameGame(game, loaded);
+        for (int seat = 0; seat < seats.size(); seat++) {
+            assertEquals(seats.get(seat).getClass(), loaded.getPlayers().get(seat).getClass());
+        }
+        assertEquals(Optional.of(loaded.getPlayers().get(0)), loaded.getScoreCard().getOwner(Category.SIXES));
+    }
+
+    @Test
+    void playersABinarySaveCannotRebuildAreRejected() {
+        Player custom = new Computer("Custom", DiceProvider.RANDOM) {
+        };
+        Game game = new Game(new ScoreCard(), 1, List.of(new Human(), custom));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, game::toBinary);
+        assertTrue(e.getMessage().contains("Custom"), e.getMessage());
+
+        Game longName = new Game(new ScoreCard(), 1, List.of(new Player("x".repeat(256)), new Computer()));
+        assertThrows(IllegalArgumentException.class, longName::toBinary);
+    }
+
+    @Test
+    void emptyScoreCardRoundTrips() throws IOException {
+        Game game = new Game(new ScoreCard(), 1, Arrays.asList(new Human(), new Computer()));
+        for (String name : List.of("empty.txt", "empty" + SaveFile.BINARY_EXTENSION)) {
+            Path path = directory.resolve(name);
+            SaveFile.save(game, path);
+            assertSameGame(game, SaveFile.load(path));
+        }
+    }
+
+    @Test
+    void bundledTextSavesLoad() throws IOException {
+        for (String name : List.of("1.txt", "2.txt", "3.txt")) {
+            Game game = SaveFile.load(Path.of(name));
+            assertEquals(ScoreTable.NUM_CATEGORIES, game.getScoreCard().serialize().split("\n").length);
+        }
+    }
+
+    // SaveFile picks the format from the file name, so each case names its file
+    private void assertLoadRejected(byte[] contents, String name, String message) throws IOException {
+        assertRejected(directory.resolve(name), contents, SaveFile::load, message);
+    }
+
+    private byte[] savedBinary() throws IOException {
+        Path path = directory.resolve("saved" + SaveFile.BINARY_EXTENSION);
+        SaveFile.save(partlyPlayedGame(), path);
+        return Files.readAllBytes(path);
+    }
+
+    @Test
+    void truncatedBinaryIsRejected() throws IOException {
+        byte[] saved = savedBinary();
+        // The seats make the size vary, so a cut short save is caught by its checksum
+        assertLoadRejected(Arrays.copyOf(saved, saved.length - 1), "short" + SaveFile.BINARY_EXTENSION, "checksum");
+        assertLoadRejected(new byte[0], "zero" + SaveFile.BINARY_EXTENSION, "bytes");
+    }
+
+    @Test
+    void flippedBitFailsTheChecksum() throws IOException {
+        byte[] saved = savedBinary();
+        for (int i = 0; i < saved.length; i++) {
+            byte[] corrupt = saved.clone();
+            corrupt[i] ^= 0x10;
+            assertLoadRejected(corrupt, "flipped" + SaveFile.BINARY_EXTENSION, "checksum");
+        }
+    }
+
+    // Rewrites a field and the CRC after it, so only the field's own check can catch it
+    private static byte[] withValidCrc(byte[] saved) {
+        ByteBuffer buffer = ByteBuffer.wrap(saved);
+        CRC32 crc = new CRC32();
+        crc.update(saved, 0, saved.length - Integer.BYTES);
+        buffer.putInt(saved.length - Integer.BYTES, (int) crc.getValue());
+        return saved;
+    }
+
+    @Test
+    void unknownVersionIsRejected() throws IOException {
+        byte[] saved = savedBinary();
+        ByteBuffer.wrap(saved).putShort(Integer.BYTES, (short) (Game.BINARY_VERSION + 1));
+        assertLoadRejected(withValidCrc(saved), "version" + SaveFile.BINARY_EXTENSION, "version");
+    }
+
+    @Test
+    void wrongMagicIsRejected() throws IOException {
+        byte[] saved = savedBinary();
+        ByteBuffer.wrap(saved).putInt(0, 0x12345678);
+        assertLoadRejected(withValidCrc(saved), "magic" + SaveFile.BINARY_EXTENSION, "Not a binary save");
+    }
+
+    private static String savedText() {
+        return partlyPlayedGame().serialize();
+    }
+
+    @Test
+    void truncatedTextIsRejected() throws IOException {
+        String text = savedText();
+        String truncated = text.substring(0, text.lastIndexOf("0\n"));
+        assertLoadRejected(truncated.getBytes(StandardCharsets.UTF_8), "truncated.txt", "scorecard entries");
+        assertLoadRejected("Round: 3\n".getBytes(StandardCharsets.UTF_8), "noscorecard.txt", "no scorecard");
+        assertLoadRejected(new byte[0], "empty.txt", "empty");
+    }
+
+    @Test
+    void malformedTextIsRejected() throws IOException {
+        String text = savedText();
+        assertLoadRejected((text + "0\n").getBytes(StandardCharsets.UTF_8), "extra.txt", "more than");
+        assertLoadRejected(text.replace("Round: 4", "Round: four").getBytes(StandardCharsets.UTF_8), "round.txt",
+                "round");
+        assertLoadRejected(text.replace("18 Human 1", "eighteen Human 1").getBytes(StandardCharsets.UTF_8),
+                "points.txt", "points");
+        assertLoadRejected(text.replace("18 Human 1", "18 Human").getBytes(StandardCharsets.UTF_8), "parts.txt",
+                "entry");
+        assertLoadRejected("Scorecard:\n".getBytes(StandardCharsets.UTF_8), "noround.txt", "round");
+    }
+}
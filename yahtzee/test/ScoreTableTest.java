@@ -0,0 +1,139 @@
+package com.yahtzee;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import org.junit.jupiter.api.Test;
+
+// Checks the ScoreTable against reference rules written here from face
+// counts and runs of distinct faces, sharing no code with DiceHand, Category
+// or helperFunctions, and against hand-written scores.
+class ScoreTableTest {
+    private static Map<Integer, Integer> counts(List<Integer> dice) {
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (int die : dice) {
+            counts.merge(die, 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    // Length of the longest run of consecutive distinct faces
+    private static int longestRun(List<Integer> dice) {
+        List<Integer> faces = new ArrayList<>(new TreeSet<>(dice));
+        int longest = 0;
+        int run = 0;
+        for (int i = 0; i < faces.size(); i++) {
+            run = i > 0 && faces.get(i) == faces.get(i - 1) + 1 ? run + 1 : 1;
+            longest = Math.max(longest, run);
+        }
+        return longest;
+    }
+
+    private static boolean referenceApplicable(List<Integer> dice, Category category) {
+        Collection<Integer> counts = counts(dice).values();
+        int most = Collections.max(counts);
+        switch (category) {
+            case YAHTZEE:
+                return most == 5;
+            case FIVE_STRAIGHT:
+                return longestRun(dice) >= 5;
+            case FOUR_STRAIGHT:
+                return longestRun(dice) >= 4;
+            case FULL_HOUSE:
+                return counts.contains(3) && counts.contains(2);
+            case FOUR_OF_A_KIND:
+                return most >= 4;
+            case THREE_OF_A_KIND:
+                return most >= 3;
+            default:
+                return dice.contains(category.ordinal() + 1);
+        }
+    }
+
+    private static int referenceScore(List<Integer> dice, Category category) {
+        if (!referenceApplicable(dice, category)) {
+            return 0;
+        }
+        switch (category) {
+            case THREE_OF_A_KIND:
+            case FOUR_OF_A_KIND:
+                return dice.stream().mapToInt(Integer::intValue).sum();
+            case FULL_HOUSE:
+                return 25;
+            case FOUR_STRAIGHT:
+                return 30;
+            case FIVE_STRAIGHT:
+                return 40;
+            case YAHTZEE:
+                return 50;
+            default:
+                int face = category.ordinal() + 1;
+                return counts(dice).getOrDefault(face, 0) * face;
+        }
+    }
+
+    // Every ordered roll of five dice
+    private static List<List<Integer>> allRolls() {
+        List<List<Integer>> rolls = new ArrayList<>();
+        for (int roll = 0; roll < 7776; roll++) {
+            List<Integer> dice = new ArrayList<>();
+            for (int i = 0, rest = roll; i < DiceHand.MAX_DICE; i++, rest /= 6) {
+                dice.add(rest % 6 + 1);
+            }
+            rolls.add(dice);
+        }
+        return rolls;
+    }
+
+    @Test
+    void everyRollMatchesTheReferenceRules() {
+        for (List<Integer> dice : allRolls()) {
+            int index = ScoreTable.indexOf(DiceHand.of(dice));
+            for (Category category : Category.values()) {
+                assertEquals(referenceScore(dice, category), ScoreTable.getScore(index, category),
+                        () -> category + " score of " + dice);
+                assertEquals(referenceApplicable(dice, category), ScoreTable.isApplicable(index, category),
+                        () -> category + " applicability of " + dice);
+            }
+        }
+    }
+
+    @Test
+    void indexesCoverEveryHandOnce() {
+        Set<Integer> indexes = new HashSet<>();
+        for (List<Integer> dice : allRolls()) {
+            int index = ScoreTable.indexOf(DiceHand.of(dice));
+            assertTrue(index >= 0 && index < ScoreTable.NUM_HANDS, () -> "index of " + dice);
+            assertEquals(DiceHand.of(dice), ScoreTable.getHand(index));
+            indexes.add(index);
+        }
+        assertEquals(ScoreTable.NUM_HANDS, indexes.size());
+    }
+
+    @Test
+    void handWrittenScores() {
+        assertScores(DiceHand.of(2, 3, 4, 5, 6), Map.of(Category.TWOS, 2, Category.SIXES, 6,
+                Category.FOUR_STRAIGHT, 30, Category.FIVE_STRAIGHT, 40, Category.THREE_OF_A_KIND, 0));
+        assertScores(DiceHand.of(3, 3, 3, 5, 5), Map.of(Category.THREES, 9, Category.FIVES, 10,
+                Category.THREE_OF_A_KIND, 19, Category.FOUR_OF_A_KIND, 0, Category.FULL_HOUSE, 25));
+        assertScores(DiceHand.of(6, 6, 6, 6, 6), Map.of(Category.SIXES, 30, Category.THREE_OF_A_KIND, 30,
+                Category.FOUR_OF_A_KIND, 30, Category.FULL_HOUSE, 0, Category.YAHTZEE, 50));
+        assertScores(DiceHand.of(1, 2, 3, 4, 4), Map.of(Category.ONES, 1, Category.FOURS, 8,
+                Category.FOUR_STRAIGHT, 30, Category.FIVE_STRAIGHT, 0, Category.FIVES, 0));
+    }
+
+    private static void assertScores(DiceHand hand, Map<Category, Integer> expected) {
+        for (Map.Entry<Category, Integer> score : expected.entrySet()) {
+            assertEquals(score.getValue(), ScoreTable.getScore(hand, score.getKey()), hand + " " + score.getKey());
+        }
+    }
+
+    @Test
+    void maxScoringCategoryPrefersTheLaterOnTies() {
+        int index = ScoreTable.indexOf(DiceHand.of(6, 6, 6, 6, 6));
+        assertEquals(Category.YAHTZEE.ordinal(), ScoreTable.getMaxScoringOrdinal(index, ScoreTable.ALL_CATEGORIES));
+        int noYahtzee = ScoreTable.ALL_CATEGORIES & ~(1 << Category.YAHTZEE.ordinal());
+        assertEquals(Category.FOUR_OF_A_KIND.ordinal(), ScoreTable.getMaxScoringOrdinal(index, noYahtzee));
+        assertEquals(-1, ScoreTable.getMaxScoringOrdinal(index, 1 << Category.ONES.ordinal()));
+    }
+}
@@ -0,0 +1,207 @@
+package com.yahtzee;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Recovering sessions that were played, resumed and closed, group commit,
+// the fsync policies, and reopening a log with a torn tail
+class SessionLogTest {
+    @TempDir
+    Path directory;
+
+    private static final List<Player> SEATS = List.of(new Human(), new Computer());
+
+    private static void claim(GameListener listener, int round, Player player, Category category, int points) {
+        listener.roundStarted(round, Map.of());
+        listener.categoryScored(player, category, points);
+    }
+
+    private static Map<Long, Game> recover(Path path) throws IOException {
+        return SessionLog.recover(path, () -> SEATS);
+    }
+
+    @Test
+    void unfinishedRoundIsDroppedOnRecovery() throws IOException {
+        Path path = directory.resolve("sessions.ylog");
+        try (SessionLog log = SessionLog.open(path, SessionLog.FsyncPolicy.NEVER)) {
+            GameListener listener = log.listener(1, SEATS);
+            claim(listener, 1, SEATS.get(0), Category.SIXES, 24);
+            listener.roundEnded(1, null, Map.of());
+            claim(listener, 2, SEATS.get(1), Category.ONES, 3);
+        }
+        Game game = recover(path).get(1L);
+        assertEquals(2, game.getCurrentRound());
+        assertEquals(Optional.of(SEATS.get(0)), game.getScoreCard().getOwner(Category.SIXES));
+        assertEquals(Optional.empty(), game.getScoreCard().getOwner(Category.ONES));
+    }
+
+    @Test
+    void resumedSessionReplaysOnlyItsNewClaims() throws IOException {
+        Path path = directory.resolve("resumed.ylog");
+        try (SessionLog log = SessionLog.open(path, SessionLog.FsyncPolicy.NEVER)) {
+            GameListener listener = log.listener(1, SEATS);
+            claim(listener, 1, SEATS.get(0), Category.SIXES, 24);
+            listener.roundEnded(1, null, Map.of());
+            // The client goes away partway through round 2
+            claim(listener, 2, SEATS.get(0), Category.ONES, 3);
+        }
+        assertEquals(2, recover(path).get(1L).getCurrentRound());
+
+        try (SessionLog log = SessionLog.open(path, SessionLog.FsyncPolicy.NEVER)) {
+            assertEquals(1, log.getMaxSessionId());
+            GameListener listener = log.resumedListener(1, SEATS);
+            claim(listener, 2, SEATS.get(0), Category.FIVES, 15);
+            claim(listener, 2, SEATS.get(1), Category.YAHTZEE, 50);
+            listener.roundEnded(2, null, Map.of());
+        }
+        ScoreCard scoreCard = recover(path).get(1L).getScoreCard();
+        assertEquals(Optional.empty(), scoreCard.getOwner(Category.ONES));
+        assertEquals(15, scoreCard.getPoints(Category.FIVES));
+        assertEquals(Optional.of(SEATS.get(1)), scoreCard.getOwner(Category.YAHTZEE));
+        assertEquals(24 + 15, scoreCard.getPlayerScore(SEATS.get(0)));
+    }
+
+    @Test
+    void closedSessionsAreNotRecovered() throws IOException {
+        Path path = directory.resolve("closed.ylog");
+        try (SessionLog log = SessionLog.open(path, SessionLog.FsyncPolicy.EVERY_BATCH)) {
+            log.listener(1, SEATS);
+            log.listener(2, SEATS);
+            log.closeSession(1).join();
+        }
+        assertEquals(Set.of(2L), recover(path).keySet());
+    }
+
+    @Test
+    void appendsFromManyThreadsShareBatches() throws Exception {
+        int threads = 16;
+        int appendsPerThread = 200;
+        Path path = directory.resolve("group.ylog");
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try (SessionLog log = SessionLog.open(path, SessionLog.FsyncPolicy.EVERY_BATCH)) {
+            CountDownLatch ready = new CountDownLatch(threads);
+            List<Future<List<CompletableFuture<Void>>>> results = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                long sessionId = thread;
+                results.add(pool.submit(() -> {
+                    ready.countDown();
+                    ready.await();
+                    List<CompletableFuture<Void>> appends = new ArrayList<>();
+                    for (int i = 0; i < appendsPerThread; i++) {
+                        appends.add(log.append(sessionId, SessionLog.RecordType.ROUND_ENDED, -1, null, 0, i));
+                    }
+                    return appends;
+                }));
+            }
+            for (Future<List<CompletableFuture<Void>>> result : results) {
+                result.get().forEach(CompletableFuture::join);
+            }
+
+            assertEquals(threads * appendsPerThread, log.getRecords());
+            // A batch is written while the threads keep appending, so the next one holds many records
+            assertTrue(log.getBatches() < log.getRecords() / 2, log.getBatches() + " batches");
+            // Every batch was synced before its appends completed
+            assertEquals(log.getBatches(), log.getSyncs());
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(SessionLog.HEADER_SIZE + (long) threads * appendsPerThread * SessionLog.RECORD_SIZE,
+                Files.size(path));
+    }
+
+    @Test
+    void neverPolicyDoesNotSync() throws IOException {
+        SessionLog log = SessionLog.open(directory.resolve("never.ylog"), SessionLog.FsyncPolicy.NEVER);
+        log.listener(1, SEATS);
+        log.closeSession(1).join();
+        log.close();
+        // Opening a session writes OPENED and RESUMED
+        assertEquals(3, log.getRecords());
+        assertEquals(0, log.getSyncs());
+    }
+
+    @Test
+    void intervalPolicySyncsWhileIdle() throws InterruptedException, IOException {
+        Duration interval = Duration.ofMillis(300);
+        try (SessionLog log = SessionLog.open(directory.resolve("idle.ylog"), SessionLog.FsyncPolicy.INTERVAL,
+                interval)) {
+            log.closeSession(1).join();
+            // The append completes once written, before the interval is up
+            assertEquals(0, log.getSyncs());
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (log.getSyncs() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            // No further append was needed for the written batch to be synced
+            assertEquals(1, log.getSyncs());
+            Thread.sleep(2 * interval.toMillis());
+            assertEquals(1, log.getSyncs());
+        }
+    }
+
+    @Test
+    void intervalPolicySyncsOnClose() throws IOException {
+        SessionLog log = SessionLog.open(directory.resolve("close.ylog"), SessionLog.FsyncPolicy.INTERVAL,
+                Duration.ofHours(1));
+        log.closeSession(1).join();
+        assertEquals(0, log.getSyncs());
+        log.close();
+        assertEquals(1, log.getSyncs());
+        assertThrows(IllegalStateException.class, () -> log.closeSession(2));
+    }
+
+    @Test
+    void openingCutsOffATornTail() throws IOException {
+        Path path = directory.resolve("torn.ylog");
+        try (SessionLog log = SessionLog.open(path, SessionLog.FsyncPolicy.NEVER)) {
+            assertEquals(-1, log.getMaxSessionId());
+            log.listener(3, SEATS);
+            log.listener(7, SEATS);
+            log.listener(5, SEATS);
+        }
+        // Each listener opened two records
+        long intact = SessionLog.HEADER_SIZE + 6 * SessionLog.RECORD_SIZE;
+        assertEquals(intact, Files.size(path));
+
+        // A crash partway through writing a record of a higher session
+        byte[] torn = Arrays.copyOf(new byte[] { 0, 0, 0, 0, 0, 0, 0, 9 }, SessionLog.RECORD_SIZE / 2);
+        Files.write(path, torn, StandardOpenOption.APPEND);
+        try (SessionLog log = SessionLog.open(path, SessionLog.FsyncPolicy.NEVER)) {
+            assertEquals(intact, Files.size(path));
+            assertEquals(7, log.getMaxSessionId());
+            log.closeSession(7).join();
+        }
+        assertEquals(intact + SessionLog.RECORD_SIZE, Files.size(path));
+        assertEquals(Set.of(3L, 5L), recover(path).keySet());
+    }
+
+    @Test
+    void openingCutsOffFromADamagedRecord() throws IOException {
+        Path path = directory.resolve("damaged.ylog");
+        try (SessionLog log = SessionLog.open(path, SessionLog.FsyncPolicy.NEVER)) {
+            log.listener(1, SEATS);
+            log.listener(2, SEATS);
+            log.listener(3, SEATS);
+        }
+        byte[] contents = Files.readAllBytes(path);
+        // The OPENED record of session 2, after the two records of session 1
+        int secondSession = SessionLog.HEADER_SIZE + 2 * SessionLog.RECORD_SIZE;
+        contents[secondSession + 11] ^= 1;
+        Files.write(path, contents);
+
+        try (SessionLog log = SessionLog.open(path, SessionLog.FsyncPolicy.NEVER)) {
+            assertEquals(secondSession, Files.size(path));
+            assertEquals(1, log.getMaxSessionId());
+        }
+        assertEquals(Set.of(1L), recover(path).keySet());
+    }
+}
@@ -0,0 +1,110 @@
+package com.yahtzee;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Eviction and rehydration keep each session's seats, and failed writes leave the store as it was
+class SessionStoreTest {
+    @TempDir
+    Path directory;
+
+    private static Game gameOf(Player first, Player second) {
+        ScoreCard scoreCard = new ScoreCard()
+                .addEntry(Category.SIXES, 24, first, 1)
+                .addEntry(Category.YAHTZEE, 50, second, 1);
+        return new Game(scoreCard, 2, List.of(first, second));
+    }
+
+    @Test
+    void evictedGamesComeBackWithTheirPlayers() throws IOException {
+        ExpectimaxComputer expectimax = new ExpectimaxComputer("Deep Blue", DiceProvider.RANDOM,
+                new TurnOptimizer());
+        Player alice = new Player("Alice");
+        Game game = gameOf(alice, expectimax);
+        try (SessionStore store = new SessionStore(directory, 1, id -> GameListener.NONE)) {
+            store.put(1, game);
+            store.evictAll();
+            assertEquals(0, store.getResidentSessions());
+            assertEquals(1, store.getEvictedSessions());
+
+            // The players are rebuilt from the save, not kept in memory
+            Game rehydrated = store.get(1);
+            assertEquals(List.of(alice, expectimax), rehydrated.getPlayers());
+            assertEquals(ExpectimaxComputer.class, rehydrated.getPlayers().get(1).getClass());
+            assertNotSame(alice, rehydrated.getPlayers().get(0));
+            assertEquals(game.getCurrentRound(), rehydrated.getCurrentRound());
+            assertEquals(game.getScoreCard().serialize(), rehydrated.getScoreCard().serialize());
+            assertEquals(1, store.getRehydrations());
+            assertEquals(0, store.getEvictedSessions());
+        }
+    }
+
+    @Test
+    void takeRemovesTheSession() throws IOException {
+        try (SessionStore store = new SessionStore(directory, 1, id -> GameListener.NONE)) {
+            Game game = gameOf(new Human(), new Computer());
+            store.put(7, game);
+            store.evictAll();
+            assertEquals(game.getScoreCard().serialize(), store.take(7).getScoreCard().serialize());
+            assertThrows(IllegalArgumentException.class, () -> store.take(7));
+            assertThrows(IllegalArgumentException.class, () -> store.get(7));
+            assertEquals(0, store.getEvictedSessions());
+        }
+    }
+
+    @Test
+    void gamesWithoutASaveFormAreRejected() throws IOException {
+        try (SessionStore store = new SessionStore(directory, 1, id -> GameListener.NONE)) {
+            Player stranger = new Player("Stranger");
+            ScoreCard scoreCard = new ScoreCard().addEntry(Category.ONES, 3, stranger, 1);
+            Game game = new Game(scoreCard, 2, List.of(new Human(), new Computer()));
+            assertThrows(IllegalArgumentException.class, () -> store.put(1, game));
+            assertEquals(0, store.getResidentSessions());
+
+            store.put(2, gameOf(new Human(), new Computer()));
+            assertThrows(IllegalArgumentException.class, () -> store.update(2, ignored -> game));
+            assertEquals(2, store.get(2).getCurrentRound());
+        }
+    }
+
+    @Test
+    void failedEvictionLeavesTheStoreAsItWas() throws IOException {
+        Path missing = directory.resolve("store");
+        // One stripe's share of the cache is one session, so any two sessions in a stripe overflow it
+        try (SessionStore store = new SessionStore(missing, 1, id -> GameListener.NONE)) {
+            long first = 0;
+            long second = sameStripeAs(first);
+            Game game = gameOf(new Human(), new Computer());
+            store.put(first, game);
+            Files.delete(missing);
+
+            assertThrows(IOException.class, () -> store.put(second, game));
+            assertEquals(1, store.getResidentSessions());
+            assertSame(game, store.get(first));
+            assertThrows(IllegalArgumentException.class, () -> store.get(second));
+            assertEquals(0, store.getEvictions());
+        }
+    }
+
+    // Finds another id in the same stripe as the given one: with one session
+    // per stripe, putting both evicts one of them
+    private long sameStripeAs(long id) throws IOException {
+        Game game = new Game(new ScoreCard(), 1, List.of(new Human(), new Computer()));
+        for (long other = id + 1;; other++) {
+            try (SessionStore probe = new SessionStore(directory.resolve("probe-" + other), 1,
+                    ignored -> GameListener.NONE)) {
+                probe.put(id, game);
+                probe.put(other, game);
+                if (probe.getEvictions() > 0) {
+                    return other;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.yahtzee;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import org.junit.jupiter.api.Test;
+
+// A turn driven answer by answer, and the same turn played on the calling thread
+class TurnMachineTest {
+    // Hands out the given rolls in order and remembers how many dice each roll asked for
+    private static final class ScriptedDice implements DiceProvider {
+        final List<Integer> sizes = new ArrayList<>();
+        private final Deque<List<Integer>> rolls;
+
+        ScriptedDice(List<List<Integer>> rolls) {
+            this.rolls = new ArrayDeque<>(rolls);
+        }
+
+        @Override
+        public List<Integer> roll(int numDice) {
+            sizes.add(numDice);
+            List<Integer> roll = rolls.remove();
+            assertEquals(numDice, roll.size());
+            return roll;
+        }
+    }
+
+    // The turn events a listener sees, as short strings
+    private static final class EventRecorder implements GameListener {
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        public void diceRolled(Player player, ScoreCard scoreCard, List<Integer> keptDice, List<Integer> diceRolls) {
+            events.add("rolled " + diceRolls);
+        }
+
+        @Override
+        public void lastRollTaken(Player player) {
+            events.add("last");
+        }
+
+        @Override
+        public void helpGiven(Player player, String help) {
+            events.add("help");
+        }
+
+        @Override
+        public void stood(Player player) {
+            events.add("stood");
+        }
+
+        @Override
+        public void diceKept(Player player, List<Integer> diceToKeep) {
+            events.add("kept " + diceToKeep);
+        }
+
+        @Override
+        public void allDiceKept(Player player) {
+            events.add("all kept");
+        }
+
+        @Override
+        public void turnEnded(Player player, List<Integer> finalDice) {
+            events.add("ended " + finalDice);
+        }
+    }
+
+    // A player who gives scripted answers without asking anyone
+    private static final class ScriptedPlayer extends Player {
+        private final Deque<Boolean> stands;
+        private final Deque<List<Integer>> keeps;
+        private boolean help = true;
+
+        ScriptedPlayer(DiceProvider dice, List<Boolean> stands, List<List<Integer>> keeps) {
+            super("Scripted", dice);
+            this.stands = new ArrayDeque<>(stands);
+            this.keeps = new ArrayDeque<>(keeps);
+        }
+
+        @Override
+        public boolean wantsHelp() {
+            // Only for the first roll
+            boolean wants = help;
+            help = false;
+            return wants;
+        }
+
+        @Override
+        public boolean wantsToStand(ScoreCard scoreCard, List<Integer> keptDice, List<Integer> diceRolls,
+                int rollsLeft) {
+            return stands.remove();
+        }
+
+        @Override
+        public List<Integer> getDiceToKeep(ScoreCard scoreCard, List<Integer> diceRolls, List<Integer> keptDice,
+                int rollsLeft) {
+            return keeps.remove();
+        }
+    }
+
+    private static final List<List<Integer>> ROLLS = List.of(List.of(2, 2, 5, 6, 6), List.of(6, 1, 1),
+            List.of(6, 3));
+
+    @Test
+    void waitsForEachAnswer() {
+        ScriptedDice dice = new ScriptedDice(ROLLS);
+        EventRecorder recorder = new EventRecorder();
+        TurnMachine turn = new TurnMachine(new Human(), new ScoreCard(), dice, recorder);
+
+        assertEquals(TurnMachine.State.AWAITING_STAND, turn.start());
+        assertEquals(1, turn.getRollNumber());
+        assertEquals(List.of(2, 2, 5, 6, 6), turn.getDiceRolls());
+        assertEquals(TurnMachine.State.AWAITING_KEEP, turn.stand(false));
+
+        // Three sixes were not rolled, so the turn waits for a keep that can be made
+        assertThrows(IllegalArgumentException.class, () -> turn.keep(List.of(6, 6, 6)));
+        assertThrows(IllegalArgumentException.class, () -> turn.keep(List.of(4)));
+        assertEquals(TurnMachine.State.AWAITING_KEEP, turn.getState());
+        assertEquals(List.of(), turn.getKeptDice());
+
+        assertEquals(TurnMachine.State.AWAITING_STAND, turn.keep(List.of(6, 6)));
+        assertEquals(2, turn.getRollNumber());
+        assertEquals(List.of(6, 6), turn.getKeptDice());
+        assertEquals(List.of(6, 1, 1), turn.getDiceRolls());
+        assertFalse(turn.getHelp().isEmpty());
+
+        turn.stand(false);
+        assertEquals(TurnMachine.State.SCORED, turn.keep(List.of(6)));
+        assertEquals(3, turn.getRollNumber());
+        assertEquals(List.of(6, 6, 6, 6, 3), turn.getFinalDice());
+        assertEquals(List.of(5, 3, 2), dice.sizes);
+        assertEquals(List.of("rolled [2, 2, 5, 6, 6]", "kept [6, 6]", "rolled [6, 1, 1]", "kept [6]",
+                "rolled [6, 3]", "last", "ended [6, 6, 6, 6, 3]"), recorder.events);
+    }
+
+    @Test
+    void standingEndsTheTurnWithTheRolledDice() {
+        EventRecorder recorder = new EventRecorder();
+        TurnMachine turn = new TurnMachine(new Human(), new ScoreCard(), new ScriptedDice(ROLLS), recorder);
+        turn.start();
+        assertEquals(TurnMachine.State.SCORED, turn.stand(true));
+        assertEquals(List.of(2, 2, 5, 6, 6), turn.getFinalDice());
+        assertEquals(List.of(), turn.getDiceRolls());
+        assertEquals(List.of("rolled [2, 2, 5, 6, 6]", "stood", "ended [2, 2, 5, 6, 6]"), recorder.events);
+    }
+
+    @Test
+    void keepingEveryDieEndsTheTurn() {
+        ScriptedDice dice = new ScriptedDice(ROLLS);
+        EventRecorder recorder = new EventRecorder();
+        TurnMachine turn = new TurnMachine(new Human(), new ScoreCard(), dice, recorder);
+        turn.start();
+        turn.stand(false);
+        assertEquals(TurnMachine.State.SCORED, turn.keep(List.of(6, 2, 6, 5, 2)));
+        assertEquals(List.of(5), dice.sizes);
+        assertEquals(List.of("rolled [2, 2, 5, 6, 6]", "kept [6, 2, 6, 5, 2]", "all kept",
+                "ended [6, 2, 6, 5, 2]"), recorder.events);
+    }
+
+    @Test
+    void answersOutOfTurnAreRejected() {
+        TurnMachine turn = new TurnMachine(new Human(), new ScoreCard(), new ScriptedDice(ROLLS), GameListener.NONE);
+        assertThrows(IllegalStateException.class, () -> turn.stand(false));
+        assertThrows(IllegalStateException.class, turn::getHelp);
+
+        turn.start();
+        assertThrows(IllegalStateException.class, turn::start);
+        assertThrows(IllegalStateException.class, () -> turn.keep(List.of()));
+        assertThrows(IllegalStateException.class, turn::getFinalDice);
+
+        turn.stand(true);
+        assertThrows(IllegalStateException.class, () -> turn.stand(true));
+        assertThrows(IllegalStateException.class, turn::getHelp);
+    }
+
+    @Test
+    void computerAnswersOnTheSpot() {
+        DiceSource.seedCurrent(17);
+        TurnMachine turn = new TurnMachine(new Computer("Computer", DiceProvider.RANDOM), new ScoreCard(),
+                DiceProvider.RANDOM, GameListener.NONE);
+        assertEquals(TurnMachine.State.SCORED, turn.start());
+        assertEquals(DiceHand.MAX_DICE, turn.getFinalDice().size());
+    }
+
+    @Test
+    void playTurnAsksThePlayerForTheSameAnswers() {
+        List<Boolean> stands = List.of(false, false);
+        List<List<Integer>> keeps = List.of(List.of(6, 6), List.of(6));
+
+        EventRecorder stepped = new EventRecorder();
+        TurnMachine turn = new TurnMachine(new Human(), new ScoreCard(), new ScriptedDice(ROLLS), stepped);
+        turn.start();
+        for (int i = 0; i < keeps.size(); i++) {
+            turn.stand(stands.get(i));
+            turn.keep(keeps.get(i));
+        }
+
+        EventRecorder played = new EventRecorder();
+        ScriptedPlayer player = new ScriptedPlayer(new ScriptedDice(ROLLS), stands, keeps);
+        assertEquals(turn.getFinalDice(), Turn.playTurn(player, new ScoreCard(), played));
+        // The scripted player asks for help before its first answer
+        List<String> expected = new ArrayList<>(stepped.events);
+        expected.add(1, "help");
+        assertEquals(expected, played.events);
+    }
+}
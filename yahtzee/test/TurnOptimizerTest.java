@@ -0,0 +1,193 @@
+package com.yahtzee;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import org.junit.jupiter.api.Test;
+
+// Turn expectimax against a brute force over every ordered roll, and the
+// optimizer's memo, tie-breaking and roll-count handling
+class TurnOptimizerTest {
+    // The brute force adds thousands of equally likely sequences, the optimizer
+    // far fewer weighted multisets, so their rounding differs a little
+    private static final double TOLERANCE = 1e-10;
+
+    // Expected points of the turn, by trying every sequence of faces for
+    // every roll and every way of keeping dice, memoized by kept dice only
+    private static final class BruteForce {
+        private final ScoreCard scoreCard;
+        private final Map<String, Double> memo = new HashMap<>();
+
+        BruteForce(ScoreCard scoreCard) {
+            this.scoreCard = scoreCard;
+        }
+
+        private double handValue(List<Integer> dice) {
+            DiceHand hand = DiceHand.of(dice);
+            return scoreCard.getMaxScoringCategory(hand).map(category -> ScoreCard.getScore(hand, category))
+                    .orElse(0);
+        }
+
+        // Keeps the given dice and rolls the rest, with rollsLeft rolls including this one
+        double expected(List<Integer> kept, int rollsLeft) {
+            List<Integer> sorted = new ArrayList<>(kept);
+            Collections.sort(sorted);
+            String key = sorted + "/" + rollsLeft;
+            Double known = memo.get(key);
+            if (known != null) {
+                return known;
+            }
+            int numDice = DiceHand.MAX_DICE - kept.size();
+            int sequences = (int) Math.pow(DiceHand.NUM_FACES, numDice);
+            double total = 0;
+            for (int sequence = 0; sequence < sequences; sequence++) {
+                List<Integer> rolled = new ArrayList<>(numDice);
+                for (int die = 0, rest = sequence; die < numDice; die++, rest /= DiceHand.NUM_FACES) {
+                    rolled.add(rest % DiceHand.NUM_FACES + 1);
+                }
+                total += rollsLeft == 1 ? handValue(concat(sorted, rolled)) : bestKeep(sorted, rolled, rollsLeft - 1);
+            }
+            double value = total / sequences;
+            memo.put(key, value);
+            return value;
+        }
+
+        // Best value over every subset of the rolled dice, by position
+        double bestKeep(List<Integer> kept, List<Integer> rolled, int rollsLeft) {
+            double best = Double.NEGATIVE_INFINITY;
+            for (int mask = 0; mask < 1 << rolled.size(); mask++) {
+                List<Integer> keep = new ArrayList<>(kept);
+                for (int die = 0; die < rolled.size(); die++) {
+                    if ((mask & 1 << die) != 0) {
+                        keep.add(rolled.get(die));
+                    }
+                }
+                best = Math.max(best, keep.size() == DiceHand.MAX_DICE ? handValue(keep) : expected(keep, rollsLeft));
+            }
+            return best;
+        }
+    }
+
+    private static List<Integer> concat(List<Integer> first, List<Integer> second) {
+        List<Integer> result = new ArrayList<>(first);
+        result.addAll(second);
+        return result;
+    }
+
+    private static final Player PLAYER = new Player("Test");
+
+    private static ScoreCard claimed(Category... categories) {
+        ScoreCard scoreCard = new ScoreCard();
+        for (Category category : categories) {
+            scoreCard = scoreCard.addEntry(category, 0, PLAYER, 1);
+        }
+        return scoreCard;
+    }
+
+    private static final List<ScoreCard> SCORECARDS = List.of(new ScoreCard(),
+            claimed(Category.YAHTZEE, Category.SIXES),
+            claimed(Category.ONES, Category.TWOS, Category.THREES, Category.FULL_HOUSE, Category.FIVE_STRAIGHT));
+
+    private static final List<List<Integer>> KEPT = List.of(List.of(), List.of(6), List.of(1, 2), List.of(3, 3, 3),
+            List.of(2, 3, 4, 5), List.of(5, 5, 5, 5), List.of(1, 1, 6, 6));
+
+    @Test
+    void expectedValuesMatchBruteForce() {
+        TurnOptimizer optimizer = new TurnOptimizer();
+        int states = 0;
+        for (ScoreCard scoreCard : SCORECARDS) {
+            BruteForce bruteForce = new BruteForce(scoreCard);
+            for (List<Integer> kept : KEPT) {
+                for (int rollsLeft = 1; rollsLeft <= TurnOptimizer.MAX_ROLLS_LEFT + 1; rollsLeft++) {
+                    assertEquals(bruteForce.expected(kept, rollsLeft),
+                            optimizer.getExpectedValue(scoreCard, kept, rollsLeft), TOLERANCE,
+                            "kept " + kept + " with " + rollsLeft + " rolls left");
+                    states++;
+                }
+            }
+        }
+        assertEquals(SCORECARDS.size() * KEPT.size() * 3, states);
+    }
+
+    @Test
+    void bestKeepMatchesBruteForce() {
+        TurnOptimizer optimizer = new TurnOptimizer();
+        List<List<Integer>> rolls = List.of(List.of(1, 2, 3, 4, 6), List.of(6, 6, 2, 2, 5), List.of(4, 4, 4, 1, 3));
+        for (ScoreCard scoreCard : SCORECARDS) {
+            BruteForce bruteForce = new BruteForce(scoreCard);
+            for (List<Integer> rolled : rolls) {
+                for (int rollsLeft = 1; rollsLeft <= TurnOptimizer.MAX_ROLLS_LEFT; rollsLeft++) {
+                    List<Integer> keep = optimizer.getBestKeep(scoreCard, List.of(), rolled, rollsLeft);
+                    assertTrue(helperFunctions.difference(keep, rolled).isEmpty(), keep + " from " + rolled);
+                    double value = keep.size() == DiceHand.MAX_DICE ? bruteForce.handValue(keep)
+                            : bruteForce.expected(keep, rollsLeft);
+                    assertEquals(bruteForce.bestKeep(List.of(), rolled, rollsLeft), value, TOLERANCE,
+                            "keep " + keep + " from " + rolled + " with " + rollsLeft + " rolls left");
+                }
+            }
+        }
+    }
+
+    @Test
+    void memoFollowsTheOpenCategories() {
+        TurnOptimizer optimizer = new TurnOptimizer();
+        ScoreCard allOpen = SCORECARDS.get(0);
+        ScoreCard someClaimed = SCORECARDS.get(1);
+        List<Integer> kept = List.of(6, 6);
+        double open = optimizer.getExpectedValue(allOpen, kept, 3);
+        double claimed = optimizer.getExpectedValue(someClaimed, kept, 3);
+        assertNotEquals(open, claimed);
+        // Each answer is what a fresh optimizer gives, in whichever order they are asked
+        assertEquals(new TurnOptimizer().getExpectedValue(someClaimed, kept, 3), claimed);
+        assertEquals(open, optimizer.getExpectedValue(allOpen, kept, 3));
+        assertEquals(claimed, optimizer.getExpectedValue(someClaimed, kept, 3));
+    }
+
+    @Test
+    void tiesGoToKeepingMoreDice() {
+        // With every category worth nothing, every keep ties and the best is to stand
+        Map<Category, Double> nothing = new EnumMap<>(Category.class);
+        for (Category category : Category.values()) {
+            nothing.put(category, 0.0);
+        }
+        TurnOptimizer indifferent = new TurnOptimizer(TurnOptimizer.CategoryValue.weighted(nothing), 0);
+        assertEquals(List.of(1, 2, 3, 5, 6),
+                indifferent.getBestKeep(new ScoreCard(), List.of(), List.of(5, 3, 1, 6, 2), 2));
+        assertEquals(List.of(4, 4), indifferent.getBestKeep(new ScoreCard(), List.of(1, 2, 3), List.of(4, 4), 1));
+    }
+
+    @Test
+    void rollsLeftIsClamped() {
+        TurnOptimizer optimizer = new TurnOptimizer();
+        ScoreCard scoreCard = new ScoreCard();
+        List<Integer> rolled = List.of(6, 1, 6, 2, 3);
+        // No rolls left keeps every rolled die
+        assertEquals(List.of(1, 2, 3, 6, 6), optimizer.getBestKeep(scoreCard, List.of(), rolled, 0));
+        assertEquals(List.of(1, 2, 3, 6, 6), optimizer.getBestKeep(scoreCard, List.of(), rolled, -1));
+        // More rolls than a turn has count as the most there can be
+        assertEquals(optimizer.getBestKeep(scoreCard, List.of(), rolled, TurnOptimizer.MAX_ROLLS_LEFT),
+                optimizer.getBestKeep(scoreCard, List.of(), rolled, TurnOptimizer.MAX_ROLLS_LEFT + 3));
+
+        assertThrows(IllegalArgumentException.class, () -> optimizer.getExpectedValue(scoreCard, List.of(), 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> optimizer.getExpectedValue(scoreCard, List.of(), TurnOptimizer.MAX_ROLLS_LEFT + 2));
+    }
+
+    @Test
+    void weightedValuesScaleOnlyTheirCategories() {
+        TurnOptimizer.CategoryValue value = TurnOptimizer.CategoryValue.weighted(Map.of(Category.YAHTZEE, 2.0));
+        assertEquals(100, value.value(Category.YAHTZEE, 50));
+        assertEquals(24, value.value(Category.SIXES, 24));
+
+        // A Yahtzee in hand is worth twice its points, and any other hand as much as before
+        TurnOptimizer weighted = new TurnOptimizer(value, 0);
+        assertEquals(100, weighted.getExpectedValue(new ScoreCard(), List.of(6, 6, 6, 6, 6), 1));
+        assertEquals(new TurnOptimizer().getExpectedValue(new ScoreCard(), List.of(1, 2, 3, 4, 6), 1),
+                weighted.getExpectedValue(new ScoreCard(), List.of(1, 2, 3, 4, 6), 1));
+        // The weights are copied, so changing the map later has no effect
+        Map<Category, Double> weights = new EnumMap<>(Map.of(Category.SIXES, 3.0));
+        TurnOptimizer.CategoryValue copied = TurnOptimizer.CategoryValue.weighted(weights);
+        weights.put(Category.SIXES, 0.0);
+        assertEquals(72, copied.value(Category.SIXES, 24));
+    }
+}